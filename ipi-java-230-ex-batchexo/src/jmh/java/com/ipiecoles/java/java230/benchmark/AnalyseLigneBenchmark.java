@@ -0,0 +1,90 @@
+package com.ipiecoles.java.java230.benchmark;
+
+import com.ipiecoles.java.java230.batch.AnalyseurLigne;
+import com.ipiecoles.java.java230.batch.ErreurLigne;
+import com.ipiecoles.java.java230.batch.GenerateurFichier;
+import com.ipiecoles.java.java230.batch.LigneAnalysee;
+import com.ipiecoles.java.java230.batch.LigneCsv;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyse d'une ligne par type d'employé (AnalyseurLigne.analyser), sur des lignes valides ou toutes incorrectes.
+ * Les lignes incorrectes se partagent également les erreurs que l'analyse détecte pour le type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyseLigneBenchmark {
+
+    /**
+     * Nombre de lignes différentes analysées tour à tour, une puissance de 2
+     */
+    private static final int NB_LIGNES = 1024;
+
+    @Param({"M", "T", "C"})
+    public String type;
+
+    @Param({"propre", "erreurs"})
+    public String variante;
+
+    private final AnalyseurLigne analyseurLigne = new AnalyseurLigne();
+
+    private final LigneCsv ligneCsv = new LigneCsv();
+
+    private String[] lignes;
+
+    private int index;
+
+    @Setup
+    public void preparer() throws IOException {
+        char lettre = type.charAt(0);
+        GenerateurFichier generateur = new GenerateurFichier();
+        if ("erreurs".equals(variante)) {
+            List<ErreurLigne> erreurs = new ArrayList<>();
+            for (ErreurLigne erreur : GenerateurFichier.ERREURS_POSSIBLES) {
+                //le type inconnu change la première lettre et le manager inconnu n'est détecté qu'à l'import
+                if (erreur != ErreurLigne.TYPE_INCONNU && erreur != ErreurLigne.MANAGER_INCONNU && GenerateurFichier.possible(erreur, lettre)) {
+                    erreurs.add(erreur);
+                }
+            }
+            for (ErreurLigne erreur : erreurs) {
+                generateur.setTauxErreur(erreur, 1.0 / erreurs.size());
+            }
+        }
+        StringWriter writer = new StringWriter();
+        generateur.ecrire(writer, NB_LIGNES * 32L);
+        lignes = new String[NB_LIGNES];
+        int nb = 0;
+        for (String ligne : writer.toString().split("\n")) {
+            if (nb < NB_LIGNES && ligne.charAt(0) == lettre) {
+                lignes[nb++] = ligne;
+            }
+        }
+    }
+
+    @Benchmark
+    public LigneAnalysee analyser() {
+        String ligne = lignes[index];
+        index = (index + 1) & (NB_LIGNES - 1);
+        return analyseurLigne.analyser(ligneCsv, ligne);
+    }
+}
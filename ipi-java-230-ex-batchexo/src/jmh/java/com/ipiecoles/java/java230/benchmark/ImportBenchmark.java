@@ -0,0 +1,137 @@
+package com.ipiecoles.java.java230.benchmark;
+
+import com.ipiecoles.java.java230.MyRunner;
+import com.ipiecoles.java.java230.batch.EmployeWriter;
+import com.ipiecoles.java.java230.batch.ErreurLigne;
+import com.ipiecoles.java.java230.batch.FichierRejets;
+import com.ipiecoles.java.java230.batch.GenerateurFichier;
+import com.ipiecoles.java.java230.batch.MetriquesImport;
+import com.ipiecoles.java.java230.repository.ManagerRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import complet d'un fichier synthétique par MyRunner.readFile, sans BDD : les lots sont abandonnés au lieu d'être écrits
+ * et aucun manager n'est trouvé en BDD. Les rejets sont écrits dans leurs fichiers, sans point de reprise.
+ * La variante avec erreurs injecte TAUX_ERREUR de chaque erreur courante et TAUX_ERREUR de références avant aux managers.
+ * Le débit est donné en imports par seconde et, par les compteurs lignes et employes, en lignes lues et employés intégrés par seconde.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ImportBenchmark {
+
+    private static final double TAUX_ERREUR = 0.02;
+
+    @Param({"10000", "1000000", "10000000"})
+    public long nbLignes;
+
+    @Param({"propre", "erreurs"})
+    public String variante;
+
+    @Param({"1"})
+    public int parallelisme;
+
+    @Param({"1000"})
+    public int chunkSize;
+
+    private Path fichier;
+
+    private MyRunner myRunner;
+
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        GenerateurFichier generateur = new GenerateurFichier();
+        if ("erreurs".equals(variante)) {
+            for (ErreurLigne erreur : new ErreurLigne[]{ErreurLigne.MATRICULE, ErreurLigne.DATE, ErreurLigne.NB_CHAMPS,
+                    ErreurLigne.MANAGER_INCONNU, ErreurLigne.GRADE_HORS_BORNES}) {
+                generateur.setTauxErreur(erreur, TAUX_ERREUR);
+            }
+            generateur.setTauxReferencesAvant(TAUX_ERREUR);
+        }
+        fichier = Files.createTempFile("employes-", ".csv");
+        generateur.generer(fichier, nbLignes);
+        EmployeWriter aucuneEcriture = lot -> {
+        };
+        myRunner = new MyRunner();
+        ReflectionTestUtils.setField(myRunner, "employeWriter", aucuneEcriture);
+        ReflectionTestUtils.setField(myRunner, "managerRepository", managerRepositorySansBdd());
+        ReflectionTestUtils.setField(myRunner, "metriques", new MetriquesImport());
+        ReflectionTestUtils.setField(myRunner, "chunkSize", chunkSize);
+        ReflectionTestUtils.setField(myRunner, "parallelisme", parallelisme);
+        ReflectionTestUtils.setField(myRunner, "rejetsActif", true);
+        ReflectionTestUtils.setField(myRunner, "repriseActive", false);
+    }
+
+    /**
+     * @return un ManagerRepository qui ne trouve aucun manager
+     */
+    private static ManagerRepository managerRepositorySansBdd() {
+        return (ManagerRepository) Proxy.newProxyInstance(ManagerRepository.class.getClassLoader(), new Class<?>[]{ManagerRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.getName().equals("equals") ? proxy == args[0]
+                                : method.getName().equals("hashCode") ? System.identityHashCode(proxy) : "ManagerRepository sans BDD";
+                    }
+                    return List.class.isAssignableFrom(method.getReturnType()) ? Collections.emptyList() : null;
+                });
+    }
+
+    @TearDown(Level.Trial)
+    public void nettoyer() throws IOException {
+        Files.deleteIfExists(Paths.get(fichier + FichierRejets.SUFFIXE_LIGNES));
+        Files.deleteIfExists(Paths.get(fichier + FichierRejets.SUFFIXE_MESSAGES));
+        Files.deleteIfExists(fichier);
+    }
+
+    /**
+     * Compteurs rapportés par JMH en nombre par seconde
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Compteurs {
+
+        public long lignes;
+
+        public long employes;
+
+        @Setup(Level.Iteration)
+        public void raz() {
+            lignes = 0;
+            employes = 0;
+        }
+    }
+
+    @Benchmark
+    public long importer(Compteurs compteurs) {
+        long nbEmployes = myRunner.readFile(fichier.toString());
+        compteurs.lignes += nbLignes;
+        compteurs.employes += nbEmployes;
+        return nbEmployes;
+    }
+}
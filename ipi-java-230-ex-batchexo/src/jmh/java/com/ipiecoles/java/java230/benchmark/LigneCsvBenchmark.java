@@ -0,0 +1,107 @@
+package com.ipiecoles.java.java230.benchmark;
+
+import com.ipiecoles.java.java230.batch.LigneCsv;
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Découpage d'une ligne et lecture des dates et nombres par LigneCsv, comparés au découpage par String.split
+ * et aux lectures de la bibliothèque standard et de joda, avec exception sur les valeurs incorrectes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LigneCsvBenchmark {
+
+    @Param({"propre", "erreurs"})
+    public String variante;
+
+    private final LigneCsv ligneCsv = new LigneCsv();
+
+    private String ligne;
+
+    private String date;
+
+    private String decimal;
+
+    private String entier;
+
+    @Setup
+    public void preparer() {
+        ligne = "erreurs".equals(variante)
+                ? "T98765,dupont,pierre,12/99/2003,17x0.5,X,M87654"
+                : "T98765,dupont,pierre,12/03/2003,1700.5,5,M87654";
+        String[] champs = ligne.split(",");
+        date = champs[3];
+        decimal = champs[4];
+        entier = champs[5];
+        ligneCsv.decouper(ligne);
+    }
+
+    @Benchmark
+    public int decouper() {
+        return new LigneCsv().decouper(ligne).getNbChamps();
+    }
+
+    @Benchmark
+    public int referenceSplit() {
+        return ligne.split(",").length;
+    }
+
+    @Benchmark
+    public LocalDate date() {
+        return ligneCsv.date(3);
+    }
+
+    @Benchmark
+    public LocalDate referenceDateJoda() {
+        try {
+            return LigneCsv.FORMAT_DATE.parseLocalDate(date);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public double decimal() {
+        return ligneCsv.lireDecimal(4) ? ligneCsv.getDecimal() : Double.NaN;
+    }
+
+    @Benchmark
+    public double referenceParseDouble() {
+        try {
+            return Double.parseDouble(decimal);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Benchmark
+    public int entier() {
+        return ligneCsv.lireEntier(5) ? ligneCsv.getEntier() : -1;
+    }
+
+    @Benchmark
+    public int referenceParseInt() {
+        try {
+            return Integer.parseInt(entier);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ipiecoles.java.java230.benchmark;
+
+import com.ipiecoles.java.java230.batch.RegistreManagers;
+import com.ipiecoles.java.java230.model.Manager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche du manager d'un technicien dans le registre, comme MyRunner : parmi les managers du fichier,
+ * puis parmi ceux déjà recherchés en BDD, trouvés ou absents
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolutionManagerBenchmark {
+
+    private static final int DEBUT_BASE = 50000;
+
+    private static final int DEBUT_ABSENTS = 90000;
+
+    /**
+     * Nombre de managers de chaque sorte : du fichier, en BDD et introuvables
+     */
+    @Param({"100", "10000"})
+    public int nbManagers;
+
+    private RegistreManagers registreManagers;
+
+    private String[] matriculesFichier;
+
+    private String[] matriculesBase;
+
+    private String[] matriculesAbsents;
+
+    private int index;
+
+    @Setup
+    public void preparer() {
+        registreManagers = new RegistreManagers();
+        matriculesFichier = new String[nbManagers];
+        matriculesBase = new String[nbManagers];
+        matriculesAbsents = new String[nbManagers];
+        List<Manager> managersBase = new ArrayList<>();
+        List<String> recherches = new ArrayList<>();
+        for (int i = 0; i < nbManagers; i++) {
+            matriculesFichier[i] = String.format("M%05d", i);
+            matriculesBase[i] = String.format("M%05d", DEBUT_BASE + i);
+            matriculesAbsents[i] = String.format("M%05d", DEBUT_ABSENTS + i);
+            registreManagers.enregistrer(manager(matriculesFichier[i]));
+            managersBase.add(manager(matriculesBase[i]));
+            recherches.add(matriculesBase[i]);
+            recherches.add(matriculesAbsents[i]);
+        }
+        registreManagers.enregistrerBase(recherches, managersBase);
+    }
+
+    private static Manager manager(String matricule) {
+        Manager manager = new Manager();
+        manager.setMatricule(matricule);
+        return manager;
+    }
+
+    private Manager resoudre(String[] matricules) {
+        String matricule = matricules[index];
+        index = (index + 1) % nbManagers;
+        Manager manager = registreManagers.trouver(matricule);
+        if (manager == null && registreManagers.estConnu(matricule)) {
+            manager = registreManagers.trouverEnBase(matricule);
+        }
+        return manager;
+    }
+
+    @Benchmark
+    public Manager managerFichier() {
+        return resoudre(matriculesFichier);
+    }
+
+    @Benchmark
+    public Manager managerBase() {
+        return resoudre(matriculesBase);
+    }
+
+    @Benchmark
+    public Manager managerAbsent() {
+        return resoudre(matriculesAbsents);
+    }
+}
@@ -1,340 +1,564 @@
 package com.ipiecoles.java.java230;
 
-import com.ipiecoles.java.java230.exceptions.BatchException;
-import com.ipiecoles.java.java230.exceptions.TechnicienException;
-import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.batch.AnalyseurLigne;
+import com.ipiecoles.java.java230.batch.EmployeWriter;
+import com.ipiecoles.java.java230.batch.EmpreintesEmployes;
+import com.ipiecoles.java.java230.batch.EmployesExistants;
+import com.ipiecoles.java.java230.batch.ErreurLigne;
+import com.ipiecoles.java.java230.batch.ExportEmployes;
+import com.ipiecoles.java.java230.batch.FichierRejets;
+import com.ipiecoles.java.java230.batch.LecteurLignes;
+import com.ipiecoles.java.java230.batch.LigneAnalysee;
+import com.ipiecoles.java.java230.batch.MetriquesImport;
+import com.ipiecoles.java.java230.batch.PointReprise;
+import com.ipiecoles.java.java230.batch.RegistreManagers;
 import com.ipiecoles.java.java230.model.Employe;
 import com.ipiecoles.java.java230.model.Manager;
 import com.ipiecoles.java.java230.model.Technicien;
-import com.ipiecoles.java.java230.repository.EmployeRepository;
 import com.ipiecoles.java.java230.repository.ManagerRepository;
+import com.ipiecoles.java.java230.service.PaieService;
+import com.ipiecoles.java.java230.service.StatistiqueSalaireService;
 import org.joda.time.LocalDate;
-import org.joda.time.format.DateTimeFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 @Component
 public class MyRunner implements CommandLineRunner {
 
-    private static final String REGEX_MATRICULE = "^[MTC][0-9]{5}$";
-    private static final String REGEX_NOM = ".*";
-    private static final String REGEX_PRENOM = ".*";
-    private static final int NB_CHAMPS_MANAGER = 5;
-    private static final int NB_CHAMPS_TECHNICIEN = 7;
-    private static final String REGEX_MATRICULE_MANAGER = "^M[0-9]{5}$";
-    private static final int NB_CHAMPS_COMMERCIAL = 7;
+    public static final String FICHIER_PAR_DEFAUT = "employes.csv";
+
+    public static final String MODE_EXPORT = "export";
+
+    public static final String MODE_PAIE = "paie";
+
+    /**
+     * import : intégration du fichier en BDD, export : écriture des employés de la BDD dans le fichier,
+     * paie : calcul de la paie de tous les employés à la date paie.date-reference
+     */
+    @Value("${batch.mode:import}")
+    private String mode;
 
     @Autowired
-    private EmployeRepository employeRepository;
+    private ExportEmployes exportEmployes;
+
+    @Autowired
+    private PaieService paieService;
+
+    /**
+     * Date de référence du calcul de la paie (yyyy-MM-dd), aujourd'hui si elle est vide
+     */
+    @Value("${paie.date-reference:}")
+    private String dateReferencePaie;
+
+    /**
+     * Modes d'écriture en BDD disponibles, par nom de bean
+     */
+    @Autowired
+    private Map<String, EmployeWriter> employeWriters;
+
+    /**
+     * Nom du mode d'écriture utilisé par l'import, parmi employeWriters
+     */
+    @Value("${batch.ecriture:upsert}")
+    private String ecriture;
+
+    private EmployeWriter employeWriter;
 
     @Autowired
     private ManagerRepository managerRepository;
 
-    private List<Employe> employes = new ArrayList<>();
+    @Autowired
+    private EmpreintesEmployes empreintesEmployes;
 
-    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    @Autowired
+    private MetriquesImport metriques;
 
-    @Override
-    public void run(String... strings) throws Exception {
-        String fileName = "employes.csv";
-        readFile(fileName);
-        //readFile(strings[0]);
-        employeRepository.save(employes);
-    }
+    @Value("${batch.chunk-size:1000}")
+    private int chunkSize;
 
     /**
-     * Méthode qui lit le fichier CSV en paramètre afin d'intégrer son contenu en BDD
-     * @param fileName Le nom du fichier (à mettre dans src/main/resources)
-     * @return une liste contenant les employés à insérer en BDD ou null si le fichier n'a pas pu être lu
+     * Nombre de threads qui analysent les lignes de chaque lot (1 : analyse dans le thread principal)
      */
-    public List<Employe> readFile(String fileName) throws Exception {
-        Stream<String> stream;
-        logger.info("Lecture du fichier : " + fileName);
+    @Value("${batch.parallelisme:1}")
+    private int parallelisme;
 
-        try{
-            stream = Files.lines(Paths.get(new ClassPathResource(fileName).getURI()));
-        }catch (IOException e){
-            logger.error("Problème dans l'ouverture du fichier" + fileName);
-            return new ArrayList<>();
-        }
+    /**
+     * Écrire les lignes rejetées dans des fichiers dédiés plutôt que dans les logs
+     */
+    @Value("${batch.rejets.actif:false}")
+    private boolean rejetsActif;
 
-        List<String> lignes = stream.collect(Collectors.toList());
-        logger.info(lignes.size()+ "lignes lues");
-        // parcours la liste:
-        for(int i = 0; i<lignes.size();i++)
-        try{
-            processLine(lignes.get(i));
-        }catch(BatchException e){
-            logger.error("Ligne " + (i+1)+ " : " + e.getMessage()+ " => " + lignes.get(i));
-        }
+    /**
+     * Enregistrer un point de reprise après chaque lot écrit en BDD, et reprendre l'import d'un fichier à partir de celui-ci
+     */
+    @Value("${batch.reprise.actif:true}")
+    private boolean repriseActive;
 
-        return employes;
-    }
+    /**
+     * Import incrémental : les employés déjà en BDD ne sont réécrits que si leur ligne a changé depuis l'import précédent
+     */
+    @Value("${batch.delta.actif:false}")
+    private boolean deltaActif;
+
+    @Autowired
+    private StatistiqueSalaireService statistiqueSalaireService;
 
     /**
-     * Méthode qui regarde le premier caractère de la ligne et appelle la bonne méthode de création d'employé
-     * @param ligne la ligne à analyser
-     * @throws BatchException si le type d'employé n'a pas été reconnu
+     * Suspendre la mise à jour des statistiques des salaires (db/004) pendant l'import et les recalculer à la fin
      */
-    private void processLine(String ligne) throws BatchException {
-        //TODO si la 1er lettre n'est pas CTM lance le batchexception
-
-        switch (ligne.substring(0,1)){
-            case "T":
-                processTechnicien(ligne);
-                break;
-            case "M":
-                processManager(ligne);
-                break;
-            case"C":
-                processCommercial(ligne);
-                break;
-            default:
-                throw new BatchException("Type d'employé inconnu");
-        }
+    @Value("${batch.statistiques.actif:false}")
+    private boolean statistiquesActives;
 
-    }
+    /**
+     * Employés validés du lot en cours, pas encore écrits en BDD
+     */
+    private List<Employe> employes = new ArrayList<>();
 
+    /**
+     * Empreintes des lignes des employés du lot en cours, dans le même ordre, en import incrémental
+     */
+    private List<Long> empreintes = new ArrayList<>();
 
-    private void processEmploye(Employe employe, String ligneEmploye,String regexMatricule ) throws BatchException {
-        String[]employeFields = ligneEmploye.split(",");
+    /**
+     * Managers déjà lus dans le fichier en cours d'import
+     */
+    private RegistreManagers registreManagers = new RegistreManagers();
 
-        //controle matricule
-        //String regexMatricule = "";
-        if (!employeFields[0].matches(regexMatricule)){
-            throw new BatchException("la chaîne "+ employeFields[0] +" ne respecte pas l'expression régulière " + regexMatricule );
-        }
+    private final AnalyseurLigne analyseurLigne = new AnalyseurLigne();
 
-        //controle de la date
-        LocalDate d =null;
-        try
-        {
-            d =  DateTimeFormat.forPattern("dd/MM/yyyy").parseLocalDate(employeFields[3]);
+    /**
+     * Employés du lot en cours déjà présents en BDD, en import incrémental
+     */
+    private EmployesExistants employesExistants;
 
-        }catch (Exception e){
-            throw new BatchException(employeFields[3] + " ne respecte pas le format de date dd/MM/yyyy");
-        }
+    private long nbModifies;
 
-        //controle du salaire
-       double salaire= 0;
-        try {
-             salaire = Double.parseDouble(employeFields[4]);
-        }catch (Exception e){
-            throw new BatchException(employeFields[4] + " n'est pas un nombre valide pour un salaire");
-        }
+    private long nbInchanges;
+
+    private ForkJoinPool pool;
+
+    /**
+     * Fichiers des lignes rejetées de l'import en cours, ou null si les rejets sont signalés dans les logs
+     */
+    private FichierRejets fichierRejets;
 
-        employe.setMatricule(employeFields[0]);
-        employe.setNom(employeFields[1]);
-        employe.setPrenom(employeFields[2]);
-        employe.setDateEmbauche(d);
-        employe.setSalaire(Double.parseDouble(employeFields[4]));
+    /**
+     * Point de reprise de l'import en cours, ou null si l'import ne peut pas être repris
+     */
+    private PointReprise pointReprise;
 
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    @PostConstruct
+    public void choisirEcriture() {
+        employeWriter = employeWriters.get(ecriture);
+        if (employeWriter == null) {
+            throw new IllegalStateException("Mode d'écriture batch.ecriture inconnu : " + ecriture + ", valeurs possibles : " + employeWriters.keySet());
+        }
     }
 
+    @Override
+    public void run(String... strings) {
+        if (MODE_EXPORT.equals(mode)) {
+            exporter(nomFichier(strings));
+        } else if (MODE_PAIE.equals(mode)) {
+            paieService.calculerPaie(dateReferencePaie.isEmpty() ? LocalDate.now() : LocalDate.parse(dateReferencePaie));
+        } else {
+            readFile(nomFichier(strings));
+        }
+    }
+
+    /**
+     * Écrit tous les employés de la BDD dans le fichier, au format de l'import
+     * @param fileName le chemin du fichier, compressé en gzip s'il se termine par .gz
+     * @return le nombre d'employés exportés
+     */
+    public long exporter(String fileName) {
+        try {
+            return exportEmployes.exporter(Paths.get(fileName));
+        } catch (IOException | InvalidPathException e) {
+            logger.error("Problème dans l'écriture du fichier " + fileName + " : " + e.getMessage());
+            return 0;
+        }
+    }
 
     /**
-     * Méthode qui crée un Commercial à partir d'une ligne contenant les informations d'un commercial et l'ajoute dans la liste globale des employés
-     * @param ligneCommercial la ligne contenant les infos du commercial à intégrer
-     * @throws BatchException s'il y a un problème sur cette ligne
+     * @param args les arguments de la ligne de commande, qui peuvent aussi contenir des propriétés Spring (--nom=valeur)
+     * @return le premier argument qui n'est pas une propriété, ou le fichier par défaut
      */
-    private void processCommercial(String ligneCommercial) throws BatchException {
-        //TODO
+    static String nomFichier(String... args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                return arg;
+            }
+        }
+        return FICHIER_PAR_DEFAUT;
+    }
 
-        String[]commercialFields = ligneCommercial.split(",");
-        Commercial c = new Commercial();
+    /**
+     * Méthode qui lit le fichier CSV en paramètre afin d'intégrer son contenu en BDD.
+     * Le fichier est lu en flux par lots de chunkSize lignes ; chaque lot est validé puis écrit en BDD dans sa propre transaction.
+     * Si un point de reprise a été laissé par un import interrompu du même fichier, la lecture reprend après le dernier lot écrit.
+     * @param fileName Le chemin du fichier, ou à défaut le nom d'une ressource du classpath (src/main/resources)
+     * @return le nombre d'employés intégrés en BDD
+     */
+    public long readFile(String fileName) {
+        logger.info("Lecture du fichier : " + fileName);
 
-        //controle de la longueur
-       if (commercialFields.length != NB_CHAMPS_COMMERCIAL) {
-           throw new BatchException("La ligne manager ne contient pas " + NB_CHAMPS_COMMERCIAL + " éléments mais "+commercialFields.length );
-       }
-        //controle du CA
+        long nbLignes = 0;
+        long nbEmployes = 0;
+        registreManagers = new RegistreManagers();
+        nbModifies = 0;
+        nbInchanges = 0;
+        metriques.debut(fileName, tailleFichier(fileName));
+        PointReprise reprise;
         try {
-            double ca = Double.parseDouble(commercialFields[5]);
-        }catch (Exception e){
-            throw new BatchException("Le chiffre d'affaire du commercial est incorrect");
+            reprise = chargerPointReprise(fileName);
+            if (rejetsActif) {
+                fichierRejets = new FichierRejets(fileName, reprise != null ? reprise.getNbRejets() : 0);
+            }
+        } catch (IOException e) {
+            logger.error("Problème dans la préparation de l'import de " + fileName + " : " + e.getMessage());
+            return 0;
         }
-        //controle de La performance du commercial
-        try {
-            int perf = Integer.parseInt(commercialFields[6]);
-        }catch (Exception e){
-            throw new BatchException("La performance du commercial est incorrecte");
-        }
-
-        processEmploye(c,ligneCommercial,REGEX_MATRICULE);
-        c.setCaAnnuel(Double.parseDouble(commercialFields[5]));
-        c.setPerformance(Integer.parseInt(commercialFields[6]));
-
-        employes.add(c);
-
-//        //controle de la longueur
-//        if (commercialFields.length != NB_CHAMPS_COMMERCIAL) {
-//            throw new BatchException("La ligne manager ne contient pas " + NB_CHAMPS_COMMERCIAL + " éléments mais "+commercialFields.length );
-//        }
-//        //controle matricule
-//        if (!commercialFields[0].matches(REGEX_MATRICULE)){
-//            throw new BatchException("la chaîne "+ commercialFields[0] +" ne respecte pas l'expression régulière " + REGEX_MATRICULE );
-//        }
-//        //controle de la date
-//        LocalDate d =null;
-//        try
-//        {
-//            d =  DateTimeFormat.forPattern("dd/MM/yyyy").parseLocalDate(commercialFields[3]);
-//
-//        }catch (Exception e){
-//            throw new BatchException(commercialFields[3] + " ne respecte pas le format de date dd/MM/yyyy");
-//        }
-//        //controle du salaire
-//        try {
-//            double salaire = Double.parseDouble(commercialFields[4]);
-//        }catch (Exception e){
-//            throw new BatchException(commercialFields[4] + " n'est pas un nombre valide pour un salaire");
-//        }
-//        c.setMatricule(commercialFields[0]);
-//        c.setNom(commercialFields[1]);
-//        c.setPrenom(commercialFields[2]);
-//        c.setDateEmbauche(d);
-//        c.setSalaire(Double.parseDouble(commercialFields[4]));
+        if (reprise != null) {
+            nbLignes = reprise.getNumeroLigne();
+            nbEmployes = reprise.getNbEmployes();
+            metriques.reprendre(reprise.getPosition(), nbLignes, nbEmployes);
+        }
+        if (statistiquesActives) {
+            statistiqueSalaireService.suspendre();
+        }
+        pool = parallelisme > 1 ? new ForkJoinPool(parallelisme) : null;
+        try (LecteurLignes lecteur = reprise != null
+                ? LecteurLignes.reprendre(fileName, reprise.getPosition(), reprise.getNumeroLigne())
+                : LecteurLignes.ouvrir(fileName)) {
+            List<String> lignes = new ArrayList<>(chunkSize);
+            String ligne;
+            long debutLecture = System.nanoTime();
+            while ((ligne = lecteur.lireLigne()) != null) {
+                lignes.add(ligne);
+                if (lignes.size() >= chunkSize) {
+                    metriques.mesurer(MetriquesImport.Phase.LECTURE, debutLecture);
+                    nbEmployes += processLot(lignes, nbLignes + 1);
+                    nbLignes = lecteur.getNumeroLigne();
+                    lignes.clear();
+                    enregistrerPointReprise(lecteur, nbEmployes);
+                    metriques.avancer(lecteur.getPosition(), nbLignes, nbEmployes);
+                    debutLecture = System.nanoTime();
+                }
+            }
+            metriques.mesurer(MetriquesImport.Phase.LECTURE, debutLecture);
+            nbEmployes += processLot(lignes, nbLignes + 1);
+            nbLignes = lecteur.getNumeroLigne();
+            metriques.avancer(lecteur.getPosition(), nbLignes, nbEmployes);
+            supprimerPointReprise();
+        } catch (IOException e) {
+            logger.error("Problème dans la lecture du fichier " + fileName + " : " + e.getMessage());
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            fermerRejets();
+            pointReprise = null;
+            if (statistiquesActives) {
+                statistiqueSalaireService.recalculer();
+                logger.info("Statistiques des salaires recalculées");
+            }
+        }
+        logger.info(nbLignes + " lignes lues, " + nbEmployes + " employés intégrés");
+        if (deltaActif) {
+            logger.info((nbEmployes - nbModifies) + " employés créés, " + nbModifies + " modifiés, " + nbInchanges + " inchangés");
+        }
+        metriques.terminer();
 
+        return nbEmployes;
+    }
 
+    /**
+     * @return la taille en octets du fichier, ou -1 s'il ne s'agit pas d'un fichier du système de fichiers
+     */
+    private static long tailleFichier(String fileName) {
+        try {
+            Path fichier = Paths.get(fileName);
+            return Files.isRegularFile(fichier) ? Files.size(fichier) : -1;
+        } catch (IOException | InvalidPathException e) {
+            return -1;
+        }
+    }
 
+    /**
+     * Prépare le point de reprise du fichier et, si un import précédent du même fichier a été interrompu,
+     * recharge depuis la BDD les managers du fichier qu'il avait déjà écrits
+     * @param fileName le fichier importé ; seul un fichier du système de fichiers peut être repris
+     * @return le point de reprise de l'import interrompu, ou null s'il faut lire le fichier depuis le début
+     * @throws IOException si le fichier ou son point de reprise n'a pas pu être lu
+     */
+    private PointReprise chargerPointReprise(String fileName) throws IOException {
+        Path fichier = Paths.get(fileName);
+        if (!repriseActive || !Files.isRegularFile(fichier)) {
+            return null;
+        }
+        pointReprise = PointReprise.debut(fichier);
+        PointReprise precedent = PointReprise.lire(fichier);
+        if (precedent == null) {
+            return null;
+        }
+        if (!precedent.memeFichier(pointReprise)) {
+            logger.warn("Le fichier " + fileName + " a été modifié depuis son point de reprise, il est importé depuis le début");
+            return null;
+        }
+        logger.info("Reprise de l'import à la ligne " + (precedent.getNumeroLigne() + 1) + " (" + precedent.getNbEmployes() + " employés déjà intégrés)");
+        registreManagers.reprendre(managerRepository.findAll(precedent.getManagers().values()));
+        //les points de reprise suivants complètent le fichier des managers du point de reprise interrompu
+        pointReprise = precedent;
+        return precedent;
     }
 
     /**
-     * Méthode qui crée un Manager à partir d'une ligne contenant les informations d'un manager et l'ajoute dans la liste globale des employés
-     * @param ligneManager la ligne contenant les infos du manager à intégrer
-     * @throws BatchException s'il y a un problème sur cette ligne
+     * Enregistre le point de reprise après le dernier lot écrit en BDD, une fois les rejets de ce lot écrits sur disque :
+     * le nombre de rejets enregistré est celui des lignes effectivement présentes dans les fichiers de rejets.
+     * S'il ne peut pas l'être, l'import continue mais ne pourra pas être repris : l'ancien point de reprise est supprimé.
      */
-    private void processManager(String ligneManager) throws BatchException {
-        //TODO
-
-        String[]managerFields = ligneManager.split(",");
-        Manager m = new Manager();
-        //controle de la longueur
-        if (managerFields.length != NB_CHAMPS_MANAGER) {
-            throw new BatchException("La ligne manager ne contient pas " + NB_CHAMPS_MANAGER + " éléments mais "+managerFields.length );
-        }
-        processEmploye(m,ligneManager,REGEX_MATRICULE_MANAGER);
-        employes.add(m);
-
-//        //controle matricule
-//        if (!managerFields[0].matches(REGEX_MATRICULE_MANAGER)){
-//            throw new BatchException("la chaîne "+ managerFields[0] +" ne respecte pas l'expression régulière " + REGEX_MATRICULE_MANAGER );
-//        }
-//        //controle de la date
-//        LocalDate d =null;
-//        try
-//        {
-//            d =  DateTimeFormat.forPattern("dd/MM/yyyy").parseLocalDate(managerFields[3]);
-//
-//        }catch (Exception e){
-//            throw new BatchException(managerFields[3] + " ne respecte pas le format de date dd/MM/yyyy");
-//        }
-//        //controle du salaire
-//        try {
-//            double salaire = Double.parseDouble(managerFields[4]);
-//        }catch (Exception e){
-//            throw new BatchException(managerFields[4] + " n'est pas un nombre valide pour un salaire");
-//        }
-//        m.setMatricule(managerFields[0]);
-//        m.setNom(managerFields[1]);
-//        m.setPrenom(managerFields[2]);
-//        m.setDateEmbauche(d);
-//        m.setSalaire(Double.parseDouble(managerFields[4]));
+    private void enregistrerPointReprise(LecteurLignes lecteur, long nbEmployes) {
+        Map<String, Long> nouveauxManagers = registreManagers.extraireNouveauxManagers();
+        if (pointReprise == null) {
+            return;
+        }
+        long debut = System.nanoTime();
+        try {
+            long nbRejets = fichierRejets != null ? fichierRejets.synchroniser() : 0;
+            pointReprise.avancer(lecteur.getPosition(), lecteur.getNumeroLigne(), nbEmployes, nbRejets, nouveauxManagers);
+            pointReprise.ecrire();
+            metriques.mesurer(MetriquesImport.Phase.POINT_REPRISE, debut);
+        } catch (IOException e) {
+            logger.error("Problème dans l'écriture du point de reprise " + pointReprise.getFichierReprise() + " : " + e.getMessage());
+            supprimerPointReprise();
+            pointReprise = null;
+        }
+    }
 
+    private void supprimerPointReprise() {
+        if (pointReprise == null) {
+            return;
+        }
+        try {
+            pointReprise.supprimer();
+        } catch (IOException e) {
+            logger.error("Problème dans la suppression du point de reprise " + pointReprise.getFichierReprise() + " : " + e.getMessage());
+        }
+    }
 
+    /**
+     * Méthode qui valide un lot de lignes puis écrit en BDD les employés correspondants.
+     * Les lignes sont d'abord analysées indépendamment les unes des autres (en parallèle si demandé),
+     * puis intégrées dans l'ordre du fichier, ce qui garde l'ordre des erreurs et la résolution des managers du mode séquentiel.
+     * @param lignes les lignes du lot
+     * @param numeroPremiereLigne le numéro dans le fichier de la première ligne du lot
+     * @return le nombre d'employés écrits
+     */
+    private int processLot(List<String> lignes, long numeroPremiereLigne) {
+        long debut = System.nanoTime();
+        LigneAnalysee[] analyses = analyseurLigne.analyser(lignes, pool, metriques);
+        metriques.mesurer(MetriquesImport.Phase.ANALYSE, debut);
+        prechargerManagers(analyses);
+        chargerEmployesExistants(analyses);
+        for (int i = 0; i < analyses.length; i++) {
+            LigneAnalysee rejet = processLigneAnalysee(analyses[i]);
+            if (rejet != null) {
+                rejeter(numeroPremiereLigne + i, lignes.get(i), rejet);
+            }
+        }
+        return ecrireLot();
     }
 
     /**
-     * Méthode qui crée un Technicien à partir d'une ligne contenant les informations d'un technicien et l'ajoute dans la liste globale des employés
-     * @param ligneTechnicien la ligne contenant les infos du technicien à intégrer
-     * @throws BatchException s'il y a un problème sur cette ligne
+     * Signale une ligne rejetée, dans les fichiers de rejets s'ils sont actifs ou sinon dans les logs
      */
-    private void processTechnicien(String ligneTechnicien) throws BatchException {
-        //TODO
+    private void rejeter(long numeroLigne, String ligne, LigneAnalysee rejet) {
+        metriques.rejet(rejet.getErreur());
+        if (fichierRejets != null) {
+            fichierRejets.rejeter(numeroLigne, ligne, rejet);
+        } else {
+            logger.error("Ligne " + numeroLigne + " : " + rejet.getMessageErreur() + " => " + ligne);
+        }
+    }
 
-        String[]technicienFields = ligneTechnicien.split(",");
-        Technicien t = new Technicien();
-        //controle de la longueur
-        if (technicienFields.length != NB_CHAMPS_TECHNICIEN) {
-            throw new BatchException("La ligne manager ne contient pas " + NB_CHAMPS_TECHNICIEN + " éléments mais "+technicienFields.length );
+    /**
+     * Attend l'écriture des derniers rejets puis ferme leurs fichiers
+     */
+    private void fermerRejets() {
+        if (fichierRejets == null) {
+            return;
         }
-        //controle du grade
-        int grade;
         try {
-            grade = Integer.parseInt(technicienFields[5]);
-        }catch(Exception e){
-            throw new BatchException("Le grade du technicien est incorrect");
-        }
-        //controle matricule manager
-        if (!technicienFields[6].matches(REGEX_MATRICULE_MANAGER)){
-            throw new BatchException("la chaîne "+ technicienFields[6] +" ne respecte pas l'expression régulière " + REGEX_MATRICULE_MANAGER );
+            fichierRejets.close();
+            logger.info(fichierRejets.getNbRejets() + " lignes rejetées, écrites dans " + fichierRejets.getCheminLignes());
+        } catch (IOException e) {
+            logger.error("Problème dans l'écriture des rejets : " + e.getMessage());
+        } finally {
+            fichierRejets = null;
         }
+    }
 
-        // parcours la liste que l'on creer pour verifier que le manager existe ou pas deja
-        ArrayList<String> liste= new ArrayList<>();
-        for(Employe e : employes) {
-            if (e instanceof Manager) {
-                liste.add(e.getMatricule());
+    /**
+     * Méthode qui récupère en une seule requête les managers de la BDD référencés par les techniciens du lot
+     * et qui ne sont pas encore connus du registre
+     * @param analyses les lignes analysées du lot
+     */
+    private void prechargerManagers(LigneAnalysee[] analyses) {
+        Set<String> matricules = new HashSet<>();
+        for (LigneAnalysee analyse : analyses) {
+            String matricule = analyse.getMatriculeManager();
+            if (matricule != null && !registreManagers.estConnu(matricule)) {
+                matricules.add(matricule);
             }
         }
-        //controle si matricule manager n'existe pas dans la bdd et sil n'existe pas dans la liste
-        if (managerRepository.findByMatricule(technicienFields[6]) == null && !liste.contains(technicienFields[6])){
-            throw new BatchException ("Le manager de matricule "+ technicienFields[6]+" n'a pas été trouvé dans le fichier ou en base de données");
+        if (!matricules.isEmpty()) {
+            long debut = System.nanoTime();
+            registreManagers.enregistrerBase(matricules, managerRepository.findByMatriculeIn(matricules));
+            metriques.mesurer(MetriquesImport.Phase.RESOLUTION_MANAGERS, debut);
         }
+    }
 
-        try {
-            t.setGrade(Integer.parseInt(technicienFields[5]));
-        }catch (TechnicienException e){
-            throw new BatchException("Le grade doit être compris entre 1 et 5");
-        }
-        processEmploye(t,ligneTechnicien,REGEX_MATRICULE);
-        t.setManager(managerRepository.findByMatricule(technicienFields[6]));
-
-        employes.add(t);
-//        //controle matricule
-//        if (!technicienFields[0].matches(REGEX_MATRICULE)){
-//            throw new BatchException("la chaîne "+ technicienFields[0] +" ne respecte pas l'expression régulière " + REGEX_MATRICULE );
-//        }
-//        //controle de la date
-//        LocalDate d =null;
-//        try
-//        {
-//            d =  DateTimeFormat.forPattern("dd/MM/yyyy").parseLocalDate(technicienFields[3]);
-//
-//        }catch (Exception e){
-//            throw new BatchException(technicienFields[3] + " ne respecte pas le format de date dd/MM/yyyy");
-//        }
-//        //controle du salaire
-//        try {
-//            double salaire = Double.parseDouble(technicienFields[4]);
-//        }catch (Exception e){
-//            throw new BatchException(technicienFields[4] + " n'est pas un nombre valide pour un salaire");
-//        }
-
-//        t.setMatricule(technicienFields[0]);
-//        t.setNom(technicienFields[1]);
-//        t.setPrenom(technicienFields[2]);
-//        t.setDateEmbauche(d);
-
-//        if ( grade<1 ||  grade>5){
-//            throw new BatchException("Le grade doit être compris entre 1 et 5");
-//        }
+    /**
+     * En import incrémental, récupère en une seule requête l'identifiant, le type et l'empreinte
+     * des employés du lot déjà présents en BDD
+     * @param analyses les lignes analysées du lot
+     */
+    private void chargerEmployesExistants(LigneAnalysee[] analyses) {
+        if (!deltaActif) {
+            return;
+        }
+        Set<String> matricules = new HashSet<>();
+        for (LigneAnalysee analyse : analyses) {
+            if (analyse.getEmploye() != null) {
+                matricules.add(analyse.getEmploye().getMatricule());
+            }
+        }
+        long debut = System.nanoTime();
+        employesExistants = empreintesEmployes.trouverExistants(matricules);
+        metriques.mesurer(MetriquesImport.Phase.EMPLOYES_EXISTANTS, debut);
+    }
 
+    /**
+     * Écrit en BDD les employés du lot en cours puis commence un nouveau lot
+     * @return le nombre d'employés écrits
+     */
+    private int ecrireLot() {
+        int taille = employes.size();
+        if (taille > 0) {
+            long debut = System.nanoTime();
+            employeWriter.ecrire(employes);
+            if (deltaActif) {
+                empreintesEmployes.ecrire(employes, empreintes);
+            }
+            metriques.mesurer(MetriquesImport.Phase.ECRITURE, debut);
+            employes = new ArrayList<>(chunkSize);
+            empreintes = new ArrayList<>(chunkSize);
+            registreManagers.viderEquipes();
+        }
+        return taille;
+    }
 
+    /**
+     * Méthode qui intègre une ligne analysée au lot en cours, en associant les techniciens à leur manager.
+     * En import incrémental, un employé déjà en BDD reprend son identifiant pour y être mis à jour,
+     * et n'est pas réécrit si sa ligne n'a pas changé.
+     * @param analyse le résultat de l'analyse de la ligne
+     * @return null si la ligne a été intégrée, sinon l'erreur à signaler : celle de l'analyse, l'absence du manager du technicien
+     * ou un changement de type de l'employé
+     */
+    private LigneAnalysee processLigneAnalysee(LigneAnalysee analyse) {
+        if (analyse.getErreur() != null && !analyse.isErreurApresManager()) {
+            return analyse;
+        }
+        Employe employe = analyse.getEmploye();
+        Manager manager = null;
+        Manager managerFichier = null;
+        if (analyse.getMatriculeManager() != null) {
+            //controle si le manager n'existe ni dans le fichier ni dans la bdd
+            String matriculeManager = analyse.getMatriculeManager();
+            managerFichier = registreManagers.trouver(matriculeManager);
+            manager = managerFichier != null ? managerFichier : trouverManagerBase(matriculeManager);
+            if (manager == null){
+                return LigneAnalysee.erreur(ErreurLigne.MANAGER_INCONNU, matriculeManager);
+            }
+            if (analyse.getErreur() != null) {
+                return analyse;
+            }
+        }
+        boolean aEcrire = true;
+        EmployesExistants.EmployeExistant existant = employesExistants != null ? employesExistants.trouver(employe.getMatricule()) : null;
+        if (existant != null) {
+            if (!existant.memeType(employe)) {
+                return LigneAnalysee.erreur(ErreurLigne.TYPE_MODIFIE, employe.getMatricule(), existant.getType());
+            }
+            employe.setId(existant.getId());
+            aEcrire = !existant.inchange(analyse.getEmpreinte());
+        }
+        if (manager != null) {
+            Technicien t = (Technicien) employe;
+            t.setManager(manager);
+            if (managerFichier != null) {
+                registreManagers.ajouterAEquipe(managerFichier, t);
+            }
+        }
+        if (employe instanceof Manager) {
+            registreManagers.enregistrer((Manager) employe);
+        }
+        if (!aEcrire) {
+            nbInchanges++;
+        } else {
+            if (existant != null) {
+                nbModifies++;
+            }
+            employes.add(employe);
+            if (deltaActif) {
+                empreintes.add(analyse.getEmpreinte());
+            }
+        }
+        return null;
+    }
 
+    /**
+     * @param matricule le matricule d'un manager absent du fichier
+     * @return le manager de la BDD, préchargé pour le lot si possible, sinon une référence à son identifiant en cache,
+     * ou null s'il n'existe pas
+     */
+    private Manager trouverManagerBase(String matricule) {
+        if (registreManagers.estConnu(matricule)) {
+            return registreManagers.trouverEnBase(matricule);
+        }
+        long debut = System.nanoTime();
+        Optional<Long> id = managerRepository.findIdByMatricule(matricule);
+        metriques.mesurer(MetriquesImport.Phase.RESOLUTION_MANAGERS, debut);
+        if (!id.isPresent()) {
+            return null;
+        }
+        //seul l'identifiant du manager est écrit pour le technicien
+        Manager manager = new Manager();
+        manager.setId(id.get());
+        manager.setMatricule(matricule);
+        return manager;
     }
 
 }
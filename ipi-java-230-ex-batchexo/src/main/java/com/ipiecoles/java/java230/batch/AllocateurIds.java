@@ -0,0 +1,56 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Employe;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Attribution des identifiants des employés écrits en JDBC, par blocs réservés dans la séquence employe_seq.
+ * Les blocs suivent la même règle que l'optimiseur pooled d'Hibernate : la valeur V lue dans la table donne les
+ * identifiants V - INCREMENT_ID + 1 à V (1 à V si V est la valeur initiale), et chaque incrément supplémentaire réservé
+ * ajoute INCREMENT_ID identifiants. Les identifiants donnés ici et ceux donnés par JPA ne se chevauchent donc jamais.
+ */
+@Component
+public class AllocateurIds {
+
+    @Autowired
+    private SequenceEmploye sequenceEmploye;
+
+    private long prochain = 0;
+
+    private long dernier = -1;
+
+    /**
+     * Donne un identifiant aux employés qui n'en ont pas encore
+     * @param employes les employés à écrire
+     */
+    public synchronized void affecterIds(Collection<? extends Employe> employes) {
+        int restants = 0;
+        for (Employe employe : employes) {
+            if (employe.getId() == null) {
+                restants++;
+            }
+        }
+        for (Employe employe : employes) {
+            if (employe.getId() == null) {
+                if (prochain > dernier) {
+                    reserver(restants);
+                }
+                employe.setId(prochain++);
+                restants--;
+            }
+        }
+    }
+
+    /**
+     * Réserve dans la séquence assez de blocs pour nb identifiants (un identifiant de moins si la séquence est à sa valeur initiale)
+     */
+    private void reserver(int nb) {
+        int nbIncrements = (nb + Employe.INCREMENT_ID - 1) / Employe.INCREMENT_ID;
+        long valeur = sequenceEmploye.avancer(nbIncrements);
+        prochain = valeur == Employe.VALEUR_INITIALE_ID ? valeur : valeur - Employe.INCREMENT_ID + 1;
+        dernier = valeur + (long) (nbIncrements - 1) * Employe.INCREMENT_ID;
+    }
+}
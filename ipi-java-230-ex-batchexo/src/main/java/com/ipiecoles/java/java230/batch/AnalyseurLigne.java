@@ -0,0 +1,284 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.exceptions.TechnicienException;
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Technicien;
+import org.joda.time.LocalDate;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Contrôle des lignes du fichier et création des employés correspondants.
+ * L'analyse d'une ligne ne dépend d'aucune autre ligne, elle peut donc être faite en parallèle ;
+ * seule la recherche du manager des techniciens est laissée à l'appelant.
+ * Les erreurs sont renvoyées comme résultat de l'analyse, sans exception, pour qu'un fichier avec beaucoup
+ * de lignes incorrectes soit traité aussi vite qu'un fichier propre.
+ */
+public class AnalyseurLigne {
+
+    public static final String REGEX_MATRICULE = "^[MTC][0-9]{5}$";
+    public static final String REGEX_MATRICULE_MANAGER = "^M[0-9]{5}$";
+    public static final int NB_CHAMPS_MANAGER = 5;
+    public static final int NB_CHAMPS_TECHNICIEN = 7;
+    public static final int NB_CHAMPS_COMMERCIAL = 7;
+    private static final String LETTRES_MATRICULE = "MTC";
+    private static final String LETTRES_MATRICULE_MANAGER = "M";
+
+    /**
+     * Nombre de lignes en dessous duquel un lot n'est plus découpé entre plusieurs threads
+     */
+    private static final int SEUIL_PARALLELE = 256;
+
+    /**
+     * Méthode qui analyse les lignes d'un lot
+     * @param lignes les lignes du lot
+     * @param pool le pool sur lequel répartir l'analyse, ou null pour analyser dans le thread courant
+     * @return le résultat de l'analyse de chaque ligne, dans l'ordre du lot
+     */
+    public LigneAnalysee[] analyser(List<String> lignes, ForkJoinPool pool) {
+        return analyser(lignes, pool, null);
+    }
+
+    /**
+     * Méthode qui analyse les lignes d'un lot en mesurant le temps d'analyse de chaque type d'employé
+     * @param lignes les lignes du lot
+     * @param pool le pool sur lequel répartir l'analyse, ou null pour analyser dans le thread courant
+     * @param metriques les mesures auxquelles ajouter les temps d'analyse, ou null pour ne pas les mesurer
+     * @return le résultat de l'analyse de chaque ligne, dans l'ordre du lot
+     */
+    public LigneAnalysee[] analyser(List<String> lignes, ForkJoinPool pool, MetriquesImport metriques) {
+        LigneAnalysee[] analyses = new LigneAnalysee[lignes.size()];
+        AnalyseLot analyse = new AnalyseLot(lignes, analyses, 0, lignes.size(), metriques);
+        if (pool == null) {
+            analyse.compute();
+        } else {
+            pool.invoke(analyse);
+        }
+        return analyses;
+    }
+
+    /**
+     * Méthode qui regarde le premier caractère de la ligne et appelle la bonne méthode de création d'employé
+     * @param ligneCsv le découpage à utiliser pour la ligne
+     * @param ligne la ligne à analyser
+     * @return le résultat de l'analyse
+     */
+    public LigneAnalysee analyser(LigneCsv ligneCsv, String ligne) {
+        ligneCsv.decouper(ligne);
+        switch (ligneCsv.premierCaractere()) {
+            case 'T':
+                return processTechnicien(ligneCsv);
+            case 'M':
+                return processManager(ligneCsv);
+            case 'C':
+                return processCommercial(ligneCsv);
+            default:
+                return LigneAnalysee.erreur(ErreurLigne.TYPE_INCONNU);
+        }
+    }
+
+    /**
+     * Méthode qui contrôle un champ matricule de la ligne
+     * @param ligne la ligne découpée
+     * @param index l'indice du champ matricule
+     * @param lettres les premières lettres autorisées pour le matricule
+     * @param regexMatricule l'expression régulière équivalente, pour le message d'erreur
+     * @return l'erreur si le champ n'est pas un matricule valide, null sinon
+     */
+    private LigneAnalysee controleMatricule(LigneCsv ligne, int index, String lettres, String regexMatricule) {
+        if (!ligne.estMatricule(index, lettres)){
+            return LigneAnalysee.erreur(ErreurLigne.MATRICULE, ligne.champ(index), regexMatricule);
+        }
+        return null;
+    }
+
+    /**
+     * Méthode qui contrôle le nombre de champs de la ligne
+     * @return l'erreur si la ligne n'a pas le nombre de champs attendu, null sinon
+     */
+    private LigneAnalysee controleNbChamps(LigneCsv ligne, int nbChamps) {
+        if (ligne.getNbChamps() != nbChamps) {
+            return LigneAnalysee.erreur(ErreurLigne.NB_CHAMPS, nbChamps, ligne.getNbChamps());
+        }
+        return null;
+    }
+
+    /**
+     * Méthode qui contrôle les champs communs à tous les employés et les renseigne sur l'employé
+     * @return l'erreur s'il y a un problème sur ces champs, null sinon
+     */
+    private LigneAnalysee processEmploye(Employe employe, LigneCsv ligneEmploye, String lettresMatricule, String regexMatricule) {
+        //controle matricule
+        LigneAnalysee erreur = controleMatricule(ligneEmploye, 0, lettresMatricule, regexMatricule);
+        if (erreur != null) {
+            return erreur;
+        }
+
+        //controle de la date
+        LocalDate d = ligneEmploye.date(3);
+        if (d == null){
+            return LigneAnalysee.erreur(ErreurLigne.DATE, ligneEmploye.champ(3));
+        }
+
+        //controle du salaire
+        if (!ligneEmploye.lireDecimal(4)){
+            return LigneAnalysee.erreur(ErreurLigne.SALAIRE, ligneEmploye.champ(4));
+        }
+
+        employe.setMatricule(ligneEmploye.champ(0));
+        employe.setNom(ligneEmploye.champ(1));
+        employe.setPrenom(ligneEmploye.champ(2));
+        employe.setDateEmbauche(d);
+        employe.setSalaire(ligneEmploye.getDecimal());
+        return null;
+    }
+
+    /**
+     * Méthode qui crée un Commercial à partir d'une ligne contenant les informations d'un commercial
+     * @param ligneCommercial la ligne contenant les infos du commercial à intégrer
+     * @return le commercial, ou l'erreur s'il y a un problème sur cette ligne
+     */
+    private LigneAnalysee processCommercial(LigneCsv ligneCommercial) {
+        //controle de la longueur
+        LigneAnalysee erreur = controleNbChamps(ligneCommercial, NB_CHAMPS_COMMERCIAL);
+        if (erreur != null) {
+            return erreur;
+        }
+        //controle du CA
+        if (!ligneCommercial.lireDecimal(5)){
+            return LigneAnalysee.erreur(ErreurLigne.CHIFFRE_AFFAIRE);
+        }
+        double ca = ligneCommercial.getDecimal();
+        //controle de La performance du commercial
+        if (!ligneCommercial.lireEntier(6)){
+            return LigneAnalysee.erreur(ErreurLigne.PERFORMANCE);
+        }
+        int perf = ligneCommercial.getEntier();
+
+        Commercial c = new Commercial();
+        erreur = processEmploye(c, ligneCommercial, LETTRES_MATRICULE, REGEX_MATRICULE);
+        if (erreur != null) {
+            return erreur;
+        }
+        c.setCaAnnuel(ca);
+        c.setPerformance(perf);
+        return LigneAnalysee.valide(c, ligneCommercial.empreinte());
+    }
+
+    /**
+     * Méthode qui crée un Manager à partir d'une ligne contenant les informations d'un manager
+     * @param ligneManager la ligne contenant les infos du manager à intégrer
+     * @return le manager, ou l'erreur s'il y a un problème sur cette ligne
+     */
+    private LigneAnalysee processManager(LigneCsv ligneManager) {
+        //controle de la longueur
+        LigneAnalysee erreur = controleNbChamps(ligneManager, NB_CHAMPS_MANAGER);
+        if (erreur != null) {
+            return erreur;
+        }
+        Manager m = new Manager();
+        erreur = processEmploye(m, ligneManager, LETTRES_MATRICULE_MANAGER, REGEX_MATRICULE_MANAGER);
+        return erreur != null ? erreur : LigneAnalysee.valide(m, ligneManager.empreinte());
+    }
+
+    /**
+     * Méthode qui crée un Technicien à partir d'une ligne contenant les informations d'un technicien, sans lui associer son manager
+     * @param ligneTechnicien la ligne contenant les infos du technicien à intégrer
+     * @return le technicien et le matricule de son manager, ou l'erreur s'il y a un problème sur cette ligne
+     */
+    private LigneAnalysee processTechnicien(LigneCsv ligneTechnicien) {
+        //controle de la longueur
+        LigneAnalysee erreur = controleNbChamps(ligneTechnicien, NB_CHAMPS_TECHNICIEN);
+        if (erreur != null) {
+            return erreur;
+        }
+        //controle du grade
+        if (!ligneTechnicien.lireEntier(5)){
+            return LigneAnalysee.erreur(ErreurLigne.GRADE);
+        }
+        int grade = ligneTechnicien.getEntier();
+        //controle matricule manager
+        erreur = controleMatricule(ligneTechnicien, 6, LETTRES_MATRICULE_MANAGER, REGEX_MATRICULE_MANAGER);
+        if (erreur != null) {
+            return erreur;
+        }
+        String matriculeManager = ligneTechnicien.champ(6);
+
+        //les contrôles suivants ne sont signalés que si le manager existe
+        if (grade < Technicien.GRADE_MIN || grade > Technicien.GRADE_MAX) {
+            return LigneAnalysee.erreur(ErreurLigne.GRADE_HORS_BORNES).apresManager(matriculeManager);
+        }
+        Technicien t = new Technicien();
+        try {
+            t.setGrade(grade);
+        } catch (TechnicienException e) {
+            //impossible, le grade vient d'être contrôlé
+            return LigneAnalysee.erreur(ErreurLigne.GRADE_HORS_BORNES).apresManager(matriculeManager);
+        }
+        erreur = processEmploye(t, ligneTechnicien, LETTRES_MATRICULE, REGEX_MATRICULE);
+        if (erreur != null) {
+            return erreur.apresManager(matriculeManager);
+        }
+        return LigneAnalysee.technicien(t, matriculeManager, ligneTechnicien.empreinte());
+    }
+
+    /**
+     * Analyse d'une tranche du lot, découpée en deux tant qu'elle dépasse SEUIL_PARALLELE lignes.
+     * Chaque tranche finale utilise son propre découpage de ligne et cumule ses temps d'analyse avant de les ajouter aux mesures.
+     */
+    private class AnalyseLot extends RecursiveAction {
+
+        private final List<String> lignes;
+
+        private final LigneAnalysee[] analyses;
+
+        private final int debut;
+
+        private final int fin;
+
+        private final MetriquesImport metriques;
+
+        AnalyseLot(List<String> lignes, LigneAnalysee[] analyses, int debut, int fin, MetriquesImport metriques) {
+            this.lignes = lignes;
+            this.analyses = analyses;
+            this.debut = debut;
+            this.fin = fin;
+            this.metriques = metriques;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut > SEUIL_PARALLELE && inForkJoinPool()) {
+                int milieu = (debut + fin) >>> 1;
+                invokeAll(new AnalyseLot(lignes, analyses, debut, milieu, metriques), new AnalyseLot(lignes, analyses, milieu, fin, metriques));
+                return;
+            }
+            LigneCsv ligneCsv = new LigneCsv();
+            if (metriques == null) {
+                for (int i = debut; i < fin; i++) {
+                    analyses[i] = analyser(ligneCsv, lignes.get(i));
+                }
+                return;
+            }
+            int nbPhases = MetriquesImport.Phase.values().length;
+            long[] nb = new long[nbPhases];
+            long[] nanos = new long[nbPhases];
+            long avant = System.nanoTime();
+            for (int i = debut; i < fin; i++) {
+                analyses[i] = analyser(ligneCsv, lignes.get(i));
+                long apres = System.nanoTime();
+                int phase = MetriquesImport.Phase.analyse(ligneCsv.premierCaractere()).ordinal();
+                nb[phase]++;
+                nanos[phase] += apres - avant;
+                avant = apres;
+            }
+            for (MetriquesImport.Phase phase : MetriquesImport.Phase.values()) {
+                metriques.ajouter(phase, nb[phase.ordinal()], nanos[phase.ordinal()]);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Employe;
+
+import java.util.List;
+
+/**
+ * Écriture en BDD des employés validés par l'import, lot par lot
+ */
+public interface EmployeWriter {
+
+    /**
+     * Persiste un lot d'employés dans sa propre transaction
+     * @param lot les employés à persister, dans l'ordre du fichier
+     */
+    void ecrire(List<Employe> lot);
+}
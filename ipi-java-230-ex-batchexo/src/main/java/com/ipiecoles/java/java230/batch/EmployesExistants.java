@@ -0,0 +1,80 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Employe;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Employés d'un lot déjà présents en BDD, pour l'import incrémental : seuls leur identifiant, leur type
+ * et l'empreinte de la ligne dont ils ont été importés sont chargés, pas les employés eux-mêmes.
+ */
+public class EmployesExistants {
+
+    private final Map<String, EmployeExistant> employes = new HashMap<>();
+
+    /**
+     * @param resultats pour chaque employé trouvé : matricule, id, empreinte (ou null) et type (nom de l'entité)
+     */
+    public EmployesExistants(List<Object[]> resultats) {
+        for (Object[] resultat : resultats) {
+            Long empreinte = resultat[2] == null ? null : ((Number) resultat[2]).longValue();
+            employes.put((String) resultat[0], new EmployeExistant(((Number) resultat[1]).longValue(), empreinte, resultat[3].toString()));
+        }
+    }
+
+    /**
+     * @param matricule le matricule de l'employé
+     * @return l'employé de la BDD ayant ce matricule, ou null s'il n'existe pas encore
+     */
+    public EmployeExistant trouver(String matricule) {
+        return employes.get(matricule);
+    }
+
+    public int size() {
+        return employes.size();
+    }
+
+    public static class EmployeExistant {
+
+        private final long id;
+
+        private final Long empreinte;
+
+        private final String type;
+
+        private EmployeExistant(long id, Long empreinte, String type) {
+            this.id = id;
+            this.empreinte = empreinte;
+            this.type = type;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * @return le nom de l'entité de l'employé en BDD (Manager, Technicien ou Commercial)
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @param employe l'employé lu dans le fichier
+         * @return true si l'employé en BDD est du même type
+         */
+        public boolean memeType(Employe employe) {
+            return type.equals(employe.getClass().getSimpleName());
+        }
+
+        /**
+         * @param empreinte l'empreinte de la ligne lue dans le fichier
+         * @return true si l'employé en BDD a été importé d'une ligne identique
+         */
+        public boolean inchange(long empreinte) {
+            return this.empreinte != null && this.empreinte == empreinte;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Employe;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Accès à la table EmpreinteEmploye de l'import incrémental (db/001-empreinte-employe.sql) : l'empreinte de la ligne
+ * dont chaque employé a été importé. Elle est rangée à part de l'entité Employe et n'est lue et écrite que par
+ * l'import incrémental (batch.delta.actif) : les autres modes n'ont pas besoin de cette migration.
+ */
+@Component
+public class EmpreintesEmployes {
+
+    private static final String SELECT_EXISTANTS = "SELECT e.matricule, e.id, p.empreinte, "
+            + "CASE WHEN m.id IS NOT NULL THEN 'Manager' WHEN t.id IS NOT NULL THEN 'Technicien' ELSE 'Commercial' END "
+            + "FROM Employe e LEFT JOIN Manager m ON m.id = e.id LEFT JOIN Technicien t ON t.id = e.id "
+            + "LEFT JOIN EmpreinteEmploye p ON p.employe_id = e.id WHERE e.matricule IN (:matricules)";
+
+    private static final String UPSERT_EMPREINTE = "INSERT INTO EmpreinteEmploye (employe_id, empreinte) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE empreinte = VALUES(empreinte)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * @param matricules les matricules recherchés
+     * @return l'identifiant, le type et l'empreinte des employés trouvés, sans charger les employés
+     */
+    public EmployesExistants trouverExistants(Collection<String> matricules) {
+        if (matricules.isEmpty()) {
+            return new EmployesExistants(new ArrayList<>());
+        }
+        return new EmployesExistants(jdbcTemplate.query(SELECT_EXISTANTS, new MapSqlParameterSource("matricules", matricules),
+                (rs, numero) -> new Object[]{rs.getString(1), rs.getLong(2), rs.getObject(3), rs.getString(4)}));
+    }
+
+    /**
+     * Enregistre les empreintes des employés d'un lot, une fois le lot écrit en BDD (les employés ont leur identifiant).
+     * Écrites après le lot, dans leur propre transaction : si elles sont perdues, l'empreinte précédente ne correspond plus
+     * à la ligne et l'employé est simplement réécrit par l'import incrémental suivant.
+     * @param lot les employés écrits
+     * @param empreintes l'empreinte de la ligne de chaque employé du lot, dans le même ordre
+     */
+    public void ecrire(List<Employe> lot, List<Long> empreintes) {
+        List<Object[]> lignes = new ArrayList<>(lot.size());
+        for (int i = 0; i < lot.size(); i++) {
+            lignes.add(new Object[]{lot.get(i).getId(), empreintes.get(i)});
+        }
+        if (!lignes.isEmpty()) {
+            jdbcTemplate.getJdbcOperations().batchUpdate(UPSERT_EMPREINTE, lignes);
+        }
+    }
+}
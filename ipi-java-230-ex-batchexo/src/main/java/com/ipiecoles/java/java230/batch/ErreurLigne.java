@@ -0,0 +1,33 @@
+package com.ipiecoles.java.java230.batch;
+
+/**
+ * Erreurs pouvant être détectées sur une ligne du fichier.
+ * Le message n'est construit qu'au moment où l'erreur est signalée, à partir des valeurs incorrectes.
+ */
+public enum ErreurLigne {
+    TYPE_INCONNU("Type d'employé inconnu"),
+    NB_CHAMPS("La ligne manager ne contient pas %s éléments mais %s"),
+    MATRICULE("la chaîne %s ne respecte pas l'expression régulière %s"),
+    DATE("%s ne respecte pas le format de date dd/MM/yyyy"),
+    SALAIRE("%s n'est pas un nombre valide pour un salaire"),
+    CHIFFRE_AFFAIRE("Le chiffre d'affaire du commercial est incorrect"),
+    PERFORMANCE("La performance du commercial est incorrecte"),
+    GRADE("Le grade du technicien est incorrect"),
+    GRADE_HORS_BORNES("Le grade doit être compris entre 1 et 5"),
+    MANAGER_INCONNU("Le manager de matricule %s n'a pas été trouvé dans le fichier ou en base de données"),
+    TYPE_MODIFIE("L'employé de matricule %s existe déjà en base de données en tant que %s");
+
+    private final String modele;
+
+    ErreurLigne(String modele) {
+        this.modele = modele;
+    }
+
+    /**
+     * @param valeurs les valeurs à insérer dans le modèle de message
+     * @return le message d'erreur
+     */
+    public String message(Object... valeurs) {
+        return valeurs.length == 0 ? modele : String.format(modele, valeurs);
+    }
+}
@@ -0,0 +1,239 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.exceptions.TechnicienException;
+import com.ipiecoles.java.java230.model.Entreprise;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Technicien;
+import com.ipiecoles.java.java230.repository.CommercialRepository;
+import com.ipiecoles.java.java230.repository.ManagerRepository;
+import com.ipiecoles.java.java230.repository.TechnicienRepository;
+import org.joda.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export des employés de la BDD dans le format de fichier de l'import : les managers, puis les techniciens, puis les commerciaux.
+ * Les champs sont lus en flux par des requêtes de projection (curseur côté serveur, sans entité dans le contexte de persistance),
+ * le matricule du manager de chaque technicien par une jointure de la même requête : la mémoire reste constante.
+ * Chaque salaire est écrit à la valeur qui, réimportée, redonne exactement le salaire en BDD.
+ */
+@Component
+public class ExportEmployes {
+
+    /**
+     * Extension des fichiers d'export compressés en gzip
+     */
+    public static final String EXTENSION_GZIP = ".gz";
+
+    /**
+     * Nombre de valeurs voisines essayées pour retrouver le salaire du fichier à partir du salaire en BDD
+     */
+    private static final int ESSAIS_INVERSION = 4;
+
+    @Autowired
+    private ManagerRepository managerRepository;
+
+    @Autowired
+    private TechnicienRepository technicienRepository;
+
+    @Autowired
+    private CommercialRepository commercialRepository;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * Écrit tous les employés de la BDD dans un fichier, remplacé s'il existe, compressé en gzip si son nom se termine par .gz
+     * @param fichier le chemin du fichier
+     * @return le nombre d'employés exportés
+     * @throws IOException si le fichier n'a pas pu être écrit
+     */
+    @Transactional(readOnly = true)
+    public long exporter(Path fichier) throws IOException {
+        logger.info("Export des employés dans le fichier : " + fichier);
+        long debut = System.nanoTime();
+        long nbEmployes;
+        try (Writer writer = ouvrir(fichier)) {
+            nbEmployes = ecrire(writer);
+        }
+        logger.info(nbEmployes + " employés exportés en " + (System.nanoTime() - debut) / 1_000_000 + " ms");
+        return nbEmployes;
+    }
+
+    private static Writer ouvrir(Path fichier) throws IOException {
+        OutputStream sortie = Files.newOutputStream(fichier);
+        if (fichier.toString().endsWith(EXTENSION_GZIP)) {
+            sortie = new GZIPOutputStream(sortie, LecteurLignes.TAILLE_TAMPON);
+        }
+        return new BufferedWriter(new OutputStreamWriter(sortie, StandardCharsets.UTF_8), LecteurLignes.TAILLE_TAMPON);
+    }
+
+    private long ecrire(Writer writer) throws IOException {
+        LignesFichier lignes = new LignesFichier(writer);
+        long nbEmployes = 0;
+        try (Stream<Object[]> managers = managerRepository.streamChampsFichier()) {
+            for (Iterator<Object[]> it = managers.iterator(); it.hasNext(); nbEmployes++) {
+                lignes.manager(it.next());
+            }
+        }
+        try (Stream<Object[]> techniciens = technicienRepository.streamChampsFichier()) {
+            for (Iterator<Object[]> it = techniciens.iterator(); it.hasNext(); nbEmployes++) {
+                lignes.technicien(it.next());
+            }
+        }
+        try (Stream<Object[]> commerciaux = commercialRepository.streamChampsFichier()) {
+            for (Iterator<Object[]> it = commerciaux.iterator(); it.hasNext(); nbEmployes++) {
+                lignes.commercial(it.next());
+            }
+        }
+        return nbEmployes;
+    }
+
+    /**
+     * @param salaire le salaire en BDD
+     * @param facteur le facteur appliqué par l'import au salaire du fichier
+     * @param salaireImporte le calcul de l'import, du salaire du fichier au salaire en BDD
+     * @return le salaire du fichier qui donne exactement le salaire en BDD, à défaut le salaire divisé par le facteur
+     */
+    static double inverser(double salaire, double facteur, DoubleUnaryOperator salaireImporte) {
+        double valeur = salaire / facteur;
+        for (int i = 0; i < ESSAIS_INVERSION; i++) {
+            double importe = salaireImporte.applyAsDouble(valeur);
+            if (importe == salaire) {
+                return valeur;
+            }
+            valeur = importe < salaire ? Math.nextUp(valeur) : Math.nextDown(valeur);
+        }
+        return salaire / facteur;
+    }
+
+    /**
+     * Écriture des lignes à partir des champs lus par les requêtes de projection, dans l'ordre de leurs colonnes.
+     * Les champs null sont écrits vides (la ligne sera rejetée par l'import).
+     */
+    static class LignesFichier {
+
+        private final Writer writer;
+
+        private final StringBuilder ligne = new StringBuilder(128);
+
+        /**
+         * Employés dont les salaires sont calculés par le code de l'import, réutilisés d'une ligne à l'autre
+         */
+        private final Manager manager = new Manager();
+
+        private final Technicien technicien = new Technicien();
+
+        LignesFichier(Writer writer) {
+            this.writer = writer;
+        }
+
+        /**
+         * @param champs matricule, nom, prénom, date d'embauche, salaire
+         */
+        void manager(Object[] champs) throws IOException {
+            Double salaire = (Double) champs[4];
+            employe(champs, salaire == null ? null : inverser(salaire, Entreprise.INDICE_MANAGER, s -> {
+                manager.setSalaire(s);
+                return manager.getSalaire();
+            }));
+            fin();
+        }
+
+        /**
+         * @param champs matricule, nom, prénom, date d'embauche, salaire, grade, matricule du manager
+         */
+        void technicien(Object[] champs) throws IOException {
+            Double salaire = (Double) champs[4];
+            Integer grade = (Integer) champs[5];
+            employe(champs, salaire == null || grade == null ? salaire : salaireTechnicien(salaire, grade));
+            champ(grade).champ(champs[6]);
+            fin();
+        }
+
+        /**
+         * @param champs matricule, nom, prénom, date d'embauche, salaire, chiffre d'affaires annuel, performance
+         */
+        void commercial(Object[] champs) throws IOException {
+            employe(champs, (Double) champs[4]);
+            champ(champs[5]).champ(champs[6]);
+            fin();
+        }
+
+        private Double salaireTechnicien(double salaire, int grade) {
+            try {
+                technicien.setGrade(grade);
+            } catch (TechnicienException e) {
+                //grade hors bornes, la ligne sera rejetée par l'import
+                return salaire;
+            }
+            return inverser(salaire, 1 + (double) grade / 10, s -> {
+                technicien.setSalaire(s);
+                return technicien.getSalaire();
+            });
+        }
+
+        private void employe(Object[] champs, Double salaire) {
+            ligne.setLength(0);
+            ligne.append(valeur(champs[0]));
+            champ(champs[1]).champ(champs[2]);
+            ligne.append(LigneCsv.SEPARATEUR);
+            date((LocalDate) champs[3]);
+            champ(salaire);
+        }
+
+        private LignesFichier champ(Object valeur) {
+            ligne.append(LigneCsv.SEPARATEUR).append(valeur(valeur));
+            return this;
+        }
+
+        private static String valeur(Object valeur) {
+            return valeur == null ? "" : valeur.toString();
+        }
+
+        /**
+         * Date au format dd/MM/yyyy de LigneCsv.FORMAT_DATE, sans passer par le formateur
+         */
+        private void date(LocalDate date) {
+            if (date == null) {
+                return;
+            }
+            deuxChiffres(date.getDayOfMonth());
+            ligne.append('/');
+            deuxChiffres(date.getMonthOfYear());
+            ligne.append('/');
+            int annee = date.getYear();
+            for (int seuil = 1000; seuil > 1 && annee < seuil; seuil /= 10) {
+                ligne.append('0');
+            }
+            ligne.append(annee);
+        }
+
+        private void deuxChiffres(int valeur) {
+            if (valeur < 10) {
+                ligne.append('0');
+            }
+            ligne.append(valeur);
+        }
+
+        private void fin() throws IOException {
+            ligne.append('\n');
+            writer.append(ligne);
+        }
+    }
+}
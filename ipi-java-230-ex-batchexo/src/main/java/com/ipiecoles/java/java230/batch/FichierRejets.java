@@ -0,0 +1,301 @@
+package com.ipiecoles.java.java230.batch;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Fichiers des lignes rejetées par l'import, écrits par un thread dédié.
+ * Le premier contient les lignes rejetées telles quelles, pour pouvoir les corriger et les réimporter ;
+ * le second contient pour chaque ligne son numéro et le message d'erreur, construit lui aussi par le thread d'écriture.
+ * La lecture du fichier ne bloque que si ce thread a plus de CAPACITE rejets de retard,
+ * ou le temps d'une synchronisation avant l'enregistrement d'un point de reprise.
+ */
+public class FichierRejets implements Closeable {
+
+    public static final String SUFFIXE_LIGNES = ".rejets.csv";
+
+    public static final String SUFFIXE_MESSAGES = ".rejets.log";
+
+    public static final int CAPACITE = 10000;
+
+    private static final char FIN_LIGNE = '\n';
+
+    /**
+     * Marque la fin des rejets dans la file
+     */
+    private static final Rejet FIN = new Rejet(0, null, null);
+
+    private final BlockingQueue<Rejet> file = new ArrayBlockingQueue<>(CAPACITE);
+
+    private final Path cheminLignes;
+
+    private final FileChannel canalLignes;
+
+    private final FileChannel canalMessages;
+
+    private final BufferedWriter lignes;
+
+    private final BufferedWriter messages;
+
+    private final Thread ecrivain;
+
+    private volatile IOException erreur;
+
+    private long nbRejets = 0;
+
+    /**
+     * Nombre de rejets écrits dans les fichiers, y compris ceux conservés d'un import interrompu ; modifié par le thread d'écriture
+     */
+    private long nbEcrits;
+
+    /**
+     * Nombre de rejets écrits lors de la dernière synchronisation, pour ne forcer l'écriture sur disque que s'il y en a de nouveaux
+     */
+    private long nbSynchronises;
+
+    /**
+     * Crée (ou remplace) les fichiers de rejets à côté du fichier importé, puis démarre le thread d'écriture
+     * @param fileName le chemin du fichier importé
+     * @throws IOException si l'un des fichiers n'a pas pu être créé
+     */
+    public FichierRejets(String fileName) throws IOException {
+        this(fileName, 0);
+    }
+
+    /**
+     * Complète les fichiers de rejets d'un import interrompu, lors de sa reprise. Seuls sont conservés les rejets des lots
+     * antérieurs au point de reprise : ceux du lot interrompu seront de nouveau signalés.
+     * @param fileName le chemin du fichier importé
+     * @param nbRejetsConserves le nombre de rejets à conserver au début des fichiers existants
+     * @throws IOException si l'un des fichiers n'a pas pu être créé ou ouvert
+     */
+    public FichierRejets(String fileName, long nbRejetsConserves) throws IOException {
+        this.cheminLignes = Paths.get(fileName + SUFFIXE_LIGNES);
+        this.nbRejets = nbRejetsConserves;
+        this.nbEcrits = nbRejetsConserves;
+        this.nbSynchronises = nbRejetsConserves;
+        this.canalLignes = ouvrir(cheminLignes, nbRejetsConserves);
+        this.lignes = writer(canalLignes);
+        try {
+            this.canalMessages = ouvrir(Paths.get(fileName + SUFFIXE_MESSAGES), nbRejetsConserves);
+        } catch (IOException e) {
+            lignes.close();
+            throw e;
+        }
+        this.messages = writer(canalMessages);
+        this.ecrivain = new Thread(this::vider, "rejets-" + cheminLignes.getFileName());
+        this.ecrivain.setDaemon(true);
+        this.ecrivain.start();
+    }
+
+    /**
+     * Ouvre le fichier en écriture après ses premières lignes, en supprimant les suivantes
+     */
+    private static FileChannel ouvrir(Path chemin, long nbLignesConservees) throws IOException {
+        long taille = 0;
+        if (nbLignesConservees > 0 && Files.isRegularFile(chemin)) {
+            try (LecteurLignes lecteur = LecteurLignes.ouvrir(chemin.toString())) {
+                while (lecteur.getNumeroLigne() < nbLignesConservees && lecteur.lireLigne() != null) {
+                    //on avance jusqu'à la fin de la dernière ligne conservée
+                }
+                taille = lecteur.getPosition();
+            }
+        }
+        FileChannel canal = FileChannel.open(chemin, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            canal.truncate(taille);
+            canal.position(taille);
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        return canal;
+    }
+
+    private static BufferedWriter writer(FileChannel canal) {
+        return new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(canal), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Transmet une ligne rejetée au thread d'écriture
+     * @param numeroLigne le numéro de la ligne dans le fichier importé
+     * @param ligne la ligne telle que lue
+     * @param rejet l'analyse de la ligne, dont le message d'erreur sera construit au moment de l'écriture
+     */
+    public void rejeter(long numeroLigne, String ligne, LigneAnalysee rejet) {
+        nbRejets++;
+        ajouter(new Rejet(numeroLigne, ligne, rejet));
+    }
+
+    /**
+     * Attend que le thread d'écriture ait écrit tous les rejets transmis jusqu'ici, vidé les deux fichiers
+     * et forcé leur écriture sur disque, pour enregistrer un point de reprise qui corresponde au contenu des fichiers
+     * @return le nombre de rejets écrits dans les fichiers, y compris ceux conservés d'un import interrompu
+     * @throws IOException si l'écriture de l'un des rejets a échoué
+     */
+    public long synchroniser() throws IOException {
+        Barriere barriere = new Barriere();
+        ajouter(barriere);
+        try {
+            barriere.ecrite.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Synchronisation des rejets interrompue", e);
+        }
+        if (erreur != null) {
+            throw erreur;
+        }
+        return barriere.nbEcrits;
+    }
+
+    /**
+     * @return le nombre de lignes rejetées jusqu'ici, y compris celles conservées d'un import interrompu
+     */
+    public long getNbRejets() {
+        return nbRejets;
+    }
+
+    /**
+     * @return le chemin du fichier des lignes rejetées
+     */
+    public Path getCheminLignes() {
+        return cheminLignes;
+    }
+
+    /**
+     * Attend que tous les rejets soient écrits puis ferme les fichiers
+     * @throws IOException si l'écriture de l'un des rejets a échoué
+     */
+    @Override
+    public void close() throws IOException {
+        ajouter(FIN);
+        try {
+            ecrivain.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (erreur != null) {
+            throw erreur;
+        }
+    }
+
+    private void ajouter(Rejet rejet) {
+        try {
+            file.put(rejet);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Boucle du thread d'écriture : les rejets en attente sont écrits par paquets jusqu'à la fin de la file.
+     * Après une erreur d'écriture, la file continue d'être vidée pour ne pas bloquer la lecture du fichier.
+     */
+    private void vider() {
+        List<Rejet> paquet = new ArrayList<>();
+        boolean fin = false;
+        while (!fin) {
+            try {
+                paquet.add(file.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            file.drainTo(paquet);
+            for (Rejet rejet : paquet) {
+                if (rejet == FIN) {
+                    fin = true;
+                } else if (rejet instanceof Barriere) {
+                    synchroniser((Barriere) rejet);
+                } else if (erreur == null) {
+                    ecrire(rejet);
+                }
+            }
+            paquet.clear();
+        }
+        fermer();
+    }
+
+    private void ecrire(Rejet rejet) {
+        try {
+            lignes.write(rejet.ligne);
+            lignes.write(FIN_LIGNE);
+            messages.write("Ligne " + rejet.numeroLigne + " : " + rejet.analyse.getMessageErreur() + " => " + rejet.ligne);
+            messages.write(FIN_LIGNE);
+            nbEcrits++;
+        } catch (IOException e) {
+            erreur = e;
+        }
+    }
+
+    private void synchroniser(Barriere barriere) {
+        try {
+            if (erreur == null && nbEcrits > nbSynchronises) {
+                lignes.flush();
+                messages.flush();
+                canalLignes.force(false);
+                canalMessages.force(false);
+                nbSynchronises = nbEcrits;
+            }
+        } catch (IOException e) {
+            erreur = e;
+        }
+        barriere.nbEcrits = nbEcrits;
+        barriere.ecrite.countDown();
+    }
+
+    private void fermer() {
+        try (BufferedWriter l = lignes; BufferedWriter m = messages) {
+            //les deux fichiers sont vidés puis fermés, même si le premier échoue
+        } catch (IOException e) {
+            if (erreur == null) {
+                erreur = e;
+            }
+        }
+    }
+
+    private static class Rejet {
+
+        private final long numeroLigne;
+
+        private final String ligne;
+
+        private final LigneAnalysee analyse;
+
+        private Rejet(long numeroLigne, String ligne, LigneAnalysee analyse) {
+            this.numeroLigne = numeroLigne;
+            this.ligne = ligne;
+            this.analyse = analyse;
+        }
+    }
+
+    /**
+     * Marque dans la file une synchronisation, signalée par le thread d'écriture une fois les rejets précédents écrits
+     */
+    private static class Barriere extends Rejet {
+
+        private final CountDownLatch ecrite = new CountDownLatch(1);
+
+        /**
+         * Écrit par le thread d'écriture avant le signal, lu après : le CountDownLatch assure la visibilité
+         */
+        private long nbEcrits;
+
+        private Barriere() {
+            super(0, null, null);
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package com.ipiecoles.java.java230.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Générateur de fichiers d'employés synthétiques, au format lu par l'import, pour les tests de charge et les benchmarks.
+ * Le type de chaque ligne est tiré selon les proportions demandées. Chaque manager a une équipe dont la taille est tirée
+ * entre tailleEquipeMin et tailleEquipeMax ; un technicien rejoint au hasard l'équipe d'un manager déjà écrit qui n'est pas complète,
+ * et s'il n'y en a pas, un manager est écrit à sa place : les proportions ne sont respectées que si les tailles d'équipe le permettent.
+ * Un technicien peut aussi référencer un manager écrit plus loin dans le fichier (référence avant), ce que l'import rejette.
+ * Une ligne peut recevoir une seule erreur, tirée selon les taux par erreur ; une erreur sur un manager fait aussi rejeter son équipe.
+ * Les matricules sont numérotés par type et reprennent à 0 après 99999 ; ceux des managers s'arrêtent à DEBUT_MANAGERS_INCONNUS,
+ * les suivants servant aux managers inconnus. Au-delà de getNbLignesSansDoublon lignes, le fichier contient donc des matricules
+ * en double : l'import en insert échoue sur l'index unique et l'import en upsert met à jour des employés au lieu d'en créer,
+ * ce qu'un avertissement signale. Le même paramétrage avec la même graine produit toujours le même fichier.
+ */
+public class GenerateurFichier {
+
+    public static final int DEBUT_MANAGERS_INCONNUS = 90000;
+
+    /**
+     * Erreurs qui peuvent être injectées dans les lignes, chacune seulement dans les types de ligne où l'import la détecte
+     */
+    public static final Set<ErreurLigne> ERREURS_POSSIBLES = EnumSet.of(ErreurLigne.TYPE_INCONNU, ErreurLigne.NB_CHAMPS,
+            ErreurLigne.MATRICULE, ErreurLigne.DATE, ErreurLigne.SALAIRE, ErreurLigne.CHIFFRE_AFFAIRE, ErreurLigne.PERFORMANCE,
+            ErreurLigne.GRADE, ErreurLigne.GRADE_HORS_BORNES, ErreurLigne.MANAGER_INCONNU);
+
+    /**
+     * Nombre de matricules différents par type, les matricules n'ayant que 5 chiffres
+     */
+    private static final int NB_MATRICULES = 100000;
+
+    private static final String[] NOMS = {"durand", "dupont", "aubert", "martin", "bernard", "petit", "robert", "richard",
+            "garcia", "dubois", "moreau", "laurent", "simon", "michel", "lefebvre", "leroy"};
+
+    private static final String[] PRENOMS = {"jacques", "pierre", "michel", "marie", "julie", "nicolas", "claire", "paul",
+            "camille", "lucas", "emma", "hugo", "chloe", "louis", "sarah", "thomas"};
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerateurFichier.class);
+
+    private long graine = 42;
+
+    private double proportionManagers = 1;
+
+    private double proportionTechniciens = 10;
+
+    private double proportionCommerciaux = 5;
+
+    private int tailleEquipeMin = 5;
+
+    private int tailleEquipeMax = 15;
+
+    private double tauxReferencesAvant = 0;
+
+    private final Map<ErreurLigne, Double> tauxErreurs = new EnumMap<>(ErreurLigne.class);
+
+    /**
+     * Écrit un fichier d'employés, remplacé s'il existe
+     * @param fichier le chemin du fichier
+     * @param nbLignes le nombre de lignes du fichier
+     * @throws IOException si le fichier n'a pas pu être écrit
+     */
+    public void generer(Path fichier, long nbLignes) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(Files.newBufferedWriter(fichier, StandardCharsets.UTF_8), LecteurLignes.TAILLE_TAMPON)) {
+            ecrire(writer, nbLignes);
+        }
+    }
+
+    /**
+     * Écrit des lignes d'employés, terminées chacune par \n
+     * @param writer la destination des lignes
+     * @param nbLignes le nombre de lignes à écrire
+     * @throws IOException si l'écriture a échoué
+     */
+    public void ecrire(Writer writer, long nbLignes) throws IOException {
+        long nbLignesSansDoublon = getNbLignesSansDoublon();
+        if (nbLignes > nbLignesSansDoublon) {
+            logger.warn("Au-delà d'environ " + nbLignesSansDoublon + " lignes avec ces proportions, les " + nbLignes
+                    + " lignes demandées réutilisent des matricules : l'import en insert échouera sur les doublons "
+                    + "et l'import en upsert mettra à jour des employés au lieu d'en créer");
+        }
+        new Generation(writer).ecrire(nbLignes);
+    }
+
+    /**
+     * @return le nombre de lignes à partir duquel, selon les proportions moyennes des types, les matricules d'un type
+     * (NB_MATRICULES par type, DEBUT_MANAGERS_INCONNUS pour les managers) reprennent à 0 et sont réutilisés
+     */
+    public long getNbLignesSansDoublon() {
+        double total = proportionManagers + proportionTechniciens + proportionCommerciaux;
+        double nbLignes = Double.MAX_VALUE;
+        if (proportionManagers > 0) {
+            nbLignes = Math.min(nbLignes, DEBUT_MANAGERS_INCONNUS * total / proportionManagers);
+        }
+        if (proportionTechniciens > 0) {
+            nbLignes = Math.min(nbLignes, NB_MATRICULES * total / proportionTechniciens);
+        }
+        if (proportionCommerciaux > 0) {
+            nbLignes = Math.min(nbLignes, NB_MATRICULES * total / proportionCommerciaux);
+        }
+        return (long) nbLignes;
+    }
+
+    public long getGraine() {
+        return graine;
+    }
+
+    public void setGraine(long graine) {
+        this.graine = graine;
+    }
+
+    /**
+     * Fixe les proportions relatives des managers, techniciens et commerciaux, par exemple 1, 10, 5
+     */
+    public void setProportions(double managers, double techniciens, double commerciaux) {
+        if (managers < 0 || techniciens < 0 || commerciaux < 0 || managers + techniciens + commerciaux <= 0) {
+            throw new IllegalArgumentException("Les proportions doivent être positives et non toutes nulles : " + managers + ", " + techniciens + ", " + commerciaux);
+        }
+        this.proportionManagers = managers;
+        this.proportionTechniciens = techniciens;
+        this.proportionCommerciaux = commerciaux;
+    }
+
+    /**
+     * Fixe les bornes du nombre de techniciens de chaque manager
+     */
+    public void setTailleEquipe(int min, int max) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("La taille des équipes doit être comprise entre deux bornes supérieures à 0 : " + min + ", " + max);
+        }
+        this.tailleEquipeMin = min;
+        this.tailleEquipeMax = max;
+    }
+
+    public double getTauxReferencesAvant() {
+        return tauxReferencesAvant;
+    }
+
+    /**
+     * @param tauxReferencesAvant la part des techniciens dont le manager est écrit plus loin dans le fichier, entre 0 et 1
+     */
+    public void setTauxReferencesAvant(double tauxReferencesAvant) {
+        this.tauxReferencesAvant = taux(tauxReferencesAvant);
+    }
+
+    /**
+     * @param erreur une erreur de ERREURS_POSSIBLES
+     * @param taux la part des lignes où l'erreur est possible qui la reçoivent, entre 0 et 1
+     */
+    public void setTauxErreur(ErreurLigne erreur, double taux) {
+        if (!ERREURS_POSSIBLES.contains(erreur)) {
+            throw new IllegalArgumentException("L'erreur " + erreur + " ne peut pas être injectée, erreurs possibles : " + ERREURS_POSSIBLES);
+        }
+        tauxErreurs.put(erreur, taux(taux));
+    }
+
+    public double getTauxErreur(ErreurLigne erreur) {
+        Double taux = tauxErreurs.get(erreur);
+        return taux != null ? taux : 0;
+    }
+
+    private static double taux(double taux) {
+        if (taux < 0 || taux > 1) {
+            throw new IllegalArgumentException("Un taux doit être compris entre 0 et 1 : " + taux);
+        }
+        return taux;
+    }
+
+    /**
+     * @return true si l'import détecte l'erreur sur une ligne de ce type
+     */
+    public static boolean possible(ErreurLigne erreur, char type) {
+        switch (erreur) {
+            case CHIFFRE_AFFAIRE:
+            case PERFORMANCE:
+                return type == 'C';
+            case GRADE:
+            case GRADE_HORS_BORNES:
+            case MANAGER_INCONNU:
+                return type == 'T';
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Génère un fichier d'employés depuis la ligne de commande :
+     * fichier [--lignes=N] [--graine=N] [--proportions=M,T,C] [--equipe=MIN-MAX] [--references-avant=TAUX] [--erreur.NOM=TAUX]...
+     * où NOM est une erreur de ERREURS_POSSIBLES, par exemple --erreur.DATE=0.01.
+     * Les matricules sont uniques jusqu'à getNbLignesSansDoublon lignes (160 000 avec les proportions par défaut 1,10,5) :
+     * au-delà, le fichier convient aux benchmarks de l'analyse mais pas au chargement d'une BDD vide.
+     */
+    public static void main(String[] args) throws IOException {
+        GenerateurFichier generateur = new GenerateurFichier();
+        long nbLignes = 1000000;
+        String fichier = null;
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                fichier = arg;
+                continue;
+            }
+            int egal = arg.indexOf('=');
+            if (egal < 0) {
+                throw new IllegalArgumentException("Option sans valeur : " + arg);
+            }
+            String nom = arg.substring(2, egal);
+            String valeur = arg.substring(egal + 1);
+            if (nom.equals("lignes")) {
+                nbLignes = Long.parseLong(valeur);
+            } else if (nom.equals("graine")) {
+                generateur.setGraine(Long.parseLong(valeur));
+            } else if (nom.equals("proportions")) {
+                String[] proportions = valeur.split(",");
+                generateur.setProportions(Double.parseDouble(proportions[0]), Double.parseDouble(proportions[1]), Double.parseDouble(proportions[2]));
+            } else if (nom.equals("equipe")) {
+                String[] bornes = valeur.split("-");
+                generateur.setTailleEquipe(Integer.parseInt(bornes[0]), Integer.parseInt(bornes[bornes.length - 1]));
+            } else if (nom.equals("references-avant")) {
+                generateur.setTauxReferencesAvant(Double.parseDouble(valeur));
+            } else if (nom.startsWith("erreur.")) {
+                generateur.setTauxErreur(ErreurLigne.valueOf(nom.substring("erreur.".length())), Double.parseDouble(valeur));
+            } else {
+                throw new IllegalArgumentException("Option inconnue : " + arg);
+            }
+        }
+        if (fichier == null) {
+            throw new IllegalArgumentException("Le chemin du fichier à générer est obligatoire");
+        }
+        long debut = System.nanoTime();
+        generateur.generer(Paths.get(fichier), nbLignes);
+        logger.info(nbLignes + " lignes écrites dans " + fichier + " en " + (System.nanoTime() - debut) / 1000000 + " ms");
+    }
+
+    /**
+     * État d'une génération : tirages, numérotation des matricules et équipes en cours
+     */
+    private class Generation {
+
+        private final Writer writer;
+
+        private final Random random = new Random(graine);
+
+        private final StringBuilder ligne = new StringBuilder(64);
+
+        /**
+         * Champs de la ligne en cours, avec une place pour un champ en trop
+         */
+        private final String[] champs = new String[AnalyseurLigne.NB_CHAMPS_TECHNICIEN + 1];
+
+        /**
+         * Managers déjà écrits dont l'équipe n'est pas complète, et le nombre de places restantes de chacun
+         */
+        private final List<String> managersOuverts = new ArrayList<>();
+
+        private final List<Integer> placesRestantes = new ArrayList<>();
+
+        /**
+         * Managers déjà référencés par un technicien, à écrire plus loin dans le fichier
+         */
+        private final Deque<String> managersAnnonces = new ArrayDeque<>();
+
+        private int numeroManager;
+
+        private int numeroTechnicien;
+
+        private int numeroCommercial;
+
+        private Generation(Writer writer) {
+            this.writer = writer;
+        }
+
+        private void ecrire(long nbLignes) throws IOException {
+            double total = proportionManagers + proportionTechniciens + proportionCommerciaux;
+            for (long restantes = nbLignes; restantes > 0; restantes--) {
+                if (restantes <= managersAnnonces.size()) {
+                    //les dernières lignes écrivent les managers annoncés
+                    manager();
+                    continue;
+                }
+                double tirage = random.nextDouble() * total;
+                if (tirage < proportionManagers) {
+                    manager();
+                } else if (tirage < proportionManagers + proportionTechniciens) {
+                    technicien(restantes);
+                } else {
+                    commercial();
+                }
+            }
+        }
+
+        private void manager() throws IOException {
+            String matricule = managersAnnonces.isEmpty() ? matriculeManager() : managersAnnonces.poll();
+            employe(matricule);
+            terminer('M', AnalyseurLigne.NB_CHAMPS_MANAGER);
+            int taille = tailleEquipeMin + random.nextInt(tailleEquipeMax - tailleEquipeMin + 1);
+            managersOuverts.add(matricule);
+            placesRestantes.add(taille);
+        }
+
+        private void technicien(long restantes) throws IOException {
+            String manager;
+            if (tauxReferencesAvant > 0 && restantes - 1 > managersAnnonces.size() && random.nextDouble() < tauxReferencesAvant) {
+                manager = matriculeManager();
+                managersAnnonces.add(manager);
+            } else if (managersOuverts.isEmpty()) {
+                manager();
+                return;
+            } else {
+                manager = rejoindreEquipe();
+            }
+            employe("T" + numero(numeroTechnicien++ % NB_MATRICULES));
+            champs[5] = Integer.toString(1 + random.nextInt(5));
+            champs[6] = manager;
+            terminer('T', AnalyseurLigne.NB_CHAMPS_TECHNICIEN);
+        }
+
+        /**
+         * @return le matricule d'un manager ouvert tiré au hasard, dont l'équipe compte désormais une place de moins
+         */
+        private String rejoindreEquipe() {
+            int index = random.nextInt(managersOuverts.size());
+            String manager = managersOuverts.get(index);
+            int places = placesRestantes.get(index) - 1;
+            if (places > 0) {
+                placesRestantes.set(index, places);
+            } else {
+                int dernier = managersOuverts.size() - 1;
+                managersOuverts.set(index, managersOuverts.get(dernier));
+                placesRestantes.set(index, placesRestantes.get(dernier));
+                managersOuverts.remove(dernier);
+                placesRestantes.remove(dernier);
+            }
+            return manager;
+        }
+
+        private void commercial() throws IOException {
+            employe("C" + numero(numeroCommercial++ % NB_MATRICULES));
+            champs[5] = Double.toString(10000 + random.nextInt(20000000) / 100.0);
+            champs[6] = Integer.toString(random.nextInt(200));
+            terminer('C', AnalyseurLigne.NB_CHAMPS_COMMERCIAL);
+        }
+
+        private String matriculeManager() {
+            return "M" + numero(numeroManager++ % DEBUT_MANAGERS_INCONNUS);
+        }
+
+        /**
+         * Remplit les champs communs à tous les employés
+         */
+        private void employe(String matricule) {
+            champs[0] = matricule;
+            champs[1] = NOMS[random.nextInt(NOMS.length)];
+            champs[2] = PRENOMS[random.nextInt(PRENOMS.length)];
+            champs[3] = date(1 + random.nextInt(28), 1 + random.nextInt(12), 1990 + random.nextInt(30));
+            champs[4] = Double.toString(1500 + random.nextInt(300000) / 100.0);
+        }
+
+        /**
+         * Injecte éventuellement une erreur dans les champs de la ligne, puis écrit la ligne
+         */
+        private void terminer(char type, int nbChamps) throws IOException {
+            ErreurLigne erreur = tirerErreur(type);
+            if (erreur != null) {
+                nbChamps = injecter(erreur, nbChamps);
+            }
+            ligne.setLength(0);
+            for (int i = 0; i < nbChamps; i++) {
+                if (i > 0) {
+                    ligne.append(LigneCsv.SEPARATEUR);
+                }
+                ligne.append(champs[i]);
+            }
+            ligne.append('\n');
+            writer.append(ligne);
+        }
+
+        /**
+         * @return l'erreur à injecter dans une ligne du type, tirée selon les taux, ou null
+         */
+        private ErreurLigne tirerErreur(char type) {
+            if (tauxErreurs.isEmpty()) {
+                return null;
+            }
+            double tirage = random.nextDouble();
+            double cumul = 0;
+            for (Map.Entry<ErreurLigne, Double> taux : tauxErreurs.entrySet()) {
+                if (possible(taux.getKey(), type)) {
+                    cumul += taux.getValue();
+                    if (tirage < cumul) {
+                        return taux.getKey();
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return le nombre de champs de la ligne après l'erreur
+         */
+        private int injecter(ErreurLigne erreur, int nbChamps) {
+            switch (erreur) {
+                case TYPE_INCONNU:
+                    champs[0] = "X" + champs[0].substring(1);
+                    break;
+                case NB_CHAMPS:
+                    if (random.nextBoolean()) {
+                        return nbChamps - 1;
+                    }
+                    champs[nbChamps] = "dfgdfg";
+                    return nbChamps + 1;
+                case MATRICULE:
+                    champs[0] = champs[0].substring(0, 3);
+                    break;
+                case DATE:
+                    champs[3] = date(1 + random.nextInt(28), 13 + random.nextInt(87), 1990 + random.nextInt(30));
+                    break;
+                case SALAIRE:
+                    champs[4] = "xxx";
+                    break;
+                case CHIFFRE_AFFAIRE:
+                case GRADE:
+                    champs[5] = "xxx";
+                    break;
+                case PERFORMANCE:
+                    champs[6] = "xxx";
+                    break;
+                case GRADE_HORS_BORNES:
+                    champs[5] = Integer.toString(6 + random.nextInt(4));
+                    break;
+                case MANAGER_INCONNU:
+                    champs[6] = "M" + numero(DEBUT_MANAGERS_INCONNUS + random.nextInt(NB_MATRICULES - DEBUT_MANAGERS_INCONNUS));
+                    break;
+                default:
+                    throw new IllegalStateException("Erreur non injectable : " + erreur);
+            }
+            return nbChamps;
+        }
+    }
+
+    private static String numero(int numero) {
+        String chiffres = Integer.toString(numero);
+        return "00000".substring(chiffres.length()) + chiffres;
+    }
+
+    private static String date(int jour, int mois, int annee) {
+        return (jour < 10 ? "0" : "") + jour + "/" + (mois < 10 ? "0" : "") + mois + "/" + annee;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.service.CacheManagers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Écriture des lots en JDBC par des INSERT de plusieurs lignes, pour le chargement initial d'une BDD vide.
+ * Les identifiants sont réservés dans la séquence avant l'écriture : le lot est écrit sans aucune lecture,
+ * et chaque ligne d'une table de sous-classe reprend l'identifiant de sa ligne Employe.
+ * Contrairement à l'écriture upsert, un matricule déjà présent en BDD fait échouer le lot.
+ */
+@Component(JdbcInsertEmployeWriter.NOM)
+public class JdbcInsertEmployeWriter implements EmployeWriter {
+
+    public static final String NOM = "insert";
+
+    /**
+     * Nombre maximum de lignes par instruction INSERT
+     */
+    public static final int LIGNES_PAR_INSERT = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AllocateurIds allocateurIds;
+
+    @Autowired
+    private CacheManagers cacheManagers;
+
+    @Override
+    @Transactional
+    public void ecrire(List<Employe> lot) {
+        allocateurIds.affecterIds(lot);
+        inserer("Employe", LignesTables.COLONNES_EMPLOYE, LignesTables.employes(lot));
+        //les managers d'abord, les techniciens du lot pouvant les référencer
+        inserer("Manager", LignesTables.COLONNES_MANAGER, LignesTables.managers(lot));
+        inserer("Technicien", LignesTables.COLONNES_TECHNICIEN, LignesTables.techniciens(lot));
+        inserer("Commercial", LignesTables.COLONNES_COMMERCIAL, LignesTables.commerciaux(lot));
+        cacheManagers.evincer(lot);
+    }
+
+    /**
+     * Insère les lignes dans la table par tranches de LIGNES_PAR_INSERT lignes, une instruction par tranche
+     */
+    private void inserer(String table, String colonnes, List<Object[]> lignes) {
+        for (int debut = 0; debut < lignes.size(); debut += LIGNES_PAR_INSERT) {
+            List<Object[]> tranche = lignes.subList(debut, Math.min(lignes.size(), debut + LIGNES_PAR_INSERT));
+            int nbColonnes = tranche.get(0).length;
+            Object[] valeurs = new Object[tranche.size() * nbColonnes];
+            for (int i = 0; i < tranche.size(); i++) {
+                System.arraycopy(tranche.get(i), 0, valeurs, i * nbColonnes, nbColonnes);
+            }
+            jdbcTemplate.update(insert(table, colonnes, nbColonnes, tranche.size()), valeurs);
+        }
+    }
+
+    /**
+     * @return l'instruction INSERT INTO table (colonnes) VALUES (?, ...), (?, ...) pour nbLignes lignes
+     */
+    private static String insert(String table, String colonnes, int nbColonnes, int nbLignes) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(colonnes).append(") VALUES ");
+        for (int i = 0; i < nbLignes; i++) {
+            sql.append(i == 0 ? "(" : ", (");
+            for (int j = 0; j < nbColonnes; j++) {
+                sql.append(j == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.service.CacheManagers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Écriture des lots en JDBC, par INSERT ... ON DUPLICATE KEY UPDATE sur le matricule (index unique de la table Employe).
+ * Un employé déjà en BDD est mis à jour au lieu d'être dupliqué : réimporter un fichier ne change rien.
+ * Les nouveaux employés reçoivent un identifiant réservé par blocs dans la séquence partagée avec JPA.
+ * Chaque lot coûte un batch par table et une seule lecture, celle des identifiants des employés du lot,
+ * nécessaires aux tables des sous-classes et aux techniciens pour référencer leur manager.
+ * Cette lecture donne aussi le type de chaque employé déjà en BDD : un employé qui change de type (un technicien
+ * réimporté comme commercial par exemple) perd sa ligne de l'ancienne table de sous-classe avant d'être écrit dans
+ * la nouvelle, pour qu'un identifiant ne soit jamais dans deux tables de sous-classe. Un manager qui change de type
+ * est retiré de l'équipe de ses anciens techniciens, qui n'ont plus de manager tant qu'ils ne sont pas réimportés.
+ */
+@Component(JdbcUpsertEmployeWriter.NOM)
+public class JdbcUpsertEmployeWriter implements EmployeWriter {
+
+    public static final String NOM = "upsert";
+
+    private static final String UPSERT_EMPLOYE = "INSERT INTO Employe (" + LignesTables.COLONNES_EMPLOYE + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE nom = VALUES(nom), prenom = VALUES(prenom), "
+            + "dateEmbauche = VALUES(dateEmbauche), salaire = VALUES(salaire), "
+            + "nomRecherche = VALUES(nomRecherche), prenomRecherche = VALUES(prenomRecherche)";
+
+    /**
+     * Identifiant et type actuel (table de sous-classe, null pour un employé qui vient d'être créé) des employés du lot
+     */
+    private static final String SELECT_IDS = "SELECT e.matricule, e.id, CASE WHEN m.id IS NOT NULL THEN 'Manager' "
+            + "WHEN t.id IS NOT NULL THEN 'Technicien' WHEN c.id IS NOT NULL THEN 'Commercial' END FROM Employe e "
+            + "LEFT JOIN Manager m ON m.id = e.id LEFT JOIN Technicien t ON t.id = e.id LEFT JOIN Commercial c ON c.id = e.id "
+            + "WHERE e.matricule IN (:matricules)";
+
+    private static final String DETACHER_EQUIPES = "UPDATE Technicien SET manager_id = NULL WHERE manager_id IN (:ids)";
+
+    private static final String UPSERT_MANAGER = "INSERT INTO Manager (" + LignesTables.COLONNES_MANAGER + ") VALUES (?) "
+            + "ON DUPLICATE KEY UPDATE id = id";
+
+    private static final String UPSERT_TECHNICIEN = "INSERT INTO Technicien (" + LignesTables.COLONNES_TECHNICIEN + ") VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE grade = VALUES(grade), manager_id = VALUES(manager_id)";
+
+    private static final String UPSERT_COMMERCIAL = "INSERT INTO Commercial (" + LignesTables.COLONNES_COMMERCIAL + ") VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE caAnnuel = VALUES(caAnnuel), performance = VALUES(performance)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AllocateurIds allocateurIds;
+
+    @Autowired
+    private CacheManagers cacheManagers;
+
+    @Override
+    @Transactional
+    public void ecrire(List<Employe> lot) {
+        allocateurIds.affecterIds(lot);
+        batch(UPSERT_EMPLOYE, LignesTables.employes(lot));
+        supprimerAnciensTypes(lot, affecterIds(lot));
+        //les managers d'abord, les techniciens du lot pouvant les référencer
+        batch(UPSERT_MANAGER, LignesTables.managers(lot));
+        batch(UPSERT_TECHNICIEN, LignesTables.techniciens(lot));
+        batch(UPSERT_COMMERCIAL, LignesTables.commerciaux(lot));
+        cacheManagers.evincer(lot);
+    }
+
+    /**
+     * Renseigne sur les employés du lot leur identifiant en BDD : celui qui leur a été attribué s'ils viennent d'être créés,
+     * celui de la ligne existante sinon
+     * @return le type en BDD des employés déjà présents, par matricule, avant l'écriture des tables de sous-classe
+     */
+    private Map<String, String> affecterIds(List<Employe> lot) {
+        Set<String> matricules = new LinkedHashSet<>();
+        for (Employe employe : lot) {
+            matricules.add(employe.getMatricule());
+        }
+        Map<String, Long> ids = new HashMap<>(matricules.size() * 2);
+        Map<String, String> types = new HashMap<>(matricules.size() * 2);
+        jdbcTemplate.query(SELECT_IDS, new MapSqlParameterSource("matricules", matricules), rs -> {
+            ids.put(rs.getString(1), rs.getLong(2));
+            if (rs.getString(3) != null) {
+                types.put(rs.getString(1), rs.getString(3));
+            }
+        });
+        for (Employe employe : lot) {
+            employe.setId(ids.get(employe.getMatricule()));
+        }
+        return types;
+    }
+
+    /**
+     * Supprime les lignes des tables de sous-classe des employés du lot dont le type a changé
+     * @param types le type en BDD des employés déjà présents, par matricule
+     */
+    private void supprimerAnciensTypes(List<Employe> lot, Map<String, String> types) {
+        Map<String, List<Long>> idsParTable = new HashMap<>();
+        List<String> anciensManagers = new ArrayList<>();
+        for (Employe employe : lot) {
+            String type = types.get(employe.getMatricule());
+            if (type != null && !type.equals(employe.getClass().getSimpleName())) {
+                idsParTable.computeIfAbsent(type, t -> new ArrayList<>()).add(employe.getId());
+                if (type.equals(Manager.class.getSimpleName())) {
+                    anciensManagers.add(employe.getMatricule());
+                }
+            }
+        }
+        for (Map.Entry<String, List<Long>> table : idsParTable.entrySet()) {
+            MapSqlParameterSource ids = new MapSqlParameterSource("ids", table.getValue());
+            if (table.getKey().equals(Manager.class.getSimpleName())) {
+                jdbcTemplate.update(DETACHER_EQUIPES, ids);
+            }
+            //le nom de la table vient de SELECT_IDS, pas du fichier
+            jdbcTemplate.update("DELETE FROM " + table.getKey() + " WHERE id IN (:ids)", ids);
+        }
+        cacheManagers.evincerMatricules(anciensManagers);
+    }
+
+    private void batch(String sql, List<Object[]> lignes) {
+        if (!lignes.isEmpty()) {
+            jdbcTemplate.getJdbcOperations().batchUpdate(sql, lignes);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.repository.EmployeRepository;
+import com.ipiecoles.java.java230.service.CacheManagers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * Écriture des lots par JPA. Le contexte de persistance est vidé après chaque lot
+ * pour que le coût du flush ne grandisse pas avec le nombre d'employés déjà intégrés.
+ */
+@Component(JpaEmployeWriter.NOM)
+public class JpaEmployeWriter implements EmployeWriter {
+
+    public static final String NOM = "jpa";
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private CacheManagers cacheManagers;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void ecrire(List<Employe> lot) {
+        employeRepository.save(lot);
+        entityManager.flush();
+        entityManager.clear();
+        cacheManagers.evincer(lot);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ipiecoles.java.java230.batch;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lecteur de fichier ligne à ligne au-dessus d'un canal NIO.
+ * Seuls un tampon de taille fixe et la ligne courante sont gardés en mémoire, quelle que soit la taille du fichier.
+ * Comme pour Files.lines, les fins de ligne \n, \r\n et \r sont reconnues.
+ */
+public class LecteurLignes implements Closeable {
+
+    public static final int TAILLE_TAMPON = 1024 * 1024;
+
+    private final ReadableByteChannel canal;
+
+    private ByteBuffer tampon;
+
+    private boolean finCanal = false;
+
+    private long position = 0;
+
+    private long numeroLigne = 0;
+
+    public LecteurLignes(ReadableByteChannel canal, int tailleTampon) {
+        this.canal = canal;
+        this.tampon = ByteBuffer.allocate(tailleTampon);
+        this.tampon.flip();
+    }
+
+    /**
+     * Ouvre le fichier en paramètre : chemin du système de fichiers s'il existe, ressource du classpath sinon
+     * @param fileName le chemin ou le nom de la ressource
+     * @return le lecteur positionné au début du fichier
+     * @throws IOException si le fichier n'a pas pu être ouvert
+     */
+    public static LecteurLignes ouvrir(String fileName) throws IOException {
+        Path chemin = Paths.get(fileName);
+        if (Files.isRegularFile(chemin)) {
+            return new LecteurLignes(FileChannel.open(chemin, StandardOpenOption.READ), TAILLE_TAMPON);
+        }
+        return new LecteurLignes(Channels.newChannel(new ClassPathResource(fileName).getInputStream()), TAILLE_TAMPON);
+    }
+
+    /**
+     * Ouvre le fichier en paramètre au début d'une ligne déjà repérée lors d'une lecture précédente
+     * @param fileName le chemin du fichier, qui doit se trouver sur le système de fichiers pour pouvoir s'y positionner
+     * @param position la position en octets du début de la ligne, donnée par getPosition()
+     * @param numeroLigne le numéro de la ligne précédant cette position, donné par getNumeroLigne()
+     * @return le lecteur positionné au début de la ligne
+     * @throws IOException si le fichier n'a pas pu être ouvert
+     */
+    public static LecteurLignes reprendre(String fileName, long position, long numeroLigne) throws IOException {
+        FileChannel canal = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        canal.position(position);
+        LecteurLignes lecteur = new LecteurLignes(canal, TAILLE_TAMPON);
+        lecteur.position = position;
+        lecteur.numeroLigne = numeroLigne;
+        return lecteur;
+    }
+
+    /**
+     * @return la ligne suivante sans son caractère de fin de ligne, ou null à la fin du fichier
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public String lireLigne() throws IOException {
+        int debut = tampon.position();
+        int i = debut;
+        while (true) {
+            byte[] octets = tampon.array();
+            int limite = tampon.limit();
+            for (; i < limite; i++) {
+                byte b = octets[i];
+                if (b == '\n' || b == '\r') {
+                    if (b == '\r' && i + 1 == limite && !finCanal) {
+                        //Il faut lire la suite pour savoir s'il s'agit d'un \r\n
+                        break;
+                    }
+                    int suivant = i + 1;
+                    if (b == '\r' && suivant < limite && octets[suivant] == '\n') {
+                        suivant++;
+                    }
+                    return terminerLigne(debut, i, suivant);
+                }
+            }
+            if (finCanal) {
+                return debut == limite ? null : terminerLigne(debut, limite, limite);
+            }
+            int dejaParcourus = i - debut;
+            remplir();
+            debut = tampon.position();
+            i = debut + dejaParcourus;
+        }
+    }
+
+    private String terminerLigne(int debut, int fin, int suivant) {
+        String ligne = new String(tampon.array(), debut, fin - debut, StandardCharsets.UTF_8);
+        tampon.position(suivant);
+        position += suivant - debut;
+        numeroLigne++;
+        return ligne;
+    }
+
+    /**
+     * Déplace la ligne en cours au début du tampon (en l'agrandissant si elle le remplit entièrement) puis complète le tampon depuis le canal
+     */
+    private void remplir() throws IOException {
+        tampon.compact();
+        if (!tampon.hasRemaining()) {
+            ByteBuffer plusGrand = ByteBuffer.allocate(tampon.capacity() * 2);
+            tampon.flip();
+            plusGrand.put(tampon);
+            tampon = plusGrand;
+        }
+        int lus;
+        do {
+            lus = canal.read(tampon);
+        } while (lus == 0);
+        if (lus < 0) {
+            finCanal = true;
+        }
+        tampon.flip();
+    }
+
+    /**
+     * @return le nombre de lignes lues jusqu'ici, c'est-à-dire le numéro de la dernière ligne renvoyée
+     */
+    public long getNumeroLigne() {
+        return numeroLigne;
+    }
+
+    /**
+     * @return la position en octets du début de la prochaine ligne
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
@@ -0,0 +1,103 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Employe;
+
+/**
+ * Résultat de l'analyse d'une ligne, indépendant des autres lignes du fichier.
+ * Pour un technicien, la recherche de son manager reste à faire : elle a lieu après les contrôles de format
+ * de la ligne mais avant ceux du grade et des champs communs, d'où la distinction entre les deux types d'erreur.
+ */
+public class LigneAnalysee {
+
+    private static final Object[] AUCUNE_VALEUR = new Object[0];
+
+    private final Employe employe;
+
+    private final String matriculeManager;
+
+    private final ErreurLigne erreur;
+
+    private final Object[] valeurs;
+
+    private final boolean erreurApresManager;
+
+    private final long empreinte;
+
+    private LigneAnalysee(Employe employe, String matriculeManager, ErreurLigne erreur, Object[] valeurs, boolean erreurApresManager, long empreinte) {
+        this.employe = employe;
+        this.matriculeManager = matriculeManager;
+        this.erreur = erreur;
+        this.valeurs = valeurs;
+        this.erreurApresManager = erreurApresManager;
+        this.empreinte = empreinte;
+    }
+
+    /**
+     * @param empreinte l'empreinte de la ligne (LigneCsv.empreinte)
+     */
+    public static LigneAnalysee valide(Employe employe, long empreinte) {
+        return new LigneAnalysee(employe, null, null, AUCUNE_VALEUR, false, empreinte);
+    }
+
+    /**
+     * @param empreinte l'empreinte de la ligne (LigneCsv.empreinte)
+     */
+    public static LigneAnalysee technicien(Employe technicien, String matriculeManager, long empreinte) {
+        return new LigneAnalysee(technicien, matriculeManager, null, AUCUNE_VALEUR, false, empreinte);
+    }
+
+    /**
+     * @param erreur l'erreur détectée
+     * @param valeurs les valeurs incorrectes, pour le message d'erreur
+     */
+    public static LigneAnalysee erreur(ErreurLigne erreur, Object... valeurs) {
+        return new LigneAnalysee(null, null, erreur, valeurs, false, 0);
+    }
+
+    /**
+     * @param matriculeManager le matricule du manager, à rechercher avant de signaler l'erreur de cette analyse
+     * @return la même erreur, à ne signaler que si le manager existe
+     */
+    public LigneAnalysee apresManager(String matriculeManager) {
+        return new LigneAnalysee(null, matriculeManager, erreur, valeurs, true, 0);
+    }
+
+    /**
+     * @return l'employé créé à partir de la ligne, ou null si la ligne est en erreur
+     */
+    public Employe getEmploye() {
+        return employe;
+    }
+
+    /**
+     * @return le matricule du manager référencé par un technicien, ou null
+     */
+    public String getMatriculeManager() {
+        return matriculeManager;
+    }
+
+    /**
+     * @return l'erreur détectée, ou null si la ligne est valide
+     */
+    public ErreurLigne getErreur() {
+        return erreur;
+    }
+
+    /**
+     * @return l'empreinte de la ligne dont l'employé a été créé, pour l'import incrémental, 0 si la ligne est en erreur
+     */
+    public long getEmpreinte() {
+        return empreinte;
+    }
+
+    public boolean isErreurApresManager() {
+        return erreurApresManager;
+    }
+
+    /**
+     * @return le message de l'erreur détectée, construit à la demande
+     */
+    public String getMessageErreur() {
+        return erreur == null ? null : erreur.message(valeurs);
+    }
+}
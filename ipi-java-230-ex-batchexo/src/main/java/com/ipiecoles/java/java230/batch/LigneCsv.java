@@ -0,0 +1,314 @@
+package com.ipiecoles.java.java230.batch;
+
+import org.joda.time.LocalDate;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Découpage d'une ligne CSV en une seule passe, sans copier les champs.
+ * Une même instance est réutilisée d'une ligne à l'autre : seuls les champs réellement utilisés sont extraits,
+ * et les nombres et dates sont lus directement dans la ligne.
+ * Les valeurs acceptées sont exactement celles de String.split(","), Double.parseDouble, Integer.parseInt
+ * et du format joda dd/MM/yyyy, vers lesquels on se rabat dès qu'un champ sort du cas simple.
+ * Un champ invalide est signalé par la valeur de retour, sans exception.
+ */
+public class LigneCsv {
+
+    public static final char SEPARATEUR = ',';
+
+    public static final DateTimeFormatter FORMAT_DATE = DateTimeFormat.forPattern("dd/MM/yyyy");
+
+    /**
+     * Puissances de 10 représentables exactement par un double
+     */
+    private static final double[] PUISSANCES_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Nombre de chiffres au-delà duquel la mantisse n'est plus un entier exact en double
+     */
+    private static final int CHIFFRES_EXACTS = 15;
+
+    /**
+     * Syntaxe acceptée par Double.parseDouble, reprise de la documentation de Double.valueOf
+     */
+    private static final Pattern SYNTAXE_DOUBLE = Pattern.compile(
+            "[\\x00-\\x20]*[+-]?(NaN|Infinity|((((\\p{Digit}+)(\\.)?((\\p{Digit}+)?)([eE][+-]?(\\p{Digit}+))?)|"
+                    + "(\\.((\\p{Digit}+))([eE][+-]?(\\p{Digit}+))?)|"
+                    + "(((0[xX](\\p{XDigit}+)(\\.)?)|(0[xX](\\p{XDigit}+)?(\\.)(\\p{XDigit}+)))[pP][+-]?(\\p{Digit}+)))[fFdD]?))[\\x00-\\x20]*");
+
+    private static final long FNV_BASE = 0xcbf29ce484222325L;
+
+    private static final long FNV_PREMIER = 0x100000001b3L;
+
+    private static final int[] JOURS_PAR_MOIS = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private String ligne = "";
+
+    private int[] debuts = new int[8];
+
+    private int[] fins = new int[8];
+
+    private int nbChamps;
+
+    private double decimal;
+
+    private int entier;
+
+    /**
+     * Repère les champs de la ligne. Comme String.split(","), les champs vides en fin de ligne ne sont pas comptés.
+     * @param ligne la ligne à découper
+     * @return cette instance
+     */
+    public LigneCsv decouper(String ligne) {
+        this.ligne = ligne;
+        int longueur = ligne.length();
+        nbChamps = 0;
+        int debut = 0;
+        for (int i = 0; i < longueur; i++) {
+            if (ligne.charAt(i) == SEPARATEUR) {
+                ajouterChamp(debut, i);
+                debut = i + 1;
+            }
+        }
+        if (nbChamps == 0) {
+            ajouterChamp(0, longueur);
+            return this;
+        }
+        ajouterChamp(debut, longueur);
+        while (nbChamps > 0 && debuts[nbChamps - 1] == fins[nbChamps - 1]) {
+            nbChamps--;
+        }
+        return this;
+    }
+
+    private void ajouterChamp(int debut, int fin) {
+        if (nbChamps == debuts.length) {
+            debuts = Arrays.copyOf(debuts, nbChamps * 2);
+            fins = Arrays.copyOf(fins, nbChamps * 2);
+        }
+        debuts[nbChamps] = debut;
+        fins[nbChamps] = fin;
+        nbChamps++;
+    }
+
+    public String getLigne() {
+        return ligne;
+    }
+
+    public int getNbChamps() {
+        return nbChamps;
+    }
+
+    /**
+     * @return le premier caractère de la ligne, ou 0 si elle est vide
+     */
+    public char premierCaractere() {
+        return ligne.isEmpty() ? 0 : ligne.charAt(0);
+    }
+
+    /**
+     * @param index l'indice du champ
+     * @return le contenu du champ
+     */
+    public String champ(int index) {
+        return ligne.substring(debuts[index], fins[index]);
+    }
+
+    /**
+     * Équivalent de champ(index).matches("^[" + lettres + "][0-9]{5}$")
+     * @param index l'indice du champ
+     * @param lettres les premières lettres autorisées
+     * @return true si le champ est un matricule valide
+     */
+    public boolean estMatricule(int index, String lettres) {
+        int debut = debuts[index];
+        if (fins[index] - debut != 6 || lettres.indexOf(ligne.charAt(debut)) < 0) {
+            return false;
+        }
+        for (int i = debut + 1; i < debut + 6; i++) {
+            if (!estChiffre(ligne.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Équivalent de FORMAT_DATE.parseLocalDate(champ(index))
+     * @param index l'indice du champ
+     * @return la date, ou null si le champ ne respecte pas le format dd/MM/yyyy
+     */
+    public LocalDate date(int index) {
+        int debut = debuts[index];
+        if (fins[index] - debut == 10 && ligne.charAt(debut + 2) == '/' && ligne.charAt(debut + 5) == '/') {
+            int jour = chiffres(debut, debut + 2);
+            int mois = chiffres(debut + 3, debut + 5);
+            int annee = chiffres(debut + 6, debut + 10);
+            if (jour >= 0 && mois >= 0 && annee >= 0) {
+                if (mois < 1 || mois > 12 || jour < 1 || jour > joursDansMois(annee, mois)) {
+                    return null;
+                }
+                return new LocalDate(annee, mois, jour);
+            }
+        }
+        //Le format n'accepte que des chiffres, des / et le signe de l'année : inutile de le solliciter sinon
+        for (int i = debut; i < fins[index]; i++) {
+            char c = ligne.charAt(i);
+            if (!estChiffre(c) && c != '/' && c != '-' && c != '+') {
+                return null;
+            }
+        }
+        try {
+            return FORMAT_DATE.parseLocalDate(champ(index));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lit le champ comme Double.parseDouble(champ(index)), sans lever d'exception s'il est invalide
+     * @param index l'indice du champ
+     * @return true si le champ est un nombre valide, dont la valeur est alors donnée par getDecimal()
+     */
+    public boolean lireDecimal(int index) {
+        int i = debuts[index];
+        int fin = fins[index];
+        boolean negatif = false;
+        if (i < fin && (ligne.charAt(i) == '-' || ligne.charAt(i) == '+')) {
+            negatif = ligne.charAt(i) == '-';
+            i++;
+        }
+        long mantisse = 0;
+        int nbChiffres = 0;
+        int nbDecimales = -1;
+        for (; i < fin; i++) {
+            char c = ligne.charAt(i);
+            if (estChiffre(c)) {
+                mantisse = mantisse * 10 + (c - '0');
+                nbChiffres++;
+                if (nbDecimales >= 0) {
+                    nbDecimales++;
+                }
+            } else if (c == '.' && nbDecimales < 0) {
+                nbDecimales = 0;
+            } else {
+                break;
+            }
+        }
+        if (i < fin || nbChiffres == 0 || nbChiffres > CHIFFRES_EXACTS) {
+            String champ = champ(index);
+            if (!SYNTAXE_DOUBLE.matcher(champ).matches()) {
+                return false;
+            }
+            decimal = Double.parseDouble(champ);
+            return true;
+        }
+        //La mantisse et la puissance de 10 sont exactes, la division est donc correctement arrondie comme Double.parseDouble
+        double valeur = nbDecimales > 0 ? mantisse / PUISSANCES_10[nbDecimales] : mantisse;
+        decimal = negatif ? -valeur : valeur;
+        return true;
+    }
+
+    /**
+     * @return la valeur du dernier champ lu avec succès par lireDecimal
+     */
+    public double getDecimal() {
+        return decimal;
+    }
+
+    /**
+     * Lit le champ comme Integer.parseInt(champ(index)), sans lever d'exception s'il est invalide
+     * @param index l'indice du champ
+     * @return true si le champ est un entier valide, dont la valeur est alors donnée par getEntier()
+     */
+    public boolean lireEntier(int index) {
+        int i = debuts[index];
+        int fin = fins[index];
+        if (i == fin) {
+            return false;
+        }
+        //Même algorithme qu'Integer.parseInt : accumulation en négatif pour accepter Integer.MIN_VALUE
+        boolean negatif = false;
+        int limite = -Integer.MAX_VALUE;
+        char premier = ligne.charAt(i);
+        if (premier < '0') {
+            if (premier == '-') {
+                negatif = true;
+                limite = Integer.MIN_VALUE;
+            } else if (premier != '+') {
+                return false;
+            }
+            if (fin - i == 1) {
+                return false;
+            }
+            i++;
+        }
+        int multiplicateurMax = limite / 10;
+        int valeur = 0;
+        for (; i < fin; i++) {
+            int chiffre = Character.digit(ligne.charAt(i), 10);
+            if (chiffre < 0 || valeur < multiplicateurMax) {
+                return false;
+            }
+            valeur *= 10;
+            if (valeur < limite + chiffre) {
+                return false;
+            }
+            valeur -= chiffre;
+        }
+        entier = negatif ? valeur : -valeur;
+        return true;
+    }
+
+    /**
+     * @return la valeur du dernier champ lu avec succès par lireEntier
+     */
+    public int getEntier() {
+        return entier;
+    }
+
+    /**
+     * @return l'empreinte sur 64 bits (FNV-1a) de la ligne entière, qui change dès que l'un de ses caractères change
+     */
+    public long empreinte() {
+        long empreinte = FNV_BASE;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            empreinte = (empreinte ^ (c & 0xff)) * FNV_PREMIER;
+            empreinte = (empreinte ^ (c >>> 8)) * FNV_PREMIER;
+        }
+        return empreinte;
+    }
+
+    private static boolean estChiffre(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return la valeur des chiffres ASCII entre debut et fin, ou -1 si l'un des caractères n'en est pas un
+     */
+    private int chiffres(int debut, int fin) {
+        int valeur = 0;
+        for (int i = debut; i < fin; i++) {
+            char c = ligne.charAt(i);
+            if (!estChiffre(c)) {
+                return -1;
+            }
+            valeur = valeur * 10 + (c - '0');
+        }
+        return valeur;
+    }
+
+    private static int joursDansMois(int annee, int mois) {
+        if (mois == 2 && annee % 4 == 0 && (annee % 100 != 0 || annee % 400 == 0)) {
+            return 29;
+        }
+        return JOURS_PAR_MOIS[mois - 1];
+    }
+}
@@ -0,0 +1,70 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Technicien;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Valeurs des colonnes des tables Employe, Manager, Technicien et Commercial pour un lot d'employés,
+ * dans l'ordre des colonnes déclarées ici, pour les écritures JDBC
+ */
+final class LignesTables {
+
+    static final String COLONNES_EMPLOYE = "id, nom, prenom, matricule, dateEmbauche, salaire, nomRecherche, prenomRecherche";
+
+    static final String COLONNES_MANAGER = "id";
+
+    static final String COLONNES_TECHNICIEN = "id, grade, manager_id";
+
+    static final String COLONNES_COMMERCIAL = "id, caAnnuel, performance";
+
+    private LignesTables() {
+    }
+
+    static List<Object[]> employes(List<Employe> lot) {
+        List<Object[]> lignes = new ArrayList<>(lot.size());
+        for (Employe employe : lot) {
+            lignes.add(new Object[]{employe.getId(), employe.getNom(), employe.getPrenom(), employe.getMatricule(),
+                    Date.valueOf(employe.getDateEmbauche().toString()), employe.getSalaire(),
+                    Employe.normaliserRecherche(employe.getNom()), Employe.normaliserRecherche(employe.getPrenom())});
+        }
+        return lignes;
+    }
+
+    static List<Object[]> managers(List<Employe> lot) {
+        List<Object[]> lignes = new ArrayList<>();
+        for (Employe employe : lot) {
+            if (employe instanceof Manager) {
+                lignes.add(new Object[]{employe.getId()});
+            }
+        }
+        return lignes;
+    }
+
+    static List<Object[]> techniciens(List<Employe> lot) {
+        List<Object[]> lignes = new ArrayList<>();
+        for (Employe employe : lot) {
+            if (employe instanceof Technicien) {
+                Technicien technicien = (Technicien) employe;
+                lignes.add(new Object[]{technicien.getId(), technicien.getGrade(), technicien.getManager().getId()});
+            }
+        }
+        return lignes;
+    }
+
+    static List<Object[]> commerciaux(List<Employe> lot) {
+        List<Object[]> lignes = new ArrayList<>();
+        for (Employe employe : lot) {
+            if (employe instanceof Commercial) {
+                Commercial commercial = (Commercial) employe;
+                lignes.add(new Object[]{commercial.getId(), commercial.getCaAnnuel(), commercial.getPerformance()});
+            }
+        }
+        return lignes;
+    }
+}
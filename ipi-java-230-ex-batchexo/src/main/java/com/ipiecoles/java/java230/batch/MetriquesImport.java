@@ -0,0 +1,344 @@
+package com.ipiecoles.java.java230.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures de l'import en cours ou du dernier import : temps passé dans chaque phase, lignes lues, employés intégrés,
+ * rejets par erreur et débit. Elles sont remises à zéro au début de chaque fichier, exposées en JMX pendant l'import,
+ * et résumées dans les logs à sa fin. La progression est aussi écrite dans les logs au plus toutes les intervalleProgression secondes,
+ * avec une estimation de la fin d'après la part du fichier déjà lue.
+ * Les compteurs peuvent être alimentés par les threads d'analyse en parallèle.
+ */
+@Component
+@ManagedResource(objectName = "com.ipiecoles.java.java230:type=Import,name=MetriquesImport",
+        description = "Mesures de l'import du fichier d'employés")
+public class MetriquesImport {
+
+    /**
+     * Phases mesurées de l'import. Les phases d'analyse par type cumulent le temps de chaque ligne, sur tous les threads d'analyse ;
+     * les autres mesurent le temps écoulé dans le thread principal.
+     */
+    public enum Phase {
+        LECTURE("lecture du fichier"),
+        ANALYSE("analyse des lots"),
+        ANALYSE_MANAGER("analyse des managers"),
+        ANALYSE_TECHNICIEN("analyse des techniciens"),
+        ANALYSE_COMMERCIAL("analyse des commerciaux"),
+        ANALYSE_TYPE_INCONNU("analyse des lignes de type inconnu"),
+        RESOLUTION_MANAGERS("recherche des managers en BDD"),
+        EMPLOYES_EXISTANTS("recherche des employés existants"),
+        ECRITURE("écriture en BDD"),
+        POINT_REPRISE("écriture des points de reprise");
+
+        private final String libelle;
+
+        Phase(String libelle) {
+            this.libelle = libelle;
+        }
+
+        /**
+         * @param premierCaractere le premier caractère d'une ligne du fichier
+         * @return la phase d'analyse du type d'employé de la ligne
+         */
+        public static Phase analyse(char premierCaractere) {
+            switch (premierCaractere) {
+                case 'M':
+                    return ANALYSE_MANAGER;
+                case 'T':
+                    return ANALYSE_TECHNICIEN;
+                case 'C':
+                    return ANALYSE_COMMERCIAL;
+                default:
+                    return ANALYSE_TYPE_INCONNU;
+            }
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * Intervalle minimum en secondes entre deux messages de progression dans les logs
+     */
+    @Value("${batch.progression.intervalle:30}")
+    private long intervalleProgression = 30;
+
+    private final Map<Phase, LongAdder> nbMesures = new EnumMap<>(Phase.class);
+
+    private final Map<Phase, LongAdder> nanosParPhase = new EnumMap<>(Phase.class);
+
+    private final Map<ErreurLigne, LongAdder> rejetsParErreur = new EnumMap<>(ErreurLigne.class);
+
+    private final LongAdder lignesRejetees = new LongAdder();
+
+    private volatile String fichier;
+
+    /**
+     * Taille du fichier en octets, ou -1 si elle n'est pas connue
+     */
+    private volatile long tailleFichier = -1;
+
+    private volatile long debut;
+
+    private volatile long fin;
+
+    private volatile long position;
+
+    private volatile long lignesLues;
+
+    private volatile long employesIntegres;
+
+    /**
+     * Position et nombre de lignes du point de reprise de l'import, 0 s'il a commencé au début du fichier
+     */
+    private long dernierePosition;
+
+    private long lignesReprises;
+
+    private long derniereProgression;
+
+    public MetriquesImport() {
+        for (Phase phase : Phase.values()) {
+            nbMesures.put(phase, new LongAdder());
+            nanosParPhase.put(phase, new LongAdder());
+        }
+        for (ErreurLigne erreur : ErreurLigne.values()) {
+            rejetsParErreur.put(erreur, new LongAdder());
+        }
+    }
+
+    /**
+     * Remet les mesures à zéro pour l'import d'un fichier
+     * @param fichier le fichier importé
+     * @param tailleFichier sa taille en octets, ou -1 si elle n'est pas connue (pas d'estimation de la fin)
+     */
+    public void debut(String fichier, long tailleFichier) {
+        for (Phase phase : Phase.values()) {
+            nbMesures.get(phase).reset();
+            nanosParPhase.get(phase).reset();
+        }
+        for (LongAdder rejets : rejetsParErreur.values()) {
+            rejets.reset();
+        }
+        lignesRejetees.reset();
+        this.fichier = fichier;
+        this.tailleFichier = tailleFichier;
+        this.position = 0;
+        this.dernierePosition = 0;
+        this.lignesReprises = 0;
+        this.lignesLues = 0;
+        this.employesIntegres = 0;
+        this.fin = 0;
+        this.debut = System.nanoTime();
+        this.derniereProgression = debut;
+    }
+
+    /**
+     * Reprend le décompte après le point de reprise d'un import interrompu : le débit et l'estimation de la fin
+     * ne portent que sur la partie du fichier lue par cet import
+     */
+    public void reprendre(long position, long lignesLues, long employesIntegres) {
+        this.position = position;
+        this.dernierePosition = position;
+        this.lignesReprises = lignesLues;
+        this.lignesLues = lignesLues;
+        this.employesIntegres = employesIntegres;
+    }
+
+    /**
+     * Ajoute la durée d'une phase, de debutPhase (System.nanoTime()) à maintenant
+     * @return maintenant, pour enchaîner la mesure de la phase suivante
+     */
+    public long mesurer(Phase phase, long debutPhase) {
+        long maintenant = System.nanoTime();
+        ajouter(phase, 1, maintenant - debutPhase);
+        return maintenant;
+    }
+
+    /**
+     * Ajoute plusieurs mesures d'une phase, cumulées par l'appelant
+     */
+    public void ajouter(Phase phase, long nb, long nanos) {
+        if (nb > 0) {
+            nbMesures.get(phase).add(nb);
+            nanosParPhase.get(phase).add(nanos);
+        }
+    }
+
+    public void rejet(ErreurLigne erreur) {
+        lignesRejetees.increment();
+        rejetsParErreur.get(erreur).increment();
+    }
+
+    /**
+     * Avance l'import après un lot, et écrit la progression dans les logs si le dernier message est assez ancien
+     * @param position la position en octets de la fin du lot dans le fichier
+     * @param lignesLues le nombre de lignes lues depuis le début du fichier
+     * @param employesIntegres le nombre d'employés intégrés depuis le début du fichier
+     */
+    public void avancer(long position, long lignesLues, long employesIntegres) {
+        this.position = position;
+        this.lignesLues = lignesLues;
+        this.employesIntegres = employesIntegres;
+        long maintenant = System.nanoTime();
+        if (maintenant - derniereProgression >= TimeUnit.SECONDS.toNanos(intervalleProgression)) {
+            derniereProgression = maintenant;
+            logger.info(progression(maintenant));
+        }
+    }
+
+    /**
+     * Termine l'import et écrit son résumé dans les logs
+     */
+    public void terminer() {
+        fin = System.nanoTime();
+        logger.info(resume());
+    }
+
+    /**
+     * @return la progression de l'import à l'instant maintenant (System.nanoTime())
+     */
+    String progression(long maintenant) {
+        StringBuilder message = new StringBuilder("Progression : ");
+        if (tailleFichier > 0) {
+            message.append(String.format(Locale.ROOT, "%.1f %%, ", 100.0 * position / tailleFichier));
+        }
+        message.append(lignesLues).append(" lignes lues, ").append(employesIntegres).append(" employés intégrés, ")
+                .append(lignesRejetees.sum()).append(" lignes rejetées, ").append(Math.round(lignesParSeconde(maintenant))).append(" lignes/s");
+        long eta = etaSecondes(maintenant);
+        if (eta >= 0) {
+            message.append(", fin estimée dans ").append(duree(TimeUnit.SECONDS.toNanos(eta)));
+        }
+        return message.toString();
+    }
+
+    /**
+     * @return le nombre de secondes restantes estimé d'après le débit en octets depuis le début de l'import, ou -1 si inconnu
+     */
+    long etaSecondes(long maintenant) {
+        long lus = position - dernierePosition;
+        long ecoule = maintenant - debut;
+        if (tailleFichier <= 0 || lus <= 0 || ecoule <= 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toSeconds((long) ((double) ecoule * (tailleFichier - position) / lus));
+    }
+
+    private double lignesParSeconde(long maintenant) {
+        long ecoule = maintenant - debut;
+        return ecoule > 0 ? (lignesLues - lignesReprises) * 1e9 / ecoule : 0;
+    }
+
+    private long maintenantOuFin() {
+        return fin != 0 ? fin : System.nanoTime();
+    }
+
+    /**
+     * @return le résumé de l'import : volumes, débit, temps par phase et rejets par erreur
+     */
+    @ManagedOperation(description = "Résumé de l'import en cours ou du dernier import")
+    public String resume() {
+        long maintenant = maintenantOuFin();
+        long ecoule = maintenant - debut;
+        StringBuilder resume = new StringBuilder("Import de ").append(fichier).append(" : ")
+                .append(lignesLues).append(" lignes lues en ").append(duree(ecoule)).append(" (")
+                .append(Math.round(lignesParSeconde(maintenant))).append(" lignes/s), ")
+                .append(employesIntegres).append(" employés intégrés, ").append(lignesRejetees.sum()).append(" lignes rejetées");
+        for (Phase phase : Phase.values()) {
+            long nb = nbMesures.get(phase).sum();
+            if (nb > 0) {
+                long nanos = nanosParPhase.get(phase).sum();
+                resume.append("\n  ").append(phase.libelle).append(" : ").append(duree(nanos))
+                        .append(String.format(Locale.ROOT, " (%.1f %%), %d mesures, %d µs en moyenne",
+                                ecoule > 0 ? 100.0 * nanos / ecoule : 0, nb, TimeUnit.NANOSECONDS.toMicros(nanos / nb)));
+            }
+        }
+        for (Map.Entry<ErreurLigne, LongAdder> rejets : rejetsParErreur.entrySet()) {
+            long nb = rejets.getValue().sum();
+            if (nb > 0) {
+                resume.append("\n  rejets ").append(rejets.getKey()).append(" : ").append(nb);
+            }
+        }
+        return resume.toString();
+    }
+
+    private static String duree(long nanos) {
+        long secondes = TimeUnit.NANOSECONDS.toSeconds(nanos);
+        if (secondes >= 60) {
+            return secondes / 60 + " min " + secondes % 60 + " s";
+        }
+        return String.format(Locale.ROOT, "%.3f s", nanos / 1e9);
+    }
+
+    @ManagedAttribute(description = "Fichier en cours d'import ou dernier fichier importé")
+    public String getFichier() {
+        return fichier;
+    }
+
+    @ManagedAttribute(description = "Lignes lues depuis le début du fichier")
+    public long getLignesLues() {
+        return lignesLues;
+    }
+
+    @ManagedAttribute(description = "Employés intégrés en BDD depuis le début du fichier")
+    public long getEmployesIntegres() {
+        return employesIntegres;
+    }
+
+    @ManagedAttribute(description = "Lignes rejetées par cet import")
+    public long getLignesRejetees() {
+        return lignesRejetees.sum();
+    }
+
+    @ManagedAttribute(description = "Lignes lues par seconde depuis le début ou la reprise de l'import")
+    public double getLignesParSeconde() {
+        return lignesParSeconde(maintenantOuFin());
+    }
+
+    @ManagedAttribute(description = "Part du fichier déjà lue, en %, ou -1 si la taille du fichier n'est pas connue")
+    public double getProgression() {
+        return tailleFichier > 0 ? 100.0 * position / tailleFichier : -1;
+    }
+
+    @ManagedAttribute(description = "Nombre de secondes avant la fin estimée de l'import, ou -1 si inconnu")
+    public long getEtaSecondes() {
+        return fin != 0 ? 0 : etaSecondes(System.nanoTime());
+    }
+
+    /**
+     * @param phase le nom d'une phase de Phase
+     * @return le temps passé dans la phase, en millisecondes
+     */
+    @ManagedOperation(description = "Temps passé dans une phase (LECTURE, ANALYSE, ANALYSE_MANAGER, ..., ECRITURE), en ms")
+    public long tempsPhaseMs(String phase) {
+        return TimeUnit.NANOSECONDS.toMillis(nanosParPhase.get(Phase.valueOf(phase)).sum());
+    }
+
+    /**
+     * @param erreur le nom d'une erreur de ErreurLigne
+     * @return le nombre de lignes rejetées pour cette erreur
+     */
+    @ManagedOperation(description = "Nombre de lignes rejetées pour une erreur (DATE, MATRICULE, MANAGER_INCONNU...)")
+    public long nbRejets(String erreur) {
+        return rejetsParErreur.get(ErreurLigne.valueOf(erreur)).sum();
+    }
+
+    public long getNanos(Phase phase) {
+        return nanosParPhase.get(phase).sum();
+    }
+
+    public long getNbMesures(Phase phase) {
+        return nbMesures.get(phase).sum();
+    }
+}
@@ -0,0 +1,261 @@
+package com.ipiecoles.java.java230.batch;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Point de reprise d'un import, enregistré dans le fichier &lt;fichier importé&gt;.checkpoint après chaque lot écrit en BDD.
+ * Il identifie le fichier importé (chemin, taille, date de modification) et donne la position du début de la première ligne
+ * non encore traitée, ainsi que les managers du fichier déjà écrits en BDD, dont les techniciens suivants peuvent avoir besoin.
+ * Les managers sont ajoutés au fur et à mesure à la fin du fichier &lt;fichier importé&gt;.checkpoint.managers (une ligne
+ * matricule,id par manager) : chaque point de reprise n'écrit que les managers de son lot, et enregistre la taille
+ * de ce fichier à laquelle il correspond ; ce qui a pu être ajouté au-delà par un point de reprise interrompu est ignoré.
+ */
+public class PointReprise {
+
+    public static final String SUFFIXE = ".checkpoint";
+
+    public static final String SUFFIXE_MANAGERS = ".managers";
+
+    private static final String CHEMIN = "fichier.chemin";
+    private static final String TAILLE = "fichier.taille";
+    private static final String DATE_MODIFICATION = "fichier.dateModification";
+    private static final String POSITION = "position";
+    private static final String NUMERO_LIGNE = "numeroLigne";
+    private static final String NB_EMPLOYES = "nbEmployes";
+    private static final String NB_REJETS = "nbRejets";
+    private static final String TAILLE_MANAGERS = "managers.taille";
+
+    private final Path fichierReprise;
+
+    private final Path fichierManagers;
+
+    private final String chemin;
+
+    private final long taille;
+
+    private final long dateModification;
+
+    private long position = 0;
+
+    private long numeroLigne = 0;
+
+    private long nbEmployes = 0;
+
+    private long nbRejets = 0;
+
+    /**
+     * Taille du fichier des managers au dernier point de reprise enregistré, -1 tant qu'il n'a pas été (re)créé pour cet import
+     */
+    private long tailleManagers = -1;
+
+    /**
+     * Managers écrits en BDD depuis le dernier point de reprise enregistré, par matricule
+     */
+    private final Map<String, Long> nouveauxManagers = new LinkedHashMap<>();
+
+    /**
+     * Managers du fichier écrits en BDD jusqu'au point de reprise lu, par matricule
+     */
+    private final Map<String, Long> managers = new HashMap<>();
+
+    private PointReprise(Path fichierReprise, String chemin, long taille, long dateModification) {
+        this.fichierReprise = fichierReprise;
+        this.fichierManagers = Paths.get(fichierReprise.toString() + SUFFIXE_MANAGERS);
+        this.chemin = chemin;
+        this.taille = taille;
+        this.dateModification = dateModification;
+    }
+
+    /**
+     * @param fichier le fichier importé
+     * @return un point de reprise au début du fichier, dans son état actuel
+     * @throws IOException si le fichier n'a pas pu être lu
+     */
+    public static PointReprise debut(Path fichier) throws IOException {
+        Path absolu = fichier.toAbsolutePath().normalize();
+        return new PointReprise(fichierReprise(fichier), absolu.toString(), Files.size(absolu), Files.getLastModifiedTime(absolu).toMillis());
+    }
+
+    /**
+     * @param fichier le fichier importé
+     * @return le dernier point de reprise enregistré pour ce fichier, ou null s'il n'y en a pas
+     * @throws IOException si le point de reprise existe mais n'a pas pu être lu
+     */
+    public static PointReprise lire(Path fichier) throws IOException {
+        Path fichierReprise = fichierReprise(fichier);
+        if (!Files.isRegularFile(fichierReprise)) {
+            return null;
+        }
+        Properties proprietes = new Properties();
+        try (Reader reader = Files.newBufferedReader(fichierReprise, StandardCharsets.UTF_8)) {
+            proprietes.load(reader);
+        }
+        try {
+            PointReprise pointReprise = new PointReprise(fichierReprise, proprietes.getProperty(CHEMIN),
+                    Long.parseLong(proprietes.getProperty(TAILLE)), Long.parseLong(proprietes.getProperty(DATE_MODIFICATION)));
+            pointReprise.position = Long.parseLong(proprietes.getProperty(POSITION));
+            pointReprise.numeroLigne = Long.parseLong(proprietes.getProperty(NUMERO_LIGNE));
+            pointReprise.nbEmployes = Long.parseLong(proprietes.getProperty(NB_EMPLOYES));
+            pointReprise.nbRejets = Long.parseLong(proprietes.getProperty(NB_REJETS));
+            pointReprise.tailleManagers = Long.parseLong(proprietes.getProperty(TAILLE_MANAGERS));
+            pointReprise.lireManagers();
+            return pointReprise;
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IOException("Le point de reprise " + fichierReprise + " est incomplet ou corrompu", e);
+        }
+    }
+
+    /**
+     * Lit les managers du fichier des managers jusqu'à la taille enregistrée par le point de reprise
+     */
+    private void lireManagers() throws IOException {
+        if (tailleManagers == 0) {
+            return;
+        }
+        ByteBuffer contenu = ByteBuffer.allocate(Math.toIntExact(tailleManagers));
+        try (FileChannel canal = FileChannel.open(fichierManagers, StandardOpenOption.READ)) {
+            while (contenu.hasRemaining() && canal.read(contenu) >= 0) {
+                //lecture jusqu'à la taille enregistrée
+            }
+        }
+        if (contenu.hasRemaining()) {
+            throw new IOException("Le fichier " + fichierManagers + " est plus court que son point de reprise");
+        }
+        String texte = new String(contenu.array(), StandardCharsets.UTF_8);
+        int debut = 0;
+        for (int fin = texte.indexOf('\n'); fin >= 0; debut = fin + 1, fin = texte.indexOf('\n', debut)) {
+            int separateur = texte.indexOf(LigneCsv.SEPARATEUR, debut);
+            managers.put(texte.substring(debut, separateur), Long.parseLong(texte.substring(separateur + 1, fin)));
+        }
+    }
+
+    private static Path fichierReprise(Path fichier) {
+        return Paths.get(fichier.toString() + SUFFIXE);
+    }
+
+    /**
+     * @param autre un autre point de reprise
+     * @return true si les deux points de reprise portent sur le même fichier, non modifié entre les deux
+     */
+    public boolean memeFichier(PointReprise autre) {
+        return chemin.equals(autre.chemin) && taille == autre.taille && dateModification == autre.dateModification;
+    }
+
+    /**
+     * Déplace le point de reprise après le dernier lot écrit en BDD
+     * @param position la position en octets de la première ligne non traitée
+     * @param numeroLigne le numéro de la dernière ligne traitée
+     * @param nbEmployes le nombre d'employés écrits en BDD depuis le début du fichier
+     * @param nbRejets le nombre de lignes écrites dans les fichiers de rejets depuis le début du fichier
+     * @param nouveauxManagers les identifiants en BDD des managers du fichier écrits depuis le point de reprise précédent,
+     * par matricule
+     */
+    public void avancer(long position, long numeroLigne, long nbEmployes, long nbRejets, Map<String, Long> nouveauxManagers) {
+        this.position = position;
+        this.numeroLigne = numeroLigne;
+        this.nbEmployes = nbEmployes;
+        this.nbRejets = nbRejets;
+        this.nouveauxManagers.putAll(nouveauxManagers);
+    }
+
+    /**
+     * Enregistre le point de reprise. Les nouveaux managers sont ajoutés au fichier des managers,
+     * puis le point de reprise est écrit dans un fichier temporaire et renommé,
+     * pour qu'un arrêt pendant l'écriture laisse intact le point de reprise précédent.
+     * @throws IOException si le point de reprise n'a pas pu être écrit
+     */
+    public void ecrire() throws IOException {
+        long nouvelleTaille = ecrireManagers();
+        Properties proprietes = new Properties();
+        proprietes.setProperty(CHEMIN, chemin);
+        proprietes.setProperty(TAILLE, Long.toString(taille));
+        proprietes.setProperty(DATE_MODIFICATION, Long.toString(dateModification));
+        proprietes.setProperty(POSITION, Long.toString(position));
+        proprietes.setProperty(NUMERO_LIGNE, Long.toString(numeroLigne));
+        proprietes.setProperty(NB_EMPLOYES, Long.toString(nbEmployes));
+        proprietes.setProperty(NB_REJETS, Long.toString(nbRejets));
+        proprietes.setProperty(TAILLE_MANAGERS, Long.toString(nouvelleTaille));
+        Path temporaire = Paths.get(fichierReprise.toString() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporaire, StandardCharsets.UTF_8)) {
+            proprietes.store(writer, "Point de reprise de l'import de " + chemin);
+        }
+        Files.move(temporaire, fichierReprise, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        tailleManagers = nouvelleTaille;
+        nouveauxManagers.clear();
+    }
+
+    /**
+     * Ajoute les nouveaux managers au fichier des managers, après la taille du dernier point de reprise enregistré
+     * (ce qui suit est supprimé). Au premier point de reprise d'un import depuis le début, le fichier est recréé.
+     * @return la taille du fichier des managers
+     */
+    private long ecrireManagers() throws IOException {
+        if (tailleManagers >= 0 && nouveauxManagers.isEmpty()) {
+            return tailleManagers;
+        }
+        StringBuilder lignes = new StringBuilder(nouveauxManagers.size() * 16);
+        for (Map.Entry<String, Long> manager : nouveauxManagers.entrySet()) {
+            lignes.append(manager.getKey()).append(LigneCsv.SEPARATEUR).append(manager.getValue()).append('\n');
+        }
+        ByteBuffer contenu = ByteBuffer.wrap(lignes.toString().getBytes(StandardCharsets.UTF_8));
+        long debut = Math.max(tailleManagers, 0);
+        try (FileChannel canal = FileChannel.open(fichierManagers, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            canal.truncate(debut);
+            canal.position(debut);
+            while (contenu.hasRemaining()) {
+                canal.write(contenu);
+            }
+        }
+        return debut + contenu.limit();
+    }
+
+    /**
+     * Supprime le point de reprise, une fois le fichier entièrement importé
+     * @throws IOException si le point de reprise n'a pas pu être supprimé
+     */
+    public void supprimer() throws IOException {
+        Files.deleteIfExists(fichierReprise);
+        Files.deleteIfExists(fichierManagers);
+    }
+
+    public Path getFichierReprise() {
+        return fichierReprise;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getNumeroLigne() {
+        return numeroLigne;
+    }
+
+    public long getNbEmployes() {
+        return nbEmployes;
+    }
+
+    public long getNbRejets() {
+        return nbRejets;
+    }
+
+    /**
+     * @return les managers du fichier écrits en BDD jusqu'au point de reprise lu, par matricule
+     */
+    public Map<String, Long> getManagers() {
+        return managers;
+    }
+}
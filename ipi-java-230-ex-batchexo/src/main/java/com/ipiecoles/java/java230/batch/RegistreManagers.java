@@ -0,0 +1,137 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Technicien;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registre des managers lus dans le fichier en cours d'import, indexés par matricule,
+ * pour que chaque technicien retrouve son manager en temps constant.
+ * Il garde aussi le résultat des recherches de managers en BDD, y compris les matricules introuvables.
+ */
+public class RegistreManagers {
+
+    private final Map<String, Manager> managers = new HashMap<>();
+
+    private final Map<String, Manager> managersBase = new HashMap<>();
+
+    private final Set<String> absentsBase = new HashSet<>();
+
+    /**
+     * Managers du fichier écrits en BDD avant la reprise d'un import interrompu, rechargés depuis la BDD
+     */
+    private final Map<String, Manager> managersRepris = new HashMap<>();
+
+    /**
+     * Managers du fichier enregistrés depuis le dernier appel à extraireNouveauxManagers
+     */
+    private List<Manager> nouveaux = new ArrayList<>();
+
+    /**
+     * Managers du fichier dont l'équipe a reçu des techniciens depuis le dernier appel à viderEquipes
+     */
+    private final Map<String, Manager> equipesModifiees = new HashMap<>();
+
+    public void enregistrer(Manager manager) {
+        managers.put(manager.getMatricule(), manager);
+        nouveaux.add(manager);
+    }
+
+    /**
+     * @param matricule le matricule du manager
+     * @return le manager lu dans le fichier, ou null s'il n'y figure pas (ou pas encore)
+     */
+    public Manager trouver(String matricule) {
+        return managers.get(matricule);
+    }
+
+    /**
+     * Enregistre les managers du fichier déjà écrits en BDD lors d'un import interrompu.
+     * Ils sont traités comme des managers de la BDD : leurs équipes ne sont pas chargées.
+     * @param repris les managers rechargés depuis la BDD
+     */
+    public void reprendre(Iterable<Manager> repris) {
+        for (Manager manager : repris) {
+            managersRepris.put(manager.getMatricule(), manager);
+        }
+    }
+
+    /**
+     * @return les identifiants en BDD des managers du fichier enregistrés depuis l'appel précédent, par matricule,
+     * une fois leur lot écrit en BDD
+     */
+    public Map<String, Long> extraireNouveauxManagers() {
+        Map<String, Long> ids = new LinkedHashMap<>();
+        for (Manager manager : nouveaux) {
+            ids.put(manager.getMatricule(), manager.getId());
+        }
+        nouveaux = new ArrayList<>();
+        return ids;
+    }
+
+    /**
+     * Enregistre le résultat d'une recherche de managers en BDD
+     * @param matricules les matricules recherchés
+     * @param trouves les managers trouvés en BDD pour ces matricules
+     */
+    public void enregistrerBase(Collection<String> matricules, Collection<Manager> trouves) {
+        for (Manager manager : trouves) {
+            managersBase.put(manager.getMatricule(), manager);
+        }
+        for (String matricule : matricules) {
+            if (!managersBase.containsKey(matricule)) {
+                absentsBase.add(matricule);
+            }
+        }
+    }
+
+    /**
+     * @param matricule le matricule du manager
+     * @return le manager repris d'un import interrompu ou trouvé en BDD lors d'une recherche précédente, ou null
+     */
+    public Manager trouverEnBase(String matricule) {
+        Manager repris = managersRepris.get(matricule);
+        return repris != null ? repris : managersBase.get(matricule);
+    }
+
+    /**
+     * @param matricule le matricule du manager
+     * @return true si le manager est dans le fichier ou a déjà été recherché en BDD, qu'il y ait été trouvé ou non
+     */
+    public boolean estConnu(String matricule) {
+        return managers.containsKey(matricule) || managersRepris.containsKey(matricule) || managersBase.containsKey(matricule) || absentsBase.contains(matricule);
+    }
+
+    /**
+     * Ajoute le technicien à l'équipe d'un manager du fichier, jusqu'au prochain appel à viderEquipes
+     * @param manager le manager du fichier, trouvé par trouver
+     */
+    public void ajouterAEquipe(Manager manager, Technicien technicien) {
+        manager.ajoutTechnicienEquipe(technicien);
+        equipesModifiees.put(manager.getMatricule(), manager);
+    }
+
+    /**
+     * Vide les équipes des managers qui ont reçu des techniciens depuis l'appel précédent, une fois ces techniciens
+     * écrits en BDD : les autres équipes sont déjà vides, seuls les managers du lot sont parcourus.
+     * Le lien est porté en BDD par Technicien.manager ; le garder en mémoire retiendrait tous les techniciens du fichier.
+     */
+    public void viderEquipes() {
+        for (Manager manager : equipesModifiees.values()) {
+            manager.getEquipe().clear();
+        }
+        equipesModifiees.clear();
+    }
+
+    public int size() {
+        return managers.size();
+    }
+}
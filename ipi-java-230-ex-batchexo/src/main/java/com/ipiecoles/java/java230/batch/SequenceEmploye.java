@@ -0,0 +1,34 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Employe;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Accès à la table de séquence des identifiants des employés, partagée avec le générateur d'Hibernate
+ */
+@Component
+public class SequenceEmploye {
+
+    private static final String SELECT = "SELECT next_val FROM " + Employe.SEQUENCE_ID + " FOR UPDATE";
+
+    private static final String UPDATE = "UPDATE " + Employe.SEQUENCE_ID + " SET next_val = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Avance la séquence dans sa propre transaction, pour ne pas garder la table verrouillée pendant l'écriture d'un lot
+     * @param nbIncrements le nombre d'incréments de Employe.INCREMENT_ID à réserver
+     * @return la valeur de la séquence avant son avancée
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long avancer(int nbIncrements) {
+        long valeur = jdbcTemplate.queryForObject(SELECT, Long.class);
+        jdbcTemplate.update(UPDATE, valeur + (long) nbIncrements * Employe.INCREMENT_ID);
+        return valeur;
+    }
+}
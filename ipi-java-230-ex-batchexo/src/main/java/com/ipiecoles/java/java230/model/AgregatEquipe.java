@@ -0,0 +1,52 @@
+package com.ipiecoles.java.java230.model;
+
+/**
+ * Nombre de techniciens et total de leurs salaires pour un grade de l'équipe d'un manager,
+ * calculés par la BDD (ManagerRepository.findAgregatsEquipes) sans charger les équipes
+ */
+public class AgregatEquipe {
+
+	private final Long managerId;
+
+	/**
+	 * Grade des techniciens, null pour un manager sans technicien
+	 */
+	private final Integer grade;
+
+	private final long nbTechniciens;
+
+	private final double salaireTotal;
+
+	public AgregatEquipe(Long managerId, Integer grade, Long nbTechniciens, Double salaireTotal) {
+		this.managerId = managerId;
+		this.grade = grade;
+		this.nbTechniciens = nbTechniciens == null ? 0 : nbTechniciens;
+		this.salaireTotal = salaireTotal == null ? 0 : salaireTotal;
+	}
+
+	public Long getManagerId() {
+		return managerId;
+	}
+
+	public Integer getGrade() {
+		return grade;
+	}
+
+	public long getNbTechniciens() {
+		return nbTechniciens;
+	}
+
+	public double getSalaireTotal() {
+		return salaireTotal;
+	}
+
+	@Override
+	public String toString() {
+		return "AgregatEquipe{" +
+				"managerId=" + managerId +
+				", grade=" + grade +
+				", nbTechniciens=" + nbTechniciens +
+				", salaireTotal=" + salaireTotal +
+				'}';
+	}
+}
@@ -28,7 +28,14 @@ public class Commercial extends Employe {
 	}
 
 	public Double getPrimeAnnuelle() {
-		return Math.max(Math.ceil(this.getCaAnnuel() * 0.05), 500);
+		return primeAnnuelle(this.getCaAnnuel());
+	}
+
+	/**
+	 * Calcul de getPrimeAnnuelle à partir du chiffre d'affaires annuel
+	 */
+	public static double primeAnnuelle(double caAnnuel) {
+		return Math.max(Math.ceil(caAnnuel * 0.05), 500);
 	}
 
 	public Double getCaAnnuel() {
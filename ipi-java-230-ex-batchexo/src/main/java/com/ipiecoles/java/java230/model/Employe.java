@@ -1,17 +1,42 @@
 package com.ipiecoles.java.java230.model;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 import org.joda.time.LocalDate;
 
 import javax.persistence.*;
+import java.util.Locale;
 import java.util.Objects;
 
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_employe_matricule", columnNames = "matricule"),
+		indexes = {
+				@Index(name = "idx_employe_salaire", columnList = "salaire"),
+				@Index(name = "idx_employe_date_embauche", columnList = "dateEmbauche"),
+				@Index(name = "idx_employe_nom_recherche", columnList = "nomRecherche"),
+				@Index(name = "idx_employe_prenom_recherche", columnList = "prenomRecherche")
+		})
 public abstract class Employe {
 
+	/**
+	 * Table de la séquence des identifiants, qui sont réservés par blocs de INCREMENT_ID
+	 */
+	public static final String SEQUENCE_ID = "employe_seq";
+
+	public static final int INCREMENT_ID = 1000;
+
+	public static final int VALEUR_INITIALE_ID = 1;
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.AUTO, generator = SEQUENCE_ID)
+	@GenericGenerator(name = SEQUENCE_ID, strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = SEQUENCE_ID),
+			@Parameter(name = "optimizer", value = "pooled"),
+			@Parameter(name = "increment_size", value = "" + INCREMENT_ID),
+			@Parameter(name = "initial_value", value = "" + VALEUR_INITIALE_ID)
+	})
 	private Long id;
 
 	private String nom;
@@ -24,6 +49,15 @@ public abstract class Employe {
 	private LocalDate dateEmbauche;
 	
 	private Double salaire = Entreprise.SALAIRE_BASE;
+
+	/**
+	 * Nom et prénom normalisés par normaliserRecherche, indexés pour les recherches sans distinction de casse.
+	 * Colonnes créées par db/005-recherche-nom.sql, obligatoire pour toute l'application (db/README.md) : son exécution
+	 * est vérifiée au démarrage par VerificationSchema
+	 */
+	private String nomRecherche;
+
+	private String prenomRecherche;
 	
 	public Employe() {
 		
@@ -37,8 +71,29 @@ public abstract class Employe {
 		this.salaire = salaire;
 	}
 
+	/**
+	 * @return la valeur en minuscules, telle qu'elle est stockée dans les colonnes de recherche
+	 */
+	public static String normaliserRecherche(String valeur) {
+		return valeur == null ? null : valeur.toLowerCase(Locale.ROOT);
+	}
+
+	@PrePersist
+	@PreUpdate
+	private void majRecherche() {
+		this.nomRecherche = normaliserRecherche(nom);
+		this.prenomRecherche = normaliserRecherche(prenom);
+	}
+
 	public final Integer getNombreAnneeAnciennete() {
-		return LocalDate.now().getYear() - dateEmbauche.getYear();
+		return nombreAnneeAnciennete(dateEmbauche, LocalDate.now());
+	}
+
+	/**
+	 * @return l'ancienneté en années à la date de référence d'un employé embauché à dateEmbauche
+	 */
+	public static int nombreAnneeAnciennete(LocalDate dateEmbauche, LocalDate dateReference) {
+		return dateReference.getYear() - dateEmbauche.getYear();
 	}
 	
 	public Integer getNbConges() {
@@ -48,7 +103,14 @@ public abstract class Employe {
 	public abstract Double getPrimeAnnuelle();
 
 	public void augmenterSalaire(Double pourcentage) {
-		this.salaire = this.getSalaire() * (1 + pourcentage);
+		this.salaire = this.getSalaire() * facteurAugmentation(pourcentage);
+	}
+
+	/**
+	 * @return le facteur appliqué au salaire par augmenterSalaire(pourcentage), aussi utilisé par les augmentations en BDD
+	 */
+	public static double facteurAugmentation(double pourcentage) {
+		return 1 + pourcentage;
 	}
 
 	public Long getId() {
@@ -133,6 +195,14 @@ public abstract class Employe {
 		this.salaire = salaire;
 	}
 
+	public String getNomRecherche() {
+		return nomRecherche;
+	}
+
+	public String getPrenomRecherche() {
+		return prenomRecherche;
+	}
+
 	@Override
 	public String toString() {
 		final StringBuilder sb = new StringBuilder("Employe{");
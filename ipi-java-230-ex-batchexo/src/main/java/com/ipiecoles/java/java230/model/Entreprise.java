@@ -11,7 +11,14 @@ public final class Entreprise {
 	public static final Double PRIME_ANCIENNETE = 100d;
 	
 	public static Double primeAnnuelleBase() {
-		return LocalDate.now().getYear() * 0.5;
+		return primeAnnuelleBase(LocalDate.now().getYear());
+	}
+
+	/**
+	 * @return la prime annuelle de base de l'année, pour un calcul à une date de référence fixée
+	 */
+	public static double primeAnnuelleBase(int annee) {
+		return annee * 0.5;
 	}
 
 }
@@ -0,0 +1,90 @@
+package com.ipiecoles.java.java230.model;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Taille et salaires par grade de l'équipe d'un manager, à partir des agrégats de la BDD :
+ * remplace Manager.getEquipe() pour les calculs qui n'ont pas besoin des techniciens eux-mêmes
+ */
+public class EquipeManager {
+
+	private final Long managerId;
+
+	private int nbTechniciens;
+
+	private double salaireTotal;
+
+	/**
+	 * Nombre de techniciens et total des salaires par grade, indexés par le grade
+	 */
+	private final int[] nbTechniciensGrade = new int[Technicien.GRADE_MAX + 1];
+
+	private final double[] salaireGrade = new double[Technicien.GRADE_MAX + 1];
+
+	public EquipeManager(Long managerId) {
+		this.managerId = managerId;
+	}
+
+	/**
+	 * @param agregats les agrégats par manager et par grade
+	 * @return l'équipe de chaque manager des agrégats, par id de manager, dans l'ordre des agrégats
+	 */
+	public static Map<Long, EquipeManager> regrouper(Collection<AgregatEquipe> agregats) {
+		Map<Long, EquipeManager> equipes = new LinkedHashMap<>();
+		for (AgregatEquipe agregat : agregats) {
+			equipes.computeIfAbsent(agregat.getManagerId(), EquipeManager::new).ajouter(agregat);
+		}
+		return equipes;
+	}
+
+	void ajouter(AgregatEquipe agregat) {
+		nbTechniciens += agregat.getNbTechniciens();
+		salaireTotal += agregat.getSalaireTotal();
+		Integer grade = agregat.getGrade();
+		if (grade != null && grade >= 0 && grade < salaireGrade.length) {
+			nbTechniciensGrade[grade] += agregat.getNbTechniciens();
+			salaireGrade[grade] += agregat.getSalaireTotal();
+		}
+	}
+
+	public Long getManagerId() {
+		return managerId;
+	}
+
+	public int getNbTechniciens() {
+		return nbTechniciens;
+	}
+
+	public double getSalaireTotal() {
+		return salaireTotal;
+	}
+
+	public int getNbTechniciens(int grade) {
+		return grade >= 0 && grade < nbTechniciensGrade.length ? nbTechniciensGrade[grade] : 0;
+	}
+
+	/**
+	 * @return le total des salaires des techniciens du grade, comme Manager.salaireEquipeGrade1() pour le grade 1
+	 */
+	public double getSalaireGrade(int grade) {
+		return grade >= 0 && grade < salaireGrade.length ? salaireGrade[grade] : 0;
+	}
+
+	/**
+	 * @return la prime annuelle du manager, comme Manager.getPrimeAnnuelle()
+	 */
+	public Double getPrimeAnnuelle() {
+		return Manager.primeAnnuelle(nbTechniciens);
+	}
+
+	@Override
+	public String toString() {
+		return "EquipeManager{" +
+				"managerId=" + managerId +
+				", nbTechniciens=" + nbTechniciens +
+				", salaireTotal=" + salaireTotal +
+				'}';
+	}
+}
@@ -0,0 +1,387 @@
+package com.ipiecoles.java.java230.model;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+
+import java.util.Arrays;
+
+/**
+ * Photographie en lecture seule des employés pour les calculs statistiques, rangée par colonnes de types primitifs
+ * (une quarantaine d'octets par employé, sans objet par employé) : l'employé d'indice i a son salaire dans salaires[i],
+ * sa date d'embauche dans joursEmbauche[i], etc. Les managers sont rangés en premier, par id croissant,
+ * puis les techniciens, puis les commerciaux.
+ * Les agrégats parcourent les tableaux par de simples boucles indexées.
+ */
+public final class InstantaneEmployes {
+
+	public static final byte TYPE_MANAGER = 0;
+
+	public static final byte TYPE_TECHNICIEN = 1;
+
+	public static final byte TYPE_COMMERCIAL = 2;
+
+	/**
+	 * Valeur des colonnes entières sans valeur : date d'embauche, performance, indice du manager
+	 */
+	public static final int ABSENT = Integer.MIN_VALUE;
+
+	/*
+	 * Les colonnes décimales sans valeur contiennent NaN, la colonne des grades 0.
+	 */
+
+	private static final LocalDate EPOCH = new LocalDate(1970, 1, 1);
+
+	private final int taille;
+
+	/**
+	 * Nombre de managers, rangés aux indices 0 à nbManagers - 1
+	 */
+	private final int nbManagers;
+
+	private final long[] ids;
+
+	private final byte[] types;
+
+	private final double[] salaires;
+
+	/**
+	 * Dates d'embauche en nombre de jours depuis le 01/01/1970
+	 */
+	private final int[] joursEmbauche;
+
+	private final byte[] grades;
+
+	private final double[] caAnnuels;
+
+	private final int[] performances;
+
+	/**
+	 * Indice du manager de chaque technicien
+	 */
+	private final int[] indicesManagers;
+
+	private InstantaneEmployes(Constructeur constructeur) {
+		taille = constructeur.taille;
+		nbManagers = constructeur.nbManagers;
+		ids = Arrays.copyOf(constructeur.ids, taille);
+		types = Arrays.copyOf(constructeur.types, taille);
+		salaires = Arrays.copyOf(constructeur.salaires, taille);
+		joursEmbauche = Arrays.copyOf(constructeur.joursEmbauche, taille);
+		grades = Arrays.copyOf(constructeur.grades, taille);
+		caAnnuels = Arrays.copyOf(constructeur.caAnnuels, taille);
+		performances = Arrays.copyOf(constructeur.performances, taille);
+		indicesManagers = Arrays.copyOf(constructeur.indicesManagers, taille);
+	}
+
+	public int getTaille() {
+		return taille;
+	}
+
+	public long getId(int indice) {
+		return ids[indice];
+	}
+
+	public byte getType(int indice) {
+		return types[indice];
+	}
+
+	public double getSalaire(int indice) {
+		return salaires[indice];
+	}
+
+	/**
+	 * @return la date d'embauche, null si elle est absente
+	 */
+	public LocalDate getDateEmbauche(int indice) {
+		return joursEmbauche[indice] == ABSENT ? null : EPOCH.plusDays(joursEmbauche[indice]);
+	}
+
+	public int getGrade(int indice) {
+		return grades[indice];
+	}
+
+	public double getCaAnnuel(int indice) {
+		return caAnnuels[indice];
+	}
+
+	public int getPerformance(int indice) {
+		return performances[indice];
+	}
+
+	/**
+	 * @return l'indice du manager du technicien, ABSENT s'il n'en a pas
+	 */
+	public int getIndiceManager(int indice) {
+		return indicesManagers[indice];
+	}
+
+	/**
+	 * @return l'indice de l'employé, ou un nombre négatif s'il n'est pas un manager
+	 */
+	public int indiceManager(long id) {
+		return Arrays.binarySearch(ids, 0, nbManagers, id);
+	}
+
+	/**
+	 * @return le nombre d'employés du type
+	 */
+	public int nombre(byte type) {
+		int nb = 0;
+		for (int i = 0; i < taille; i++) {
+			nb += types[i] == type ? 1 : 0;
+		}
+		return nb;
+	}
+
+	/**
+	 * @return la somme des salaires de tous les employés, sans les salaires absents
+	 */
+	public double sommeSalaires() {
+		double somme = 0;
+		for (int i = 0; i < taille; i++) {
+			double salaire = salaires[i];
+			somme += salaire == salaire ? salaire : 0;
+		}
+		return somme;
+	}
+
+	/**
+	 * @return la somme des salaires des employés du type, sans les salaires absents
+	 */
+	public double sommeSalaires(byte type) {
+		double somme = 0;
+		for (int i = 0; i < taille; i++) {
+			double salaire = salaires[i];
+			somme += types[i] == type && salaire == salaire ? salaire : 0;
+		}
+		return somme;
+	}
+
+	/**
+	 * @return le salaire moyen des employés qui ont un salaire, NaN s'il n'y en a aucun
+	 */
+	public double moyenneSalaires() {
+		return sommeSalaires() / nombreSalaires(null);
+	}
+
+	/**
+	 * @return le salaire moyen des employés du type qui ont un salaire, NaN s'il n'y en a aucun
+	 */
+	public double moyenneSalaires(byte type) {
+		return sommeSalaires(type) / nombreSalaires(type);
+	}
+
+	private int nombreSalaires(Byte type) {
+		int nb = 0;
+		for (int i = 0; i < taille; i++) {
+			nb += salaires[i] == salaires[i] && (type == null || types[i] == type) ? 1 : 0;
+		}
+		return nb;
+	}
+
+	/**
+	 * @return le chiffre d'affaires annuel total des commerciaux
+	 */
+	public double sommeCaAnnuels() {
+		double somme = 0;
+		for (int i = 0; i < taille; i++) {
+			double ca = caAnnuels[i];
+			somme += ca == ca ? ca : 0;
+		}
+		return somme;
+	}
+
+	/**
+	 * @param min borne inférieure de la première classe
+	 * @param largeur largeur de chaque classe
+	 * @param nbClasses nombre de classes ; les salaires hors des classes sont comptés dans la première ou la dernière
+	 * @return le nombre d'employés par classe de salaire, sans les salaires absents
+	 */
+	public int[] histogrammeSalaires(double min, double largeur, int nbClasses) {
+		int[] classes = new int[nbClasses];
+		for (int i = 0; i < taille; i++) {
+			double salaire = salaires[i];
+			if (salaire == salaire) {
+				int classe = (int) ((salaire - min) / largeur);
+				classes[Math.max(0, Math.min(nbClasses - 1, classe))]++;
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * @return le nombre de techniciens par grade, indexé par le grade
+	 */
+	public int[] histogrammeGrades() {
+		int[] classes = new int[Technicien.GRADE_MAX + 1];
+		for (int i = 0; i < taille; i++) {
+			classes[grades[i]] += types[i] == TYPE_TECHNICIEN ? 1 : 0;
+		}
+		return classes;
+	}
+
+	/**
+	 * @return le nombre de techniciens de l'équipe de chaque employé, indexé comme les employés
+	 */
+	public int[] taillesEquipes() {
+		int[] tailles = new int[taille];
+		for (int i = 0; i < taille; i++) {
+			if (indicesManagers[i] != ABSENT) {
+				tailles[indicesManagers[i]]++;
+			}
+		}
+		return tailles;
+	}
+
+	/**
+	 * @return les indices des k employés les mieux payés, par salaire décroissant (moins de k s'il y a moins de salaires)
+	 */
+	public int[] topSalaires(int k) {
+		//tas minimum des k meilleurs salaires vus : le plus petit, à remplacer en premier, est à la racine
+		int[] tas = new int[Math.min(k, taille)];
+		int nb = 0;
+		for (int i = 0; i < taille; i++) {
+			double salaire = salaires[i];
+			if (salaire != salaire) {
+				continue;
+			}
+			if (nb < tas.length) {
+				tas[nb] = i;
+				monter(tas, nb++);
+			} else if (nb > 0 && salaire > salaires[tas[0]]) {
+				tas[0] = i;
+				descendre(tas, nb);
+			}
+		}
+		int[] top = new int[nb];
+		for (int n = nb; n > 0; n--) {
+			top[n - 1] = tas[0];
+			tas[0] = tas[n - 1];
+			descendre(tas, n - 1);
+		}
+		return top;
+	}
+
+	private void monter(int[] tas, int position) {
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (salaires[tas[position]] >= salaires[tas[parent]]) {
+				return;
+			}
+			echanger(tas, position, parent);
+			position = parent;
+		}
+	}
+
+	private void descendre(int[] tas, int nb) {
+		int position = 0;
+		while (true) {
+			int plusPetit = position;
+			int gauche = 2 * position + 1;
+			int droite = gauche + 1;
+			if (gauche < nb && salaires[tas[gauche]] < salaires[tas[plusPetit]]) {
+				plusPetit = gauche;
+			}
+			if (droite < nb && salaires[tas[droite]] < salaires[tas[plusPetit]]) {
+				plusPetit = droite;
+			}
+			if (plusPetit == position) {
+				return;
+			}
+			echanger(tas, position, plusPetit);
+			position = plusPetit;
+		}
+	}
+
+	private static void echanger(int[] tas, int a, int b) {
+		int valeur = tas[a];
+		tas[a] = tas[b];
+		tas[b] = valeur;
+	}
+
+	/**
+	 * Construction de la photographie : tous les managers par id croissant, puis les techniciens, puis les commerciaux
+	 */
+	public static class Constructeur {
+
+		private int taille;
+
+		private int nbManagers;
+
+		private long[] ids = new long[1024];
+
+		private byte[] types = new byte[1024];
+
+		private double[] salaires = new double[1024];
+
+		private int[] joursEmbauche = new int[1024];
+
+		private byte[] grades = new byte[1024];
+
+		private double[] caAnnuels = new double[1024];
+
+		private int[] performances = new int[1024];
+
+		private int[] indicesManagers = new int[1024];
+
+		public Constructeur ajouterManager(long id, Double salaire, LocalDate dateEmbauche) {
+			if (taille != nbManagers || (nbManagers > 0 && id <= ids[nbManagers - 1])) {
+				throw new IllegalStateException("Les managers doivent être ajoutés en premier, par id croissant : " + id);
+			}
+			ajouter(id, TYPE_MANAGER, salaire, dateEmbauche);
+			nbManagers++;
+			return this;
+		}
+
+		/**
+		 * @param idManager l'id du manager du technicien, déjà ajouté, ou null
+		 */
+		public Constructeur ajouterTechnicien(long id, Double salaire, LocalDate dateEmbauche, Integer grade, Long idManager) {
+			int indice = ajouter(id, TYPE_TECHNICIEN, salaire, dateEmbauche);
+			grades[indice] = grade == null || grade < 0 || grade > Technicien.GRADE_MAX ? 0 : grade.byteValue();
+			if (idManager != null) {
+				int indiceManager = Arrays.binarySearch(ids, 0, nbManagers, idManager);
+				indicesManagers[indice] = indiceManager >= 0 ? indiceManager : ABSENT;
+			}
+			return this;
+		}
+
+		public Constructeur ajouterCommercial(long id, Double salaire, LocalDate dateEmbauche, Double caAnnuel, Integer performance) {
+			int indice = ajouter(id, TYPE_COMMERCIAL, salaire, dateEmbauche);
+			caAnnuels[indice] = caAnnuel == null ? Double.NaN : caAnnuel;
+			performances[indice] = performance == null ? ABSENT : performance;
+			return this;
+		}
+
+		private int ajouter(long id, byte type, Double salaire, LocalDate dateEmbauche) {
+			if (taille == ids.length) {
+				agrandir(taille * 2);
+			}
+			int indice = taille++;
+			ids[indice] = id;
+			types[indice] = type;
+			salaires[indice] = salaire == null ? Double.NaN : salaire;
+			joursEmbauche[indice] = dateEmbauche == null ? ABSENT : Days.daysBetween(EPOCH, dateEmbauche).getDays();
+			grades[indice] = 0;
+			caAnnuels[indice] = Double.NaN;
+			performances[indice] = ABSENT;
+			indicesManagers[indice] = ABSENT;
+			return indice;
+		}
+
+		private void agrandir(int capacite) {
+			ids = Arrays.copyOf(ids, capacite);
+			types = Arrays.copyOf(types, capacite);
+			salaires = Arrays.copyOf(salaires, capacite);
+			joursEmbauche = Arrays.copyOf(joursEmbauche, capacite);
+			grades = Arrays.copyOf(grades, capacite);
+			caAnnuels = Arrays.copyOf(caAnnuels, capacite);
+			performances = Arrays.copyOf(performances, capacite);
+			indicesManagers = Arrays.copyOf(indicesManagers, capacite);
+		}
+
+		public InstantaneEmployes construire() {
+			return new InstantaneEmployes(this);
+		}
+	}
+}
@@ -34,11 +34,34 @@ public class Manager extends Employe {
 	}
 	
 	public void setSalaire(Double salaire) {
-		super.setSalaire(salaire * Entreprise.INDICE_MANAGER + (salaire * (double)equipe.size() / 10));
+		super.setSalaire(salaire(salaire, equipe.size()));
 	}
 
 	public Double getPrimeAnnuelle() {
-		return Entreprise.primeAnnuelleBase() + equipe.size() * Entreprise.PRIME_MANAGER_PAR_TECHNICIEN;
+		return primeAnnuelle(equipe.size());
+	}
+
+	/**
+	 * Calcul de setSalaire à partir de la taille de l'équipe seule, par exemple donnée par EquipeManager
+	 * @return le salaire d'un manager de salaire de base salaire, dont l'équipe compte nbTechniciens techniciens
+	 */
+	public static Double salaire(Double salaire, int nbTechniciens) {
+		return salaire * Entreprise.INDICE_MANAGER + (salaire * (double)nbTechniciens / 10);
+	}
+
+	/**
+	 * Calcul de getPrimeAnnuelle à partir de la taille de l'équipe seule, par exemple donnée par EquipeManager
+	 * @return la prime annuelle d'un manager dont l'équipe compte nbTechniciens techniciens
+	 */
+	public static Double primeAnnuelle(int nbTechniciens) {
+		return primeAnnuelle(nbTechniciens, LocalDate.now().getYear());
+	}
+
+	/**
+	 * Calcul de getPrimeAnnuelle pour l'année de référence annee
+	 */
+	public static double primeAnnuelle(int nbTechniciens, int annee) {
+		return Entreprise.primeAnnuelleBase(annee) + nbTechniciens * Entreprise.PRIME_MANAGER_PAR_TECHNICIEN;
 	}
 	
 	public void augmenterSalaire(Double pourcentage) {
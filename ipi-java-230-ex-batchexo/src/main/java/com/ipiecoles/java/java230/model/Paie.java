@@ -0,0 +1,83 @@
+package com.ipiecoles.java.java230.model;
+
+import org.joda.time.LocalDate;
+
+/**
+ * Ancienneté, congés et prime annuelle d'un employé à une date de référence, calculés comme par les méthodes
+ * de l'employé à cette date (getNombreAnneeAnciennete, getNbConges, getPrimeAnnuelle) sans charger l'entité.
+ * Une valeur qui ne peut pas être calculée (date d'embauche, grade ou chiffre d'affaires manquant) est null.
+ */
+public class Paie {
+
+	private final Long employeId;
+
+	private final LocalDate dateReference;
+
+	private final Integer anciennete;
+
+	private final Integer nbConges;
+
+	private final Double primeAnnuelle;
+
+	private Paie(Long employeId, LocalDate dateReference, Integer anciennete, Integer nbConges, Double primeAnnuelle) {
+		this.employeId = employeId;
+		this.dateReference = dateReference;
+		this.anciennete = anciennete;
+		this.nbConges = nbConges;
+		this.primeAnnuelle = primeAnnuelle;
+	}
+
+	/**
+	 * @param type Manager, Technicien ou Commercial
+	 * @param grade le grade d'un technicien
+	 * @param caAnnuel le chiffre d'affaires annuel d'un commercial
+	 * @param nbTechniciens la taille de l'équipe d'un manager
+	 */
+	public static Paie calculer(Class<? extends Employe> type, Long employeId, LocalDate dateEmbauche, Integer grade,
+								Double caAnnuel, int nbTechniciens, LocalDate dateReference) {
+		Integer anciennete = dateEmbauche == null ? null : Employe.nombreAnneeAnciennete(dateEmbauche, dateReference);
+		int annee = dateReference.getYear();
+		Integer nbConges = Entreprise.NB_CONGES_BASE;
+		Double primeAnnuelle = null;
+		if (type == Manager.class) {
+			primeAnnuelle = Manager.primeAnnuelle(nbTechniciens, annee);
+		} else if (type == Technicien.class) {
+			nbConges = anciennete == null ? null : Technicien.nbConges(anciennete);
+			primeAnnuelle = anciennete == null || grade == null ? null : Technicien.primeAnnuelle(grade, anciennete, annee);
+		} else if (type == Commercial.class) {
+			primeAnnuelle = caAnnuel == null ? null : Commercial.primeAnnuelle(caAnnuel);
+		}
+		return new Paie(employeId, dateReference, anciennete, nbConges, primeAnnuelle);
+	}
+
+	public Long getEmployeId() {
+		return employeId;
+	}
+
+	public LocalDate getDateReference() {
+		return dateReference;
+	}
+
+	public Integer getAnciennete() {
+		return anciennete;
+	}
+
+	public Integer getNbConges() {
+		return nbConges;
+	}
+
+	public Double getPrimeAnnuelle() {
+		return primeAnnuelle;
+	}
+
+	@Override
+	public String toString() {
+		return "Paie{" +
+				"employeId=" + employeId +
+				", dateReference=" + dateReference +
+				", anciennete=" + anciennete +
+				", nbConges=" + nbConges +
+				", primeAnnuelle=" + primeAnnuelle +
+				'}';
+	}
+}
@@ -0,0 +1,83 @@
+package com.ipiecoles.java.java230.model;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Agrégats des salaires d'une catégorie d'employés, tenus à jour par les triggers de db/004-statistique-salaire.sql
+ * à chaque écriture d'employé, ou recalculés en une fois à la fin d'un import par StatistiqueSalaireService :
+ * ils ne sont jamais écrits par JPA.
+ */
+@Entity
+@Immutable
+public class StatistiqueSalaire {
+
+	/**
+	 * Catégorie de tous les employés
+	 */
+	public static final String TOUS = "Employe";
+
+	@Id
+	private String categorie;
+
+	/**
+	 * Nombre d'employés de la catégorie qui ont un salaire
+	 */
+	private Long nbEmployes;
+
+	private Double sommeSalaires;
+
+	public StatistiqueSalaire() {
+
+	}
+
+	public StatistiqueSalaire(String categorie, Long nbEmployes, Double sommeSalaires) {
+		this.categorie = categorie;
+		this.nbEmployes = nbEmployes;
+		this.sommeSalaires = sommeSalaires;
+	}
+
+	/**
+	 * @return la catégorie des employés d'un type : Manager, Technicien ou Commercial
+	 */
+	public static String categorie(Class<? extends Employe> type) {
+		return type.getSimpleName();
+	}
+
+	/**
+	 * @return la catégorie des techniciens d'un grade
+	 */
+	public static String categorieGrade(Integer grade) {
+		return categorie(Technicien.class) + "." + grade;
+	}
+
+	/**
+	 * @return le salaire moyen de la catégorie, null si elle n'a aucun employé
+	 */
+	public Double getMoyenne() {
+		return nbEmployes == 0 ? null : sommeSalaires / nbEmployes;
+	}
+
+	public String getCategorie() {
+		return categorie;
+	}
+
+	public Long getNbEmployes() {
+		return nbEmployes;
+	}
+
+	public Double getSommeSalaires() {
+		return sommeSalaires;
+	}
+
+	@Override
+	public String toString() {
+		return "StatistiqueSalaire{" +
+				"categorie='" + categorie + '\'' +
+				", nbEmployes=" + nbEmployes +
+				", sommeSalaires=" + sommeSalaires +
+				'}';
+	}
+}
@@ -11,6 +11,9 @@ import java.util.Objects;
 @Entity
 public class Technicien extends Employe implements Comparable<Technicien> {
 
+	public static final int GRADE_MIN = 1;
+
+	public static final int GRADE_MAX = 5;
 
 	@ManyToOne
 	private Manager manager;
@@ -27,8 +30,15 @@ public class Technicien extends Employe implements Comparable<Technicien> {
 	}
 
 	public Double getPrimeAnnuelle() {
-		Double salaireBase = Entreprise.primeAnnuelleBase();
-		return salaireBase + salaireBase * (1 + (double) grade / 10) + Entreprise.PRIME_ANCIENNETE * this.getNombreAnneeAnciennete();
+		return primeAnnuelle(grade, this.getNombreAnneeAnciennete(), LocalDate.now().getYear());
+	}
+
+	/**
+	 * Calcul de getPrimeAnnuelle pour l'année de référence annee
+	 */
+	public static double primeAnnuelle(int grade, int anciennete, int annee) {
+		double salaireBase = Entreprise.primeAnnuelleBase(annee);
+		return salaireBase + salaireBase * (1 + (double) grade / 10) + Entreprise.PRIME_ANCIENNETE * anciennete;
 	}
 
 	public Manager getManager() {
@@ -40,7 +50,14 @@ public class Technicien extends Employe implements Comparable<Technicien> {
 	}
 
 	public Integer getNbConges() {
-		return super.getNbConges() + this.getNombreAnneeAnciennete();
+		return nbConges(this.getNombreAnneeAnciennete());
+	}
+
+	/**
+	 * Calcul de getNbConges à partir de l'ancienneté
+	 */
+	public static int nbConges(int anciennete) {
+		return Entreprise.NB_CONGES_BASE + anciennete;
 	}
 
 	/**
@@ -55,7 +72,7 @@ public class Technicien extends Employe implements Comparable<Technicien> {
 	 * @throws TechnicienException 
 	 */
 	public void setGrade(Integer grade) throws TechnicienException {
-		if(grade <= 0 || grade > 5) {
+		if(grade < GRADE_MIN || grade > GRADE_MAX) {
 			throw new TechnicienException(TechnicienException.GRADE, this, grade);
 		}
 		this.grade = grade;
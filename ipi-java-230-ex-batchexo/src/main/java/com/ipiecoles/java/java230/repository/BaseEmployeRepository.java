@@ -1,18 +1,35 @@
 package com.ipiecoles.java.java230.repository;
 
 import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.StatistiqueSalaire;
 import org.joda.time.LocalDate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BaseEmployeRepository<T extends Employe> extends PagingAndSortingRepository<T, Long> {
+
+    /**
+     * Nombre de lignes lues à chaque aller-retour par les méthodes stream*, avec le curseur côté serveur activé
+     * par useCursorFetch dans l'URL de la datasource
+     */
+    String TAILLE_LOT_LECTURE = "1000";
+
+    String HINT_FETCH_SIZE = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
     T findByMatricule(String matricule);
 
+    List<T> findByMatriculeIn(Collection<String> matricules);
+
     List<T> findByNomAndPrenom(String nom, String prenom);
 
     @Query("select e from #{#entityName} e where lower(e.prenom) = lower(:nomOuPrenom) or lower(e.nom) = lower(:nomOuPrenom)")
@@ -22,6 +39,41 @@ public interface BaseEmployeRepository<T extends Employe> extends PagingAndSorti
 
     Page<T> findByNomIgnoreCase(String nom, Pageable pageable);
 
+    /**
+     * Équivalents indexés de findByNomOrPrenomAllIgnoreCase et findByNomIgnoreCase, sur les colonnes de recherche :
+     * les valeurs doivent être normalisées par Employe.normaliserRecherche
+     */
+    List<T> findByNomRechercheOrPrenomRecherche(String nom, String prenom);
+
+    List<T> findByNomRecherche(String nom);
+
+    Page<T> findByNomRecherche(String nom, Pageable pageable);
+
+    /**
+     * @param motif préfixe normalisé, échappé par '!' et suivi de '%'
+     */
+    @Query("select e from #{#entityName} e where e.nomRecherche like :motif escape '!' or e.prenomRecherche like :motif escape '!' " +
+            "order by e.nomRecherche, e.prenomRecherche")
+    List<T> findByNomOuPrenomCommencantPar(@Param("motif") String motif, Pageable pageable);
+
+    default List<T> rechercherParNomOuPrenom(String nomOuPrenom) {
+        String valeur = Employe.normaliserRecherche(nomOuPrenom);
+        return findByNomRechercheOrPrenomRecherche(valeur, valeur);
+    }
+
+    default Page<T> rechercherParNom(String nom, Pageable pageable) {
+        return findByNomRecherche(Employe.normaliserRecherche(nom), pageable);
+    }
+
+    /**
+     * Autocomplétion : les employés dont le nom ou le prénom commence par debut, sans distinction de casse
+     * @param nbMax nombre maximum d'employés renvoyés
+     */
+    default List<T> rechercherParDebutNomOuPrenom(String debut, int nbMax) {
+        String motif = Employe.normaliserRecherche(debut).replaceAll("[!%_]", "!$0") + "%";
+        return findByNomOuPrenomCommencantPar(motif, new PageRequest(0, nbMax));
+    }
+
     List<T> findByDateEmbaucheBefore(LocalDate date);
 
     List<T> findByDateEmbaucheAfter(LocalDate date);
@@ -30,4 +82,90 @@ public interface BaseEmployeRepository<T extends Employe> extends PagingAndSorti
 
     @Query(value = "SELECT * FROM Employe WHERE salaire > (SELECT avg(e2.salaire) FROM Employe e2)", nativeQuery = true)
     List<T> findEmployePlusRiches();
+
+    /**
+     * Comme findEmployePlusRiches, sans recalculer la moyenne : elle est lue dans StatistiqueSalaire, puis les employés
+     * sont lus par un parcours de l'index sur le salaire
+     * @param categorie catégorie de la moyenne à dépasser, StatistiqueSalaire.TOUS pour tous les employés
+     */
+    @Query("select e from #{#entityName} e where e.salaire > " +
+            "(select s.sommeSalaires / s.nbEmployes from StatistiqueSalaire s where s.categorie = :categorie)")
+    List<T> findEmployePlusRichesQueLaMoyenne(@Param("categorie") String categorie);
+
+    default List<T> findEmployePlusRichesQueLaMoyenne() {
+        return findEmployePlusRichesQueLaMoyenne(StatistiqueSalaire.TOUS);
+    }
+
+    /*
+     * Variantes en Stream des recherches : les employés sont lus au fil du parcours par lots de TAILLE_LOT_LECTURE.
+     * Elles doivent être appelées dans une transaction, le Stream doit être fermé (try-with-resources), et chaque employé
+     * traité détaché du contexte de persistance pour que la mémoire reste constante (EmployeService.parcourirEmployes).
+     */
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    @Query("select e from #{#entityName} e")
+    Stream<T> streamAll();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    Stream<T> streamByNomAndPrenom(String nom, String prenom);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    Stream<T> streamByDateEmbaucheBefore(LocalDate date);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    Stream<T> streamByDateEmbaucheAfter(LocalDate date);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    Stream<T> streamBySalaireGreaterThanOrderBySalaireDesc(Double salaire);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    @Query("select e from #{#entityName} e where e.salaire > " +
+            "(select s.sommeSalaires / s.nbEmployes from StatistiqueSalaire s where s.categorie = :categorie)")
+    Stream<T> streamEmployePlusRichesQueLaMoyenne(@Param("categorie") String categorie);
+
+    /*
+     * Pagination par clé : chaque page reprend après le dernier employé de la précédente par un parcours d'index,
+     * quelle que soit sa profondeur, là où une pagination par offset relit toutes les lignes des pages précédentes.
+     * L'id départage les employés de même salaire ou de même date d'embauche.
+     */
+
+    List<T> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<T> findBySalaireNotNullOrderBySalaireDescIdDesc(Pageable pageable);
+
+    @Query("select e from #{#entityName} e where e.salaire < :salaire or (e.salaire = :salaire and e.id < :id) " +
+            "order by e.salaire desc, e.id desc")
+    List<T> findApresSalaire(@Param("salaire") Double salaire, @Param("id") Long id, Pageable pageable);
+
+    List<T> findByDateEmbaucheNotNullOrderByDateEmbaucheAscIdAsc(Pageable pageable);
+
+    @Query("select e from #{#entityName} e where e.dateEmbauche > :date or (e.dateEmbauche = :date and e.id > :id) " +
+            "order by e.dateEmbauche, e.id")
+    List<T> findApresDateEmbauche(@Param("date") LocalDate date, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * @param dernier dernier employé de la page précédente, null pour la première page
+     * @return les taille employés suivants par id croissant, une liste vide après le dernier
+     */
+    default List<T> pageSuivanteParId(T dernier, int taille) {
+        return findByIdGreaterThanOrderByIdAsc(dernier == null ? 0L : dernier.getId(), new PageRequest(0, taille));
+    }
+
+    /**
+     * @param dernier dernier employé de la page précédente, null pour la première page
+     * @return les taille employés suivants par salaire décroissant (les employés sans salaire sont exclus)
+     */
+    default List<T> pageSuivanteParSalaire(T dernier, int taille) {
+        return dernier == null ? findBySalaireNotNullOrderBySalaireDescIdDesc(new PageRequest(0, taille))
+                : findApresSalaire(dernier.getSalaire(), dernier.getId(), new PageRequest(0, taille));
+    }
+
+    /**
+     * @param dernier dernier employé de la page précédente, null pour la première page
+     * @return les taille employés suivants par date d'embauche croissante (les employés sans date sont exclus)
+     */
+    default List<T> pageSuivanteParDateEmbauche(T dernier, int taille) {
+        return dernier == null ? findByDateEmbaucheNotNullOrderByDateEmbaucheAscIdAsc(new PageRequest(0, taille))
+                : findApresDateEmbauche(dernier.getDateEmbauche(), dernier.getId(), new PageRequest(0, taille));
+    }
 }
@@ -1,7 +1,27 @@
 package com.ipiecoles.java.java230.repository;
 
-import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Commercial;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface CommercialRepository extends BaseEmployeRepository<Manager> {
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
 
+public interface CommercialRepository extends BaseEmployeRepository<Commercial> {
+
+    /**
+     * @return pour chaque commercial, sans charger les entités : matricule, nom, prénom, date d'embauche, salaire,
+     * chiffre d'affaires annuel et performance
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    @Query("select c.matricule, c.nom, c.prenom, c.dateEmbauche, c.salaire, c.caAnnuel, c.performance from Commercial c")
+    Stream<Object[]> streamChampsFichier();
+
+    /**
+     * @return pour chaque commercial, sans charger les entités : id, salaire, date d'embauche,
+     * chiffre d'affaires annuel et performance
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    @Query("select c.id, c.salaire, c.dateEmbauche, c.caAnnuel, c.performance from Commercial c")
+    Stream<Object[]> streamChampsInstantane();
 }
@@ -1,6 +1,18 @@
 package com.ipiecoles.java.java230.repository;
 
 import com.ipiecoles.java.java230.model.Employe;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface EmployeRepository extends BaseEmployeRepository<Employe> {
+
+    /**
+     * Multiplie le salaire de tous les employés par facteur, en une instruction, comme un appel d'augmenterSalaire
+     * sur chaque manager (qui augmente aussi son équipe) et sur chaque employé qui n'est dans aucune équipe
+     * @return le nombre d'employés modifiés
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE Employe SET salaire = salaire * :facteur", nativeQuery = true)
+    int augmenterSalaires(@Param("facteur") double facteur);
 }
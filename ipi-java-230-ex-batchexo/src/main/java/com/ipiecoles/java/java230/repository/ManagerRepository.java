@@ -1,9 +1,151 @@
 package com.ipiecoles.java.java230.repository;
 
+import com.ipiecoles.java.java230.model.AgregatEquipe;
+import com.ipiecoles.java.java230.model.EquipeManager;
 import com.ipiecoles.java.java230.model.Manager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Les identifiants des managers sont mis en cache par matricule (findIdByMatricule), y compris l'absence de manager
+ * pour un matricule introuvable.
+ * Le cache est vidé par les écritures de ce repository, qui peuvent changer le matricule d'un manager ;
+ * les autres écritures de managers l'invalident par CacheManagers.
+ */
 public interface ManagerRepository extends BaseEmployeRepository<Manager> {
+
+    /**
+     * Cache des identifiants des managers par matricule, configuré par spring.cache.caffeine.spec
+     */
+    String CACHE_PAR_MATRICULE = "managersParMatricule";
+
     @EntityGraph(attributePaths = "equipe")
     Manager findOneWithEquipeById(Long id);
+
+    /**
+     * @return pour chaque manager, sans charger les entités : matricule, nom, prénom, date d'embauche et salaire
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    @Query("select m.matricule, m.nom, m.prenom, m.dateEmbauche, m.salaire from Manager m")
+    Stream<Object[]> streamChampsFichier();
+
+    /**
+     * @return pour chaque manager, par id croissant, sans charger les entités : id, salaire et date d'embauche
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    @Query("select m.id, m.salaire, m.dateEmbauche from Manager m order by m.id")
+    Stream<Object[]> streamChampsInstantane();
+
+    /**
+     * @return pour chaque manager et chaque grade de son équipe, le nombre de techniciens et le total de leurs salaires,
+     * en une requête groupée sans charger les équipes ; un manager sans technicien a un agrégat de grade null
+     */
+    @Query("select new com.ipiecoles.java.java230.model.AgregatEquipe(m.id, t.grade, count(t), sum(t.salaire)) " +
+            "from Manager m left join m.equipe t group by m.id, t.grade order by m.id, t.grade")
+    List<AgregatEquipe> findAgregatsEquipes();
+
+    @Query("select new com.ipiecoles.java.java230.model.AgregatEquipe(m.id, t.grade, count(t), sum(t.salaire)) " +
+            "from Manager m left join m.equipe t where m.id = :id group by m.id, t.grade")
+    List<AgregatEquipe> findAgregatsEquipe(@Param("id") Long id);
+
+    /**
+     * Partie manager de Manager.augmenterSalaire : multiplie le salaire du manager par facteur
+     * @return le nombre d'employés modifiés, 0 si le manager n'existe pas
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE Employe SET salaire = salaire * :facteur WHERE id = :id AND EXISTS (SELECT 1 FROM Manager m WHERE m.id = :id)",
+            nativeQuery = true)
+    int augmenterSalaireManager(@Param("id") Long id, @Param("facteur") double facteur);
+
+    @Query("select t.id from Technicien t where t.manager.id = :id")
+    List<Long> findIdsEquipe(@Param("id") Long id);
+
+    /**
+     * Multiplie le salaire des employés par facteur, par leurs identifiants
+     * @return le nombre d'employés modifiés
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE Employe SET salaire = salaire * :facteur WHERE id IN (:ids)", nativeQuery = true)
+    int augmenterSalaireEmployes(@Param("ids") Collection<Long> ids, @Param("facteur") double facteur);
+
+    /**
+     * Partie équipe de Manager.augmenterSalaire : multiplie le salaire des techniciens du manager par facteur.
+     * L'équipe est lue par l'index sur manager_id puis modifiée par ses identifiants : un UPDATE ... WHERE id IN (sous-requête)
+     * parcourrait toute la table Employe avant MySQL 8.0.21, et UPDATE ... JOIN n'est pas du SQL standard
+     * @return le nombre de techniciens modifiés
+     */
+    default int augmenterSalaireEquipe(Long id, double facteur) {
+        List<Long> equipe = findIdsEquipe(id);
+        return equipe.isEmpty() ? 0 : augmenterSalaireEmployes(equipe, facteur);
+    }
+
+    /**
+     * @return l'équipe de chaque manager par id, sans charger les équipes
+     */
+    default Map<Long, EquipeManager> findEquipes() {
+        return EquipeManager.regrouper(findAgregatsEquipes());
+    }
+
+    /**
+     * @return l'équipe du manager, vide s'il n'existe pas
+     */
+    default EquipeManager findEquipe(Long id) {
+        return EquipeManager.regrouper(findAgregatsEquipe(id)).getOrDefault(id, new EquipeManager(id));
+    }
+
+    /**
+     * Le cache ne contient que l'identifiant, une valeur immuable partagée sans risque entre appelants et threads.
+     * Un matricule introuvable est mis en cache comme un Optional vide : il ne coûte plus de requête jusqu'à ce que
+     * le manager soit créé par cette application, qui l'évince du cache, ou que l'entrée expire s'il est créé ailleurs.
+     * @return l'identifiant du manager, vide s'il n'existe pas
+     */
+    @Cacheable(CACHE_PAR_MATRICULE)
+    @Query("select m.id from Manager m where m.matricule = :matricule")
+    Optional<Long> findIdByMatricule(@Param("matricule") String matricule);
+
+    /**
+     * Recherche passant par le cache des identifiants : un matricule introuvable en cache ne coûte aucune requête,
+     * un manager trouvé est chargé par son identifiant
+     * @return le manager, ou null s'il n'existe pas
+     */
+    @Override
+    default Manager findByMatricule(String matricule) {
+        return findIdByMatricule(matricule).map(this::findOne).orElse(null);
+    }
+
+    @Override
+    @CacheEvict(value = CACHE_PAR_MATRICULE, allEntries = true)
+    <S extends Manager> S save(S manager);
+
+    @Override
+    @CacheEvict(value = CACHE_PAR_MATRICULE, allEntries = true)
+    <S extends Manager> Iterable<S> save(Iterable<S> managers);
+
+    @Override
+    @CacheEvict(value = CACHE_PAR_MATRICULE, allEntries = true)
+    void delete(Long id);
+
+    @Override
+    @CacheEvict(value = CACHE_PAR_MATRICULE, allEntries = true)
+    void delete(Manager manager);
+
+    @Override
+    @CacheEvict(value = CACHE_PAR_MATRICULE, allEntries = true)
+    void delete(Iterable<? extends Manager> managers);
+
+    @Override
+    @CacheEvict(value = CACHE_PAR_MATRICULE, allEntries = true)
+    void deleteAll();
 }
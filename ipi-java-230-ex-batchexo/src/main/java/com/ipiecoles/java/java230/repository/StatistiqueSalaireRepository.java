@@ -0,0 +1,19 @@
+package com.ipiecoles.java.java230.repository;
+
+import com.ipiecoles.java.java230.model.StatistiqueSalaire;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+/**
+ * Lecture seule : les statistiques sont écrites par les triggers de la base, ou par StatistiqueSalaireService
+ */
+public interface StatistiqueSalaireRepository extends Repository<StatistiqueSalaire, String> {
+
+    /**
+     * @param categorie StatistiqueSalaire.TOUS, StatistiqueSalaire.categorie(type) ou StatistiqueSalaire.categorieGrade(grade)
+     */
+    StatistiqueSalaire findByCategorie(String categorie);
+
+    List<StatistiqueSalaire> findAllByOrderByCategorieAsc();
+}
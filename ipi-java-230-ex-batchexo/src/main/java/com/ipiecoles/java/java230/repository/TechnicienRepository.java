@@ -2,9 +2,15 @@ package com.ipiecoles.java.java230.repository;
 
 import com.ipiecoles.java.java230.model.Technicien;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.awt.print.Pageable;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TechnicienRepository extends BaseEmployeRepository<Technicien> {
 
@@ -12,4 +18,28 @@ public interface TechnicienRepository extends BaseEmployeRepository<Technicien>
 
     Slice<Technicien> findTop5ByGrade(Integer grade);
 
+    /**
+     * Multiplie le salaire des techniciens du grade par facteur, comme Technicien.augmenterSalaire sur chacun
+     * @return le nombre de techniciens modifiés
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE Employe SET salaire = salaire * :facteur WHERE id IN (SELECT t.id FROM Technicien t WHERE t.grade = :grade)",
+            nativeQuery = true)
+    int augmenterSalaireGrade(@Param("grade") Integer grade, @Param("facteur") double facteur);
+
+    /**
+     * @return pour chaque technicien, sans charger les entités : matricule, nom, prénom, date d'embauche, salaire, grade
+     * et matricule de son manager, lu par la même requête
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    @Query("select t.matricule, t.nom, t.prenom, t.dateEmbauche, t.salaire, t.grade, m.matricule from Technicien t left join t.manager m")
+    Stream<Object[]> streamChampsFichier();
+
+    /**
+     * @return pour chaque technicien, sans charger les entités : id, salaire, date d'embauche, grade et id de son manager
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = TAILLE_LOT_LECTURE))
+    @Query("select t.id, t.salaire, t.dateEmbauche, t.grade, m.id from Technicien t left join t.manager m")
+    Stream<Object[]> streamChampsInstantane();
+
 }
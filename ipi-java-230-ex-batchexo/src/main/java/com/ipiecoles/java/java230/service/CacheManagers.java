@@ -0,0 +1,90 @@
+package com.ipiecoles.java.java230.service;
+
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.repository.ManagerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidation du cache des identifiants des managers par matricule (ManagerRepository.CACHE_PAR_MATRICULE) lors des écritures
+ * d'employés qui ne passent pas par ManagerRepository : EmployeRepository et les écritures JDBC de l'import.
+ * Seuls les managers écrits en sont évincés : l'écriture d'un autre employé ne crée ni ne supprime de manager,
+ * ni ne change l'identifiant ou l'absence en cache d'un matricule.
+ * Dans une transaction, l'invalidation n'a lieu qu'après le commit, pour qu'une lecture concurrente ne remette pas en cache l'ancienne valeur.
+ */
+@Component
+public class CacheManagers {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Cache décoré pour les transactions, créé au premier usage
+     */
+    private volatile Cache cacheTransactionnel;
+
+    /**
+     * @param employe un employé créé, modifié ou supprimé
+     */
+    public void evincer(Employe employe) {
+        Cache cache = cache();
+        if (cache != null && employe instanceof Manager && employe.getMatricule() != null) {
+            cache.evict(employe.getMatricule());
+        }
+    }
+
+    /**
+     * @param employes des employés créés, modifiés ou supprimés
+     */
+    public void evincer(Iterable<? extends Employe> employes) {
+        Cache cache = cache();
+        if (cache == null) {
+            return;
+        }
+        for (Employe employe : employes) {
+            if (employe instanceof Manager && employe.getMatricule() != null) {
+                cache.evict(employe.getMatricule());
+            }
+        }
+    }
+
+    /**
+     * @param matricules les matricules de managers supprimés ou devenus d'un autre type
+     */
+    public void evincerMatricules(Iterable<String> matricules) {
+        Cache cache = cache();
+        if (cache == null) {
+            return;
+        }
+        for (String matricule : matricules) {
+            cache.evict(matricule);
+        }
+    }
+
+    /**
+     * Vide le cache, quand les matricules des employés modifiés ne sont pas connus
+     */
+    public void vider() {
+        Cache cache = cache();
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private Cache cache() {
+        Cache decore = cacheTransactionnel;
+        if (decore == null) {
+            Cache cible = cacheManager.getCache(ManagerRepository.CACHE_PAR_MATRICULE);
+            if (cible == null) {
+                return null;
+            }
+            decore = new TransactionAwareCacheDecorator(cible);
+            cacheTransactionnel = decore;
+        }
+        return decore;
+    }
+}
@@ -1,9 +1,24 @@
 package com.ipiecoles.java.java230.service;
 
 import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.EquipeManager;
+import com.ipiecoles.java.java230.model.InstantaneEmployes;
+import com.ipiecoles.java.java230.repository.CommercialRepository;
 import com.ipiecoles.java.java230.repository.EmployeRepository;
+import com.ipiecoles.java.java230.repository.ManagerRepository;
+import com.ipiecoles.java.java230.repository.TechnicienRepository;
+import org.joda.time.LocalDate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeService {
@@ -11,6 +26,21 @@ public class EmployeService {
     @Autowired
     private EmployeRepository employeRepository;
 
+    @Autowired
+    private ManagerRepository managerRepository;
+
+    @Autowired
+    private TechnicienRepository technicienRepository;
+
+    @Autowired
+    private CommercialRepository commercialRepository;
+
+    @Autowired
+    private CacheManagers cacheManagers;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public Employe findById(Long id){
         return employeRepository.findOne(id);
     }
@@ -21,9 +51,120 @@ public class EmployeService {
 
     public void deleteEmploye(Long id){
         employeRepository.delete(id);
+        cacheManagers.vider();
+    }
+
+    /**
+     * Applique le traitement à tous les employés, lus par un curseur côté serveur (EmployeRepository.streamAll) :
+     * chaque employé est détaché une fois traité, la mémoire reste constante quel que soit le nombre d'employés
+     * @return le nombre d'employés traités
+     */
+    @Transactional(readOnly = true)
+    public long parcourirEmployes(Consumer<Employe> traitement) {
+        long nb = 0;
+        try (Stream<Employe> employes = employeRepository.streamAll()) {
+            for (Employe employe : (Iterable<Employe>) employes::iterator) {
+                traitement.accept(employe);
+                entityManager.detach(employe);
+                nb++;
+            }
+        }
+        return nb;
+    }
+
+    /**
+     * @return la prime annuelle de chaque manager par id, calculée à partir des agrégats des équipes sans les charger
+     */
+    public Map<Long, Double> primesAnnuellesManagers() {
+        Map<Long, Double> primes = new LinkedHashMap<>();
+        for (EquipeManager equipe : managerRepository.findEquipes().values()) {
+            primes.put(equipe.getManagerId(), equipe.getPrimeAnnuelle());
+        }
+        return primes;
+    }
+
+    /**
+     * Photographie de tous les employés pour les calculs statistiques, lue en flux par des requêtes de projection
+     * sans charger d'entité : les managers par id croissant (pour retrouver le manager de chaque technicien),
+     * puis les techniciens, puis les commerciaux
+     */
+    @Transactional(readOnly = true)
+    public InstantaneEmployes creerInstantane() {
+        InstantaneEmployes.Constructeur constructeur = new InstantaneEmployes.Constructeur();
+        try (Stream<Object[]> managers = managerRepository.streamChampsInstantane()) {
+            for (Iterator<Object[]> it = managers.iterator(); it.hasNext(); ) {
+                Object[] champs = it.next();
+                constructeur.ajouterManager((Long) champs[0], (Double) champs[1], (LocalDate) champs[2]);
+            }
+        }
+        try (Stream<Object[]> techniciens = technicienRepository.streamChampsInstantane()) {
+            for (Iterator<Object[]> it = techniciens.iterator(); it.hasNext(); ) {
+                Object[] champs = it.next();
+                constructeur.ajouterTechnicien((Long) champs[0], (Double) champs[1], (LocalDate) champs[2],
+                        (Integer) champs[3], (Long) champs[4]);
+            }
+        }
+        try (Stream<Object[]> commerciaux = commercialRepository.streamChampsInstantane()) {
+            for (Iterator<Object[]> it = commerciaux.iterator(); it.hasNext(); ) {
+                Object[] champs = it.next();
+                constructeur.ajouterCommercial((Long) champs[0], (Double) champs[1], (LocalDate) champs[2],
+                        (Double) champs[3], (Integer) champs[4]);
+            }
+        }
+        return constructeur.construire();
+    }
+
+    /*
+     * Augmentations de salaire en BDD, par des UPDATE ensemblistes dans une transaction, avec le résultat
+     * d'augmenterSalaire sur les entités. Les modifications en attente sont d'abord écrites, car le contexte
+     * de persistance est vidé après chaque UPDATE. Le cache des managers n'est pas concerné : il ne contient que leurs identifiants.
+     */
+
+    /**
+     * Comme Manager.augmenterSalaire : augmente le manager et les techniciens de son équipe
+     * @return le nombre d'employés augmentés
+     */
+    @Transactional
+    public int augmenterSalaireManager(Long managerId, Double pourcentage) {
+        entityManager.flush();
+        double facteur = Employe.facteurAugmentation(pourcentage);
+        int nb = managerRepository.augmenterSalaireManager(managerId, facteur);
+        if (nb > 0) {
+            nb += managerRepository.augmenterSalaireEquipe(managerId, facteur);
+        }
+        return nb;
+    }
+
+    /**
+     * Comme Technicien.augmenterSalaire sur chaque technicien du grade
+     * @return le nombre de techniciens augmentés
+     */
+    @Transactional
+    public int augmenterSalaireGrade(Integer grade, Double pourcentage) {
+        entityManager.flush();
+        return technicienRepository.augmenterSalaireGrade(grade, Employe.facteurAugmentation(pourcentage));
+    }
+
+    /**
+     * Comme Manager.augmenterSalaire sur chaque manager et augmenterSalaire sur chaque employé qui n'est dans aucune équipe :
+     * chaque employé est augmenté une fois
+     * @return le nombre d'employés augmentés
+     */
+    @Transactional
+    public int augmenterSalaires(Double pourcentage) {
+        entityManager.flush();
+        return employeRepository.augmenterSalaires(Employe.facteurAugmentation(pourcentage));
     }
 
     public Employe creerEmploye(Employe e) {
-        return employeRepository.save(e);
+        //un employé existant a pu changer de matricule
+        boolean existant = e.getId() != null;
+        Employe enregistre = employeRepository.save(e);
+        if (existant) {
+            cacheManagers.vider();
+        } else {
+            cacheManagers.evincer(enregistre);
+        }
+        return enregistre;
     }
 }
@@ -0,0 +1,252 @@
+package com.ipiecoles.java.java230.service;
+
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Paie;
+import com.ipiecoles.java.java230.model.Technicien;
+import org.joda.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Calcul de la paie (ancienneté, congés, prime annuelle) de tous les employés à une date de référence, enregistré dans la table Paie.
+ * Les identifiants sont découpés en tranches calculées en parallèle ; chaque tranche est lue par pages (pagination par clé sur l'id),
+ * et chaque page est calculée sans charger d'entité puis écrite par un batch JDBC dans sa propre transaction.
+ * Le résultat ne dépend que des employés et de la date de référence : un nouveau calcul à la même date remplace le précédent.
+ * Les pages sont écrites dans la table de travail PaieCalcul, puis copiées dans Paie à la place des lignes du calcul précédent
+ * en une seule transaction à la fin : un calcul en échec laisse les résultats précédents intacts, il suffit de le relancer.
+ */
+@Service
+public class PaieService {
+
+    private static final String SELECT_PAGE = "SELECT e.id, e.dateEmbauche, m.id AS manager, t.id AS technicien, t.grade, "
+            + "c.id AS commercial, c.caAnnuel FROM Employe e LEFT JOIN Manager m ON m.id = e.id "
+            + "LEFT JOIN Technicien t ON t.id = e.id LEFT JOIN Commercial c ON c.id = e.id "
+            + "WHERE e.id > :apres AND e.id <= :fin ORDER BY e.id LIMIT :taille";
+
+    private static final String SELECT_EQUIPES = "SELECT manager_id, COUNT(*) FROM Technicien WHERE manager_id IN (:managers) GROUP BY manager_id";
+
+    private static final String COLONNES_PAIE = "dateReference, employe_id, anciennete, nbConges, primeAnnuelle";
+
+    private static final String INSERT_CALCUL = "INSERT INTO PaieCalcul (" + COLONNES_PAIE + ") VALUES (?, ?, ?, ?, ?)";
+
+    private static final String DELETE_CALCUL = "DELETE FROM PaieCalcul WHERE dateReference = :date";
+
+    private static final String DELETE_PAIE = "DELETE FROM Paie WHERE dateReference = :date";
+
+    private static final String INSERT_PAIE = "INSERT INTO Paie (" + COLONNES_PAIE + ") SELECT " + COLONNES_PAIE
+            + " FROM PaieCalcul WHERE dateReference = :date";
+
+    /**
+     * Nombre de tranches d'identifiants par thread, pour répartir la charge si les identifiants sont inégalement répartis
+     */
+    private static final int TRANCHES_PAR_THREAD = 4;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Nombre de threads du calcul
+     */
+    @Value("${paie.parallelisme:4}")
+    private int parallelisme;
+
+    /**
+     * Nombre d'employés lus, calculés et écrits à la fois
+     */
+    @Value("${paie.taille-page:1000}")
+    private int taillePage;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * Calcule et enregistre la paie de tous les employés
+     * @param dateReference la date à laquelle sont calculées l'ancienneté et la prime annuelle
+     * @return le nombre d'employés dont la paie a été calculée
+     */
+    public long calculerPaie(LocalDate dateReference) {
+        long debut = System.nanoTime();
+        MapSqlParameterSource parametres = new MapSqlParameterSource("date", Date.valueOf(dateReference.toString()));
+        //lignes laissées par un calcul précédent interrompu à la même date
+        jdbcTemplate.update(DELETE_CALCUL, parametres);
+        Map<String, Object> bornes = jdbcTemplate.queryForMap("SELECT MIN(id) AS min, MAX(id) AS max FROM Employe", parametres);
+        if (bornes.get("min") == null) {
+            return 0;
+        }
+        long nbEmployes;
+        try {
+            nbEmployes = calculerTranches(dateReference, ((Number) bornes.get("min")).longValue(), ((Number) bornes.get("max")).longValue());
+        } catch (RuntimeException e) {
+            logger.error("Calcul de la paie au " + dateReference + " en échec, les résultats précédents sont conservés : "
+                    + "il doit être relancé");
+            supprimerCalcul(parametres);
+            throw e;
+        }
+        new TransactionTemplate(transactionManager).execute(statut -> {
+            jdbcTemplate.update(DELETE_PAIE, parametres);
+            jdbcTemplate.update(INSERT_PAIE, parametres);
+            return jdbcTemplate.update(DELETE_CALCUL, parametres);
+        });
+        logger.info("Paie au " + dateReference + " calculée pour " + nbEmployes + " employés en "
+                + (System.nanoTime() - debut) / 1_000_000 + " ms");
+        return nbEmployes;
+    }
+
+    /**
+     * Calcule en parallèle la paie des employés d'identifiant compris dans [min, max] dans PaieCalcul
+     * @return le nombre d'employés dont la paie a été calculée
+     */
+    private long calculerTranches(LocalDate dateReference, long min, long max) {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelisme);
+        try {
+            List<Future<Long>> tranches = new ArrayList<>();
+            long nbTranches = (long) parallelisme * TRANCHES_PAR_THREAD;
+            long tailleTranche = Math.max(1, (max - min + nbTranches) / nbTranches);
+            for (long apres = min - 1; apres < max; apres += tailleTranche) {
+                long debutTranche = apres;
+                long finTranche = Math.min(max, apres + tailleTranche);
+                tranches.add(pool.submit(() -> calculerTranche(dateReference, debutTranche, finTranche)));
+            }
+            long nbEmployes = 0;
+            for (Future<Long> tranche : tranches) {
+                nbEmployes += resultat(tranche);
+            }
+            return nbEmployes;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Supprime les lignes écrites par un calcul en échec, sans masquer son erreur si la BDD n'est plus accessible :
+     * elles le seront sinon au début du prochain calcul à la même date
+     */
+    private void supprimerCalcul(MapSqlParameterSource parametres) {
+        try {
+            jdbcTemplate.update(DELETE_CALCUL, parametres);
+        } catch (DataAccessException e) {
+            logger.warn("Lignes du calcul en échec non supprimées de PaieCalcul : " + e.getMessage());
+        }
+    }
+
+    private static long resultat(Future<Long> tranche) {
+        try {
+            return tranche.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Calcul de la paie interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Calcule la paie des employés d'identifiant compris dans ]apres, fin], page par page, dans PaieCalcul
+     * @return le nombre d'employés de la tranche
+     */
+    long calculerTranche(LocalDate dateReference, long apres, long fin) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long nbEmployes = 0;
+        while (true) {
+            MapSqlParameterSource parametres = new MapSqlParameterSource("apres", apres).addValue("fin", fin).addValue("taille", taillePage);
+            List<EmployePaie> page = jdbcTemplate.query(SELECT_PAGE, parametres, (rs, i) -> new EmployePaie(rs));
+            if (page.isEmpty()) {
+                return nbEmployes;
+            }
+            Map<Long, Integer> equipes = tailleEquipes(page);
+            List<Object[]> lignes = new ArrayList<>(page.size());
+            for (EmployePaie employe : page) {
+                Integer nbTechniciens = equipes.get(employe.id);
+                Paie paie = Paie.calculer(employe.type, employe.id, employe.dateEmbauche, employe.grade, employe.caAnnuel,
+                        nbTechniciens == null ? 0 : nbTechniciens, dateReference);
+                lignes.add(new Object[]{Date.valueOf(dateReference.toString()), paie.getEmployeId(), paie.getAnciennete(),
+                        paie.getNbConges(), paie.getPrimeAnnuelle()});
+            }
+            transaction.execute(statut -> jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_CALCUL, lignes));
+            nbEmployes += page.size();
+            apres = page.get(page.size() - 1).id;
+        }
+    }
+
+    /**
+     * @return le nombre de techniciens de l'équipe de chaque manager de la page qui en a
+     */
+    private Map<Long, Integer> tailleEquipes(List<EmployePaie> page) {
+        List<Long> managers = new ArrayList<>();
+        for (EmployePaie employe : page) {
+            if (employe.type == Manager.class) {
+                managers.add(employe.id);
+            }
+        }
+        if (managers.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Integer> equipes = new HashMap<>();
+        jdbcTemplate.query(SELECT_EQUIPES, new MapSqlParameterSource("managers", managers),
+                rs -> {
+                    equipes.put(rs.getLong(1), rs.getInt(2));
+                });
+        return equipes;
+    }
+
+    /**
+     * Champs d'un employé utilisés par le calcul de la paie
+     */
+    private static class EmployePaie {
+
+        private final long id;
+
+        private final LocalDate dateEmbauche;
+
+        private final Class<? extends Employe> type;
+
+        private final Integer grade;
+
+        private final Double caAnnuel;
+
+        private EmployePaie(ResultSet rs) throws SQLException {
+            id = rs.getLong("id");
+            Date date = rs.getDate("dateEmbauche");
+            dateEmbauche = date == null ? null : LocalDate.fromDateFields(date);
+            if (rs.getObject("manager") != null) {
+                type = Manager.class;
+            } else if (rs.getObject("technicien") != null) {
+                type = Technicien.class;
+            } else if (rs.getObject("commercial") != null) {
+                type = Commercial.class;
+            } else {
+                type = null;
+            }
+            grade = (Integer) rs.getObject("grade");
+            caAnnuel = (Double) rs.getObject("caAnnuel");
+        }
+    }
+}
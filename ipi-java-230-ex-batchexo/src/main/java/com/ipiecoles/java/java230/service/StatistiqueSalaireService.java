@@ -0,0 +1,55 @@
+package com.ipiecoles.java.java230.service;
+
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.StatistiqueSalaire;
+import com.ipiecoles.java.java230.model.Technicien;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintenance des agrégats de StatistiqueSalaire (db/004-statistique-salaire.sql) pendant les imports.
+ * Les triggers mettent à jour les lignes des catégories de chaque employé écrit : pendant un import, chaque transaction
+ * de lot modifierait les mêmes lignes, une par catégorie. L'import suspend donc les triggers le temps de son écriture,
+ * puis recalcule toutes les lignes en une fois à partir des tables des employés.
+ */
+@Service
+public class StatistiqueSalaireService {
+
+    private static final String UPDATE_MAINTENANCE = "UPDATE StatistiqueSalaireMaintenance SET differee = ?";
+
+    private static final String INSERT_STATISTIQUE = "INSERT INTO StatistiqueSalaire (categorie, nbEmployes, sommeSalaires) "
+            + "SELECT ?, COUNT(e.salaire), COALESCE(SUM(e.salaire), 0) FROM Employe e ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Suspend la mise à jour des statistiques par les triggers jusqu'au prochain appel de recalculer.
+     * Un import interrompu les laisse suspendues jusqu'à la fin de l'import suivant ou de sa reprise.
+     */
+    @Transactional
+    public void suspendre() {
+        jdbcTemplate.update(UPDATE_MAINTENANCE, true);
+    }
+
+    /**
+     * Recalcule toutes les statistiques à partir des tables des employés et rétablit leur mise à jour par les triggers,
+     * dans la même transaction
+     */
+    @Transactional
+    public void recalculer() {
+        jdbcTemplate.update(UPDATE_MAINTENANCE, false);
+        jdbcTemplate.update("DELETE FROM StatistiqueSalaire");
+        jdbcTemplate.update(INSERT_STATISTIQUE, StatistiqueSalaire.TOUS);
+        jdbcTemplate.update(INSERT_STATISTIQUE + "JOIN Manager m ON m.id = e.id", StatistiqueSalaire.categorie(Manager.class));
+        jdbcTemplate.update(INSERT_STATISTIQUE + "JOIN Commercial c ON c.id = e.id", StatistiqueSalaire.categorie(Commercial.class));
+        jdbcTemplate.update(INSERT_STATISTIQUE + "JOIN Technicien t ON t.id = e.id", StatistiqueSalaire.categorie(Technicien.class));
+        for (int grade = Technicien.GRADE_MIN; grade <= Technicien.GRADE_MAX; grade++) {
+            jdbcTemplate.update(INSERT_STATISTIQUE + "JOIN Technicien t ON t.id = e.id WHERE t.grade = ?",
+                    StatistiqueSalaire.categorieGrade(grade), grade);
+        }
+    }
+}
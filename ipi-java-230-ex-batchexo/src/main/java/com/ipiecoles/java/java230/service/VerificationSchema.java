@@ -0,0 +1,40 @@
+package com.ipiecoles.java.java230.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Vérification au démarrage des migrations obligatoires (db/README.md) : Hibernate ne valide pas le schéma
+ * (ddl-auto = none), une migration manquante ne ferait échouer que la première requête qui en dépend.
+ */
+@Component
+public class VerificationSchema {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void verifier() {
+        verifier("SELECT next_val FROM employe_seq WHERE 1 = 0", "003-sequence-employe.sql", "table employe_seq");
+        verifier("SELECT nomRecherche, prenomRecherche FROM Employe WHERE 1 = 0", "005-recherche-nom.sql",
+                "colonnes nomRecherche et prenomRecherche de Employe");
+    }
+
+    /**
+     * @param requete requête qui ne lit aucune ligne, en erreur si la migration n'a pas été exécutée
+     * @param migration le script de db/ qui crée ce que lit la requête
+     * @param description ce que crée la migration, pour le message d'erreur
+     */
+    private void verifier(String requete, String migration, String description) {
+        try {
+            jdbcTemplate.queryForList(requete);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Migration obligatoire " + migration + " non exécutée (" + description
+                    + " introuvable) : voir db/README.md", e);
+        }
+    }
+}
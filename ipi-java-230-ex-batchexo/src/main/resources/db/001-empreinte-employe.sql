@@ -0,0 +1,10 @@
+-- Empreinte de la ligne du fichier dont chaque employé a été importé, pour l'import incrémental (batch.delta.actif),
+-- dans une table à part de Employe : seul l'import incrémental la lit et l'écrit (EmpreintesEmployes), les autres
+-- modes n'ont pas besoin de ce script. Un employé modifié par un autre chemin (import non incrémental, application)
+-- garde l'empreinte de son dernier import incrémental : tant que sa ligne reste identique, il n'est pas réécrit.
+-- Vider la table (TRUNCATE EmpreinteEmploye) force la réécriture de tous les employés au prochain import incrémental.
+CREATE TABLE EmpreinteEmploye (
+    employe_id BIGINT NOT NULL PRIMARY KEY,
+    empreinte BIGINT NOT NULL,
+    CONSTRAINT fk_empreinte_employe FOREIGN KEY (employe_id) REFERENCES Employe (id) ON DELETE CASCADE
+);
@@ -0,0 +1,5 @@
+-- Le matricule devient la clé naturelle des employés : index unique, utilisé par findByMatricule
+-- et par l'écriture des imports en INSERT ... ON DUPLICATE KEY UPDATE (batch.ecriture = upsert).
+-- Les doublons déjà présents doivent être supprimés avant, ils sont listés par :
+-- SELECT matricule, COUNT(*) FROM Employe GROUP BY matricule HAVING COUNT(*) > 1;
+ALTER TABLE Employe ADD CONSTRAINT uk_employe_matricule UNIQUE (matricule);
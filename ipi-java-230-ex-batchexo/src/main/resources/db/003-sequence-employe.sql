@@ -0,0 +1,11 @@
+-- Identifiants des employés réservés par blocs de 1000 (Employe.INCREMENT_ID) dans une table de séquence,
+-- partagée par le générateur pooled d'Hibernate et l'écriture JDBC des imports, à la place de l'AUTO_INCREMENT
+-- qui empêche Hibernate de regrouper les insertions en batch.
+-- La première valeur lue, V, donne les identifiants V - 999 à V : on part après le plus grand identifiant existant.
+CREATE TABLE employe_seq (next_val BIGINT NOT NULL);
+INSERT INTO employe_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1000 FROM Employe;
+
+-- Plus aucun identifiant ne doit être attribué par MySQL, il pourrait l'être ensuite une seconde fois par la séquence
+SET foreign_key_checks = 0;
+ALTER TABLE Employe MODIFY id BIGINT NOT NULL;
+SET foreign_key_checks = 1;
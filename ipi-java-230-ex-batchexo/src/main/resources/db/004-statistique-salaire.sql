@@ -0,0 +1,153 @@
+-- Agrégats des salaires (nombre d'employés ayant un salaire et somme des salaires) tenus à jour par des triggers
+-- à chaque création, modification ou suppression d'employé, quel que soit le chemin d'écriture (JPA, imports JDBC, SQL).
+-- Une ligne par catégorie (StatistiqueSalaire) : tous les employés (Employe), chaque type (Manager, Technicien,
+-- Commercial) et chaque grade des techniciens (Technicien.1 à Technicien.5).
+-- Pendant un import (batch.statistiques.actif = true), les triggers sont suspendus par StatistiqueSalaireMaintenance
+-- et les agrégats recalculés en une fois à la fin (StatistiqueSalaireService), pour que les transactions des lots
+-- ne modifient pas toutes les mêmes lignes.
+-- A exécuter avec le client mysql (DELIMITER), import arrêté.
+CREATE TABLE StatistiqueSalaire (
+    categorie VARCHAR(32) NOT NULL PRIMARY KEY,
+    nbEmployes BIGINT NOT NULL DEFAULT 0,
+    sommeSalaires DOUBLE NOT NULL DEFAULT 0
+);
+
+-- Une seule ligne : differee vaut vrai pendant un import, les triggers ne font alors rien
+CREATE TABLE StatistiqueSalaireMaintenance (
+    differee BOOLEAN NOT NULL
+);
+INSERT INTO StatistiqueSalaireMaintenance (differee) VALUES (FALSE);
+
+-- Requêtes "au-dessus de la moyenne" : parcours d'intervalle de l'index à partir de la moyenne précalculée
+CREATE INDEX idx_employe_salaire ON Employe (salaire);
+
+-- Calcul complet des agrégats, comme StatistiqueSalaireService.recalculer : peut être rejoué (import arrêté) pour les recaler sur les tables
+REPLACE INTO StatistiqueSalaire (categorie, nbEmployes, sommeSalaires)
+    SELECT 'Employe', COUNT(e.salaire), COALESCE(SUM(e.salaire), 0) FROM Employe e;
+REPLACE INTO StatistiqueSalaire (categorie, nbEmployes, sommeSalaires)
+    SELECT 'Manager', COUNT(e.salaire), COALESCE(SUM(e.salaire), 0) FROM Manager m JOIN Employe e ON e.id = m.id;
+REPLACE INTO StatistiqueSalaire (categorie, nbEmployes, sommeSalaires)
+    SELECT 'Commercial', COUNT(e.salaire), COALESCE(SUM(e.salaire), 0) FROM Commercial c JOIN Employe e ON e.id = c.id;
+REPLACE INTO StatistiqueSalaire (categorie, nbEmployes, sommeSalaires)
+    SELECT 'Technicien', COUNT(e.salaire), COALESCE(SUM(e.salaire), 0) FROM Technicien t JOIN Employe e ON e.id = t.id;
+REPLACE INTO StatistiqueSalaire (categorie, nbEmployes, sommeSalaires)
+    SELECT CONCAT('Technicien.', g.grade), COUNT(e.salaire), COALESCE(SUM(e.salaire), 0)
+    FROM (SELECT 1 AS grade UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5) g
+    LEFT JOIN Technicien t ON t.grade = g.grade
+    LEFT JOIN Employe e ON e.id = t.id
+    GROUP BY g.grade;
+
+-- L'héritage JOINED écrit la ligne Employe avant celle de son type et supprime la ligne du type avant la ligne Employe :
+-- les triggers de Employe tiennent la ligne de tous les employés, ceux de chaque type la ligne de leur type (et de leur
+-- grade), en lisant le salaire dans Employe. Une modification de salaire est reportée sur toutes les lignes de l'employé.
+-- L'UPDATE n'est pas exécuté du tout pendant un import : les lignes de StatistiqueSalaire ne sont alors pas verrouillées.
+DELIMITER $$
+
+CREATE TRIGGER employe_statistique_insert AFTER INSERT ON Employe FOR EACH ROW
+BEGIN
+    IF NOT (SELECT differee FROM StatistiqueSalaireMaintenance) THEN
+        UPDATE StatistiqueSalaire s
+        SET s.nbEmployes = s.nbEmployes + (NEW.salaire IS NOT NULL),
+            s.sommeSalaires = s.sommeSalaires + COALESCE(NEW.salaire, 0)
+        WHERE s.categorie = 'Employe';
+    END IF;
+END$$
+
+CREATE TRIGGER employe_statistique_update AFTER UPDATE ON Employe FOR EACH ROW
+BEGIN
+    IF NOT (SELECT differee FROM StatistiqueSalaireMaintenance) THEN
+        UPDATE StatistiqueSalaire s
+        SET s.nbEmployes = s.nbEmployes - (OLD.salaire IS NOT NULL) + (NEW.salaire IS NOT NULL),
+            s.sommeSalaires = s.sommeSalaires - COALESCE(OLD.salaire, 0) + COALESCE(NEW.salaire, 0)
+        WHERE NOT (OLD.salaire <=> NEW.salaire)
+        AND (s.categorie = 'Employe'
+            OR s.categorie = (SELECT 'Manager' FROM Manager m WHERE m.id = NEW.id)
+            OR s.categorie = (SELECT 'Commercial' FROM Commercial c WHERE c.id = NEW.id)
+            OR s.categorie = (SELECT 'Technicien' FROM Technicien t WHERE t.id = NEW.id)
+            OR s.categorie = (SELECT CONCAT('Technicien.', t.grade) FROM Technicien t WHERE t.id = NEW.id));
+    END IF;
+END$$
+
+CREATE TRIGGER employe_statistique_delete AFTER DELETE ON Employe FOR EACH ROW
+BEGIN
+    IF NOT (SELECT differee FROM StatistiqueSalaireMaintenance) THEN
+        UPDATE StatistiqueSalaire s
+        SET s.nbEmployes = s.nbEmployes - (OLD.salaire IS NOT NULL),
+            s.sommeSalaires = s.sommeSalaires - COALESCE(OLD.salaire, 0)
+        WHERE s.categorie = 'Employe';
+    END IF;
+END$$
+
+CREATE TRIGGER manager_statistique_insert AFTER INSERT ON Manager FOR EACH ROW
+BEGIN
+    IF NOT (SELECT differee FROM StatistiqueSalaireMaintenance) THEN
+        UPDATE StatistiqueSalaire s JOIN Employe e ON e.id = NEW.id
+        SET s.nbEmployes = s.nbEmployes + (e.salaire IS NOT NULL),
+            s.sommeSalaires = s.sommeSalaires + COALESCE(e.salaire, 0)
+        WHERE s.categorie = 'Manager';
+    END IF;
+END$$
+
+CREATE TRIGGER manager_statistique_delete AFTER DELETE ON Manager FOR EACH ROW
+BEGIN
+    IF NOT (SELECT differee FROM StatistiqueSalaireMaintenance) THEN
+        UPDATE StatistiqueSalaire s JOIN Employe e ON e.id = OLD.id
+        SET s.nbEmployes = s.nbEmployes - (e.salaire IS NOT NULL),
+            s.sommeSalaires = s.sommeSalaires - COALESCE(e.salaire, 0)
+        WHERE s.categorie = 'Manager';
+    END IF;
+END$$
+
+CREATE TRIGGER commercial_statistique_insert AFTER INSERT ON Commercial FOR EACH ROW
+BEGIN
+    IF NOT (SELECT differee FROM StatistiqueSalaireMaintenance) THEN
+        UPDATE StatistiqueSalaire s JOIN Employe e ON e.id = NEW.id
+        SET s.nbEmployes = s.nbEmployes + (e.salaire IS NOT NULL),
+            s.sommeSalaires = s.sommeSalaires + COALESCE(e.salaire, 0)
+        WHERE s.categorie = 'Commercial';
+    END IF;
+END$$
+
+CREATE TRIGGER commercial_statistique_delete AFTER DELETE ON Commercial FOR EACH ROW
+BEGIN
+    IF NOT (SELECT differee FROM StatistiqueSalaireMaintenance) THEN
+        UPDATE StatistiqueSalaire s JOIN Employe e ON e.id = OLD.id
+        SET s.nbEmployes = s.nbEmployes - (e.salaire IS NOT NULL),
+            s.sommeSalaires = s.sommeSalaires - COALESCE(e.salaire, 0)
+        WHERE s.categorie = 'Commercial';
+    END IF;
+END$$
+
+CREATE TRIGGER technicien_statistique_insert AFTER INSERT ON Technicien FOR EACH ROW
+BEGIN
+    IF NOT (SELECT differee FROM StatistiqueSalaireMaintenance) THEN
+        UPDATE StatistiqueSalaire s JOIN Employe e ON e.id = NEW.id
+        SET s.nbEmployes = s.nbEmployes + (e.salaire IS NOT NULL),
+            s.sommeSalaires = s.sommeSalaires + COALESCE(e.salaire, 0)
+        WHERE s.categorie IN ('Technicien', CONCAT('Technicien.', NEW.grade));
+    END IF;
+END$$
+
+-- Changement de grade : le salaire passe de la ligne de l'ancien grade à celle du nouveau
+CREATE TRIGGER technicien_statistique_update AFTER UPDATE ON Technicien FOR EACH ROW
+BEGIN
+    IF NOT (SELECT differee FROM StatistiqueSalaireMaintenance) THEN
+        UPDATE StatistiqueSalaire s JOIN Employe e ON e.id = NEW.id
+        SET s.nbEmployes = s.nbEmployes + IF(s.categorie = CONCAT('Technicien.', NEW.grade), 1, -1) * (e.salaire IS NOT NULL),
+            s.sommeSalaires = s.sommeSalaires + IF(s.categorie = CONCAT('Technicien.', NEW.grade), 1, -1) * COALESCE(e.salaire, 0)
+        WHERE NOT (OLD.grade <=> NEW.grade)
+        AND s.categorie IN (CONCAT('Technicien.', OLD.grade), CONCAT('Technicien.', NEW.grade));
+    END IF;
+END$$
+
+CREATE TRIGGER technicien_statistique_delete AFTER DELETE ON Technicien FOR EACH ROW
+BEGIN
+    IF NOT (SELECT differee FROM StatistiqueSalaireMaintenance) THEN
+        UPDATE StatistiqueSalaire s JOIN Employe e ON e.id = OLD.id
+        SET s.nbEmployes = s.nbEmployes - (e.salaire IS NOT NULL),
+            s.sommeSalaires = s.sommeSalaires - COALESCE(e.salaire, 0)
+        WHERE s.categorie IN ('Technicien', CONCAT('Technicien.', OLD.grade));
+    END IF;
+END$$
+
+DELIMITER ;
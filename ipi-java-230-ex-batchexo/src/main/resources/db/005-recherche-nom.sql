@@ -0,0 +1,6 @@
+-- Nom et prénom en minuscules (Employe.normaliserRecherche), écrits par JPA et par les imports JDBC, pour que les
+-- recherches sans distinction de casse et par préfixe utilisent un index au lieu de lower(nom) sur toute la table.
+ALTER TABLE Employe ADD COLUMN nomRecherche VARCHAR(255) NULL, ADD COLUMN prenomRecherche VARCHAR(255) NULL;
+UPDATE Employe SET nomRecherche = LOWER(nom), prenomRecherche = LOWER(prenom);
+CREATE INDEX idx_employe_nom_recherche ON Employe (nomRecherche);
+CREATE INDEX idx_employe_prenom_recherche ON Employe (prenomRecherche);
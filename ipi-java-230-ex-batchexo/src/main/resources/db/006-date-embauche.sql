@@ -0,0 +1,3 @@
+-- Pagination par clé sur la date d'embauche (BaseEmployeRepository.pageSuivanteParDateEmbauche) : chaque page
+-- est lue par un parcours de l'index à partir de la dernière date de la page précédente.
+CREATE INDEX idx_employe_date_embauche ON Employe (dateEmbauche);
@@ -0,0 +1,22 @@
+-- Résultats des calculs de paie (PaieService) : une ligne par employé et par date de référence.
+-- Un nouveau calcul pour la même date remplace les lignes du précédent, une fois terminé.
+CREATE TABLE Paie (
+    dateReference DATE NOT NULL,
+    employe_id BIGINT NOT NULL,
+    anciennete INT NULL,
+    nbConges INT NULL,
+    primeAnnuelle DOUBLE NULL,
+    PRIMARY KEY (dateReference, employe_id),
+    FOREIGN KEY (employe_id) REFERENCES Employe (id)
+);
+
+-- Table de travail du calcul en cours : ses lignes ne remplacent celles de Paie qu'à la fin du calcul, en une transaction,
+-- pour qu'un calcul en échec laisse intacts les résultats précédents à la même date
+CREATE TABLE PaieCalcul (
+    dateReference DATE NOT NULL,
+    employe_id BIGINT NOT NULL,
+    anciennete INT NULL,
+    nbConges INT NULL,
+    primeAnnuelle DOUBLE NULL,
+    PRIMARY KEY (dateReference, employe_id)
+);
@@ -0,0 +1,94 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AllocateurIdsTest {
+
+    @InjectMocks
+    private AllocateurIds allocateurIds;
+
+    @Mock
+    private SequenceEmploye sequenceEmploye;
+
+    private List<Employe> employes(int nb) {
+        List<Employe> employes = new ArrayList<>();
+        for (int i = 0; i < nb; i++) {
+            employes.add(i % 2 == 0 ? new Manager() : new Commercial());
+        }
+        return employes;
+    }
+
+    @Test
+    public void testBlocCommeLOptimiseurPooled() {
+        //Given
+        Mockito.when(sequenceEmploye.avancer(1)).thenReturn(5000L);
+        List<Employe> employes = employes(3);
+
+        //When
+        allocateurIds.affecterIds(employes);
+
+        //Then
+        Assertions.assertThat(employes).extracting(Employe::getId).containsExactly(4001L, 4002L, 4003L);
+    }
+
+    @Test
+    public void testIdsDejaAttribuesConserves() {
+        //Given
+        Mockito.when(sequenceEmploye.avancer(1)).thenReturn(5000L);
+        List<Employe> employes = employes(3);
+        employes.get(1).setId(12L);
+
+        //When
+        allocateurIds.affecterIds(employes);
+
+        //Then
+        Assertions.assertThat(employes).extracting(Employe::getId).containsExactly(4001L, 12L, 4002L);
+    }
+
+    @Test
+    public void testPlusieursBlocs() {
+        //Given
+        Mockito.when(sequenceEmploye.avancer(2)).thenReturn(5000L);
+        Mockito.when(sequenceEmploye.avancer(1)).thenReturn(7000L);
+        List<Employe> premierLot = employes(1500);
+        List<Employe> secondLot = employes(600);
+
+        //When
+        allocateurIds.affecterIds(premierLot);
+        allocateurIds.affecterIds(secondLot);
+
+        //Then
+        Assertions.assertThat(premierLot.get(0).getId()).isEqualTo(4001L);
+        Assertions.assertThat(premierLot.get(1499).getId()).isEqualTo(5500L);
+        Assertions.assertThat(secondLot.get(499).getId()).isEqualTo(6000L);
+        Assertions.assertThat(secondLot.get(500).getId()).isEqualTo(6001L);
+        Assertions.assertThat(secondLot.get(599).getId()).isEqualTo(6100L);
+    }
+
+    @Test
+    public void testSequenceAValeurInitiale() {
+        //Given
+        Mockito.when(sequenceEmploye.avancer(1)).thenReturn(1L, 1001L);
+        List<Employe> employes = employes(2);
+
+        //When
+        allocateurIds.affecterIds(employes);
+
+        //Then
+        //la valeur initiale ne donne que l'identifiant 1, la suivante donne 2 à 1001
+        Assertions.assertThat(employes).extracting(Employe::getId).containsExactly(1L, 2L);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Technicien;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+public class AnalyseurLigneTest {
+
+    private final AnalyseurLigne analyseurLigne = new AnalyseurLigne();
+
+    private LigneAnalysee analyser(String ligne) {
+        return analyseurLigne.analyser(new LigneCsv(), ligne);
+    }
+
+    @Test
+    public void testLignesValides() {
+        //When
+        LigneAnalysee manager = analyser("M87654,durand,jacques,04/06/2013,1200.5");
+        LigneAnalysee technicien = analyser("T98765,dupont,pierre,12/03/2003,1700.5,5,M87654");
+        LigneAnalysee commercial = analyser("C32154,aubert,michel,05/09/2018,2200.5,150000,100");
+
+        //Then
+        Assertions.assertThat(manager.getEmploye()).isInstanceOf(Manager.class);
+        Assertions.assertThat(manager.getEmploye().getMatricule()).isEqualTo("M87654");
+        Assertions.assertThat(technicien.getEmploye()).isInstanceOf(Technicien.class);
+        Assertions.assertThat(((Technicien) technicien.getEmploye()).getGrade()).isEqualTo(5);
+        Assertions.assertThat(technicien.getMatriculeManager()).isEqualTo("M87654");
+        Assertions.assertThat(commercial.getEmploye()).isInstanceOf(Commercial.class);
+        Assertions.assertThat(((Commercial) commercial.getEmploye()).getPerformance()).isEqualTo(100);
+        Assertions.assertThat(commercial.getErreur()).isNull();
+    }
+
+    @Test
+    public void testMessagesErreur() {
+        Assertions.assertThat(analyser("XXXXXX,durand,jacques,04/06/2013,1200.5").getMessageErreur())
+                .isEqualTo("Type d'employé inconnu");
+        Assertions.assertThat(analyser("M12,durand,jacques,04/06/2013,1200.5").getMessageErreur())
+                .isEqualTo("la chaîne M12 ne respecte pas l'expression régulière ^M[0-9]{5}$");
+        Assertions.assertThat(analyser("M12345,durand,jacques,").getMessageErreur())
+                .isEqualTo("La ligne manager ne contient pas 5 éléments mais 3");
+        Assertions.assertThat(analyser("M12345,durand,jacques,04/99/2013,1200.5").getMessageErreur())
+                .isEqualTo("04/99/2013 ne respecte pas le format de date dd/MM/yyyy");
+        Assertions.assertThat(analyser("M12345,durand,jacques,04/06/2013,sdf").getMessageErreur())
+                .isEqualTo("sdf n'est pas un nombre valide pour un salaire");
+        Assertions.assertThat(analyser("C12345,aubert,michel,05/09/2018,2200.5,xxx,100").getMessageErreur())
+                .isEqualTo("Le chiffre d'affaire du commercial est incorrect");
+        Assertions.assertThat(analyser("C12345,aubert,michel,05/09/2018,2200.5,150000.0,xxx").getMessageErreur())
+                .isEqualTo("La performance du commercial est incorrecte");
+        Assertions.assertThat(analyser("T12345,dupont,pierre,12/03/2003,1700.5,X,M00001").getMessageErreur())
+                .isEqualTo("Le grade du technicien est incorrect");
+        Assertions.assertThat(analyser("T12345,dupont,pierre,12/03/2003,1700.5,5,xxx").getMessageErreur())
+                .isEqualTo("la chaîne xxx ne respecte pas l'expression régulière ^M[0-9]{5}$");
+    }
+
+    @Test
+    public void testErreurTechnicienApresManager() {
+        //When
+        LigneAnalysee analyse = analyser("T12345,dupont,pierre,12/03/2003,1700.5,9,M00001");
+
+        //Then
+        Assertions.assertThat(analyse.getEmploye()).isNull();
+        Assertions.assertThat(analyse.isErreurApresManager()).isTrue();
+        Assertions.assertThat(analyse.getMatriculeManager()).isEqualTo("M00001");
+        Assertions.assertThat(analyse.getMessageErreur()).isEqualTo("Le grade doit être compris entre 1 et 5");
+    }
+}
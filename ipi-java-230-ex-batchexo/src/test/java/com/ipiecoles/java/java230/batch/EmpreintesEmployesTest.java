@@ -0,0 +1,96 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class EmpreintesEmployesTest {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private EmpreintesEmployes empreintesEmployes;
+
+    @Before
+    public void setUp() {
+        //mode MySQL pour INSERT ... ON DUPLICATE KEY UPDATE et VALUES(colonne)
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+                .addScript("db/mode-mysql.sql").addScript("db/schema-h2.sql").build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.update("INSERT INTO Employe (id, nom, prenom, matricule, salaire) VALUES (1, 'durand', 'jacques', 'M12345', 2500)");
+        jdbcTemplate.update("INSERT INTO Manager (id) VALUES (1)");
+        jdbcTemplate.update("INSERT INTO Employe (id, nom, prenom, matricule, salaire) VALUES (2, 'aubert', 'michel', 'C12345', 1500)");
+        jdbcTemplate.update("INSERT INTO Commercial (id, caAnnuel, performance) VALUES (2, 40000, 100)");
+        empreintesEmployes = new EmpreintesEmployes();
+        ReflectionTestUtils.setField(empreintesEmployes, "jdbcTemplate", new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    private static <T extends Employe> T employe(T employe, long id) {
+        employe.setId(id);
+        return employe;
+    }
+
+    @Test
+    public void testEmployesSansEmpreinte() {
+        //When
+        EmployesExistants existants = empreintesEmployes.trouverExistants(Arrays.asList("M12345", "C12345", "T12345"));
+
+        //Then
+        //importés sans l'import incrémental : ils seront réécrits une fois
+        Assertions.assertThat(existants.size()).isEqualTo(2);
+        Assertions.assertThat(existants.trouver("M12345").getId()).isEqualTo(1L);
+        Assertions.assertThat(existants.trouver("M12345").getType()).isEqualTo("Manager");
+        Assertions.assertThat(existants.trouver("C12345").getType()).isEqualTo("Commercial");
+        Assertions.assertThat(existants.trouver("C12345").inchange(42L)).isFalse();
+        Assertions.assertThat(existants.trouver("T12345")).isNull();
+        Assertions.assertThat(empreintesEmployes.trouverExistants(Collections.emptyList()).size()).isZero();
+    }
+
+    @Test
+    public void testEmpreintesEcritesPuisMisesAJour() {
+        //Given
+        empreintesEmployes.ecrire(Arrays.asList(employe(new Manager(), 1L), employe(new Commercial(), 2L)), Arrays.asList(42L, 43L));
+
+        //When
+        empreintesEmployes.ecrire(Collections.singletonList(employe(new Commercial(), 2L)), Collections.singletonList(44L));
+
+        //Then
+        EmployesExistants existants = empreintesEmployes.trouverExistants(Arrays.asList("M12345", "C12345"));
+        Assertions.assertThat(existants.trouver("M12345").inchange(42L)).isTrue();
+        Assertions.assertThat(existants.trouver("C12345").inchange(43L)).isFalse();
+        Assertions.assertThat(existants.trouver("C12345").inchange(44L)).isTrue();
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM EmpreinteEmploye", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    public void testEmpreinteSupprimeeAvecLEmploye() {
+        //Given
+        empreintesEmployes.ecrire(Collections.singletonList(employe(new Commercial(), 2L)), Collections.singletonList(43L));
+
+        //When
+        jdbcTemplate.update("DELETE FROM Commercial WHERE id = 2");
+        jdbcTemplate.update("DELETE FROM Employe WHERE id = 2");
+
+        //Then
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM EmpreinteEmploye", Integer.class)).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.exceptions.TechnicienException;
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Technicien;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+public class ExportEmployesTest {
+
+    private final StringWriter writer = new StringWriter();
+
+    private final ExportEmployes.LignesFichier lignes = new ExportEmployes.LignesFichier(writer);
+
+    private final AnalyseurLigne analyseurLigne = new AnalyseurLigne();
+
+    private final LigneCsv ligneCsv = new LigneCsv();
+
+    private Employe reimporter() {
+        LigneAnalysee analyse = analyseurLigne.analyser(ligneCsv, writer.toString().trim());
+        Assertions.assertThat(analyse.getErreur()).as(writer.toString()).isNull();
+        writer.getBuffer().setLength(0);
+        return analyse.getEmploye();
+    }
+
+    @Test
+    public void testFormatDesLignes() throws IOException {
+        //When
+        lignes.manager(new Object[]{"M87654", "durand", "jacques", new LocalDate(2013, 6, 4), 1300.0});
+        lignes.technicien(new Object[]{"T98765", "dupont", "pierre", new LocalDate(2003, 3, 12), 1500.0, 5, "M87654"});
+        lignes.commercial(new Object[]{"C32154", "aubert", "michel", new LocalDate(2018, 9, 5), 2200.5, 150000.0, 100});
+
+        //Then
+        Assertions.assertThat(writer.toString()).isEqualTo("M87654,durand,jacques,04/06/2013,1000.0\n"
+                + "T98765,dupont,pierre,12/03/2003,1000.0,5,M87654\n"
+                + "C32154,aubert,michel,05/09/2018,2200.5,150000.0,100\n");
+    }
+
+    @Test
+    public void testSalairesReimportesALIdentique() throws IOException, TechnicienException {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            //Given : des salaires calculés par l'import à partir de ceux d'un fichier
+            double salaireFichier = Math.round(random.nextDouble() * 1000000) / 100.0;
+            int grade = 1 + random.nextInt(5);
+            Manager manager = new Manager();
+            manager.setSalaire(salaireFichier);
+            Technicien technicien = new Technicien();
+            technicien.setGrade(grade);
+            technicien.setSalaire(salaireFichier);
+
+            //When
+            lignes.manager(new Object[]{"M12345", "durand", "jacques", new LocalDate(2013, 6, 4), manager.getSalaire()});
+            Employe managerReimporte = reimporter();
+            lignes.technicien(new Object[]{"T12345", "dupont", "pierre", new LocalDate(2003, 3, 12), technicien.getSalaire(), grade, "M12345"});
+            Employe technicienReimporte = reimporter();
+            lignes.commercial(new Object[]{"C12345", "aubert", "michel", new LocalDate(2018, 9, 5), salaireFichier, salaireFichier * 100, 100});
+            Employe commercialReimporte = reimporter();
+
+            //Then
+            Assertions.assertThat(managerReimporte.getSalaire()).isEqualTo(manager.getSalaire());
+            Assertions.assertThat(((Technicien) technicienReimporte).getGrade()).isEqualTo(grade);
+            Assertions.assertThat(technicienReimporte.getSalaire()).isEqualTo(technicien.getSalaire());
+            Assertions.assertThat(commercialReimporte.getSalaire()).isEqualTo(salaireFichier);
+            Assertions.assertThat(((Commercial) commercialReimporte).getCaAnnuel()).isEqualTo(salaireFichier * 100);
+        }
+    }
+
+    @Test
+    public void testSalaireModifieEnBdd() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            //Given : un salaire augmenté en BDD, qui peut n'être le résultat d'aucun salaire de fichier
+            double salaire = Math.round(random.nextDouble() * 1000000) / 100.0 * (1 + random.nextInt(20) / 100.0);
+
+            //When
+            lignes.manager(new Object[]{"M12345", "durand", "jacques", new LocalDate(2013, 6, 4), salaire});
+
+            //Then
+            Assertions.assertThat(reimporter().getSalaire()).isCloseTo(salaire, Assertions.within(Math.ulp(salaire)));
+        }
+    }
+
+    @Test
+    public void testChampsNull() throws IOException {
+        //When
+        lignes.technicien(new Object[]{"T12345", "dupont", "pierre", null, null, null, null});
+
+        //Then
+        Assertions.assertThat(writer.toString()).isEqualTo("T12345,dupont,pierre,,,,\n");
+    }
+}
@@ -0,0 +1,95 @@
+package com.ipiecoles.java.java230.batch;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class FichierRejetsTest {
+
+    @Rule
+    public TemporaryFolder dossier = new TemporaryFolder();
+
+    @Test
+    public void testEcritureDesRejets() throws Exception {
+        //Given
+        String fileName = dossier.getRoot().toPath().resolve("employes.csv").toString();
+
+        //When
+        FichierRejets fichierRejets = new FichierRejets(fileName);
+        fichierRejets.rejeter(5, "XXXXXX,durand,jacques,04/06/2013,1200.5", LigneAnalysee.erreur(ErreurLigne.TYPE_INCONNU));
+        fichierRejets.rejeter(10, "M12345,durand,jacques,04/06/2013,sdf", LigneAnalysee.erreur(ErreurLigne.SALAIRE, "sdf"));
+        fichierRejets.close();
+
+        //Then
+        Assertions.assertThat(fichierRejets.getNbRejets()).isEqualTo(2);
+        Assertions.assertThat(Files.readAllLines(Paths.get(fileName + FichierRejets.SUFFIXE_LIGNES), StandardCharsets.UTF_8))
+                .containsExactly("XXXXXX,durand,jacques,04/06/2013,1200.5", "M12345,durand,jacques,04/06/2013,sdf");
+        Assertions.assertThat(Files.readAllLines(Paths.get(fileName + FichierRejets.SUFFIXE_MESSAGES), StandardCharsets.UTF_8))
+                .containsExactly("Ligne 5 : Type d'employé inconnu => XXXXXX,durand,jacques,04/06/2013,1200.5",
+                        "Ligne 10 : sdf n'est pas un nombre valide pour un salaire => M12345,durand,jacques,04/06/2013,sdf");
+    }
+
+    @Test
+    public void testPlusDeRejetsQueLaCapaciteDeLaFile() throws Exception {
+        //Given
+        String fileName = dossier.getRoot().toPath().resolve("employes.csv").toString();
+        int nbRejets = FichierRejets.CAPACITE * 3;
+
+        //When
+        try (FichierRejets fichierRejets = new FichierRejets(fileName)) {
+            for (int i = 1; i <= nbRejets; i++) {
+                fichierRejets.rejeter(i, "XXXXXX", LigneAnalysee.erreur(ErreurLigne.TYPE_INCONNU));
+            }
+        }
+
+        //Then
+        Assertions.assertThat(Files.readAllLines(Paths.get(fileName + FichierRejets.SUFFIXE_LIGNES), StandardCharsets.UTF_8)).hasSize(nbRejets);
+    }
+
+    @Test
+    public void testSynchroniserEcritLesRejetsAvantLaFermeture() throws Exception {
+        //Given
+        String fileName = dossier.getRoot().toPath().resolve("employes.csv").toString();
+        try (FichierRejets fichierRejets = new FichierRejets(fileName, 0)) {
+            fichierRejets.rejeter(5, "XXXXXX,1", LigneAnalysee.erreur(ErreurLigne.TYPE_INCONNU));
+            fichierRejets.rejeter(6, "XXXXXX,2", LigneAnalysee.erreur(ErreurLigne.TYPE_INCONNU));
+
+            //When
+            long nbEcrits = fichierRejets.synchroniser();
+
+            //Then
+            Assertions.assertThat(nbEcrits).isEqualTo(2);
+            Assertions.assertThat(Files.readAllLines(Paths.get(fileName + FichierRejets.SUFFIXE_LIGNES), StandardCharsets.UTF_8))
+                    .containsExactly("XXXXXX,1", "XXXXXX,2");
+            Assertions.assertThat(Files.readAllLines(Paths.get(fileName + FichierRejets.SUFFIXE_MESSAGES), StandardCharsets.UTF_8))
+                    .hasSize(2);
+        }
+    }
+
+    @Test
+    public void testRepriseConserveLesPremiersRejets() throws Exception {
+        //Given
+        String fileName = dossier.getRoot().toPath().resolve("employes.csv").toString();
+        try (FichierRejets fichierRejets = new FichierRejets(fileName)) {
+            fichierRejets.rejeter(5, "XXXXXX,1", LigneAnalysee.erreur(ErreurLigne.TYPE_INCONNU));
+            fichierRejets.rejeter(6, "XXXXXX,2", LigneAnalysee.erreur(ErreurLigne.TYPE_INCONNU));
+        }
+
+        //When
+        FichierRejets fichierRejets = new FichierRejets(fileName, 1);
+        fichierRejets.rejeter(6, "XXXXXX,2", LigneAnalysee.erreur(ErreurLigne.TYPE_INCONNU));
+        fichierRejets.close();
+
+        //Then
+        Assertions.assertThat(fichierRejets.getNbRejets()).isEqualTo(2);
+        Assertions.assertThat(Files.readAllLines(Paths.get(fileName + FichierRejets.SUFFIXE_LIGNES), StandardCharsets.UTF_8))
+                .containsExactly("XXXXXX,1", "XXXXXX,2");
+        Assertions.assertThat(Files.readAllLines(Paths.get(fileName + FichierRejets.SUFFIXE_MESSAGES), StandardCharsets.UTF_8))
+                .containsExactly("Ligne 5 : Type d'employé inconnu => XXXXXX,1", "Ligne 6 : Type d'employé inconnu => XXXXXX,2");
+    }
+}
@@ -0,0 +1,136 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.model.Manager;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class GenerateurFichierTest {
+
+    private final GenerateurFichier generateur = new GenerateurFichier();
+
+    private final AnalyseurLigne analyseurLigne = new AnalyseurLigne();
+
+    private final LigneCsv ligneCsv = new LigneCsv();
+
+    private String[] lignes(int nbLignes) throws IOException {
+        StringWriter writer = new StringWriter();
+        generateur.ecrire(writer, nbLignes);
+        return writer.toString().split("\n");
+    }
+
+    @Test
+    public void testNbLignesSansDoublon() {
+        //Then
+        //100 000 techniciens, 10/16 des lignes
+        Assertions.assertThat(generateur.getNbLignesSansDoublon()).isEqualTo(160000);
+        generateur.setProportions(1, 0, 0);
+        Assertions.assertThat(generateur.getNbLignesSansDoublon()).isEqualTo(GenerateurFichier.DEBUT_MANAGERS_INCONNUS);
+    }
+
+    @Test
+    public void testMemeGraineMemeFichier() throws IOException {
+        //Given
+        String[] premier = lignes(1000);
+
+        //When
+        String[] second = lignes(1000);
+        generateur.setGraine(generateur.getGraine() + 1);
+        String[] autreGraine = lignes(1000);
+
+        //Then
+        Assertions.assertThat(second).containsExactly(premier);
+        Assertions.assertThat(autreGraine).isNotEqualTo(premier);
+    }
+
+    @Test
+    public void testLignesValidesEtManagersAvantLeursTechniciens() throws IOException {
+        //When
+        String[] lignes = lignes(10000);
+
+        //Then
+        Assertions.assertThat(lignes).hasSize(10000);
+        Set<String> managers = new HashSet<>();
+        for (String ligne : lignes) {
+            LigneAnalysee analyse = analyseurLigne.analyser(ligneCsv, ligne);
+            Assertions.assertThat(analyse.getErreur()).as(ligne).isNull();
+            if (analyse.getEmploye() instanceof Manager) {
+                managers.add(analyse.getEmploye().getMatricule());
+            }
+            if (analyse.getMatriculeManager() != null) {
+                Assertions.assertThat(managers).as(ligne).contains(analyse.getMatriculeManager());
+            }
+        }
+    }
+
+    @Test
+    public void testTauxErreur() throws IOException {
+        //Given
+        generateur.setTauxErreur(ErreurLigne.DATE, 1);
+
+        //When
+        String[] lignes = lignes(1000);
+
+        //Then
+        for (String ligne : lignes) {
+            Assertions.assertThat(analyseurLigne.analyser(ligneCsv, ligne).getErreur()).as(ligne).isEqualTo(ErreurLigne.DATE);
+        }
+    }
+
+    @Test
+    public void testErreurPropreAUnType() throws IOException {
+        //Given
+        generateur.setTauxErreur(ErreurLigne.GRADE, 1);
+
+        //When
+        String[] lignes = lignes(1000);
+
+        //Then
+        for (String ligne : lignes) {
+            ErreurLigne erreur = analyseurLigne.analyser(ligneCsv, ligne).getErreur();
+            Assertions.assertThat(erreur).as(ligne).isEqualTo(ligne.startsWith("T") ? ErreurLigne.GRADE : null);
+        }
+    }
+
+    @Test
+    public void testReferencesAvant() throws IOException {
+        //Given
+        generateur.setProportions(1, 10, 0);
+        generateur.setTauxReferencesAvant(0.2);
+
+        //When
+        String[] lignes = lignes(1000);
+
+        //Then
+        Set<String> managersLus = new HashSet<>();
+        List<String> managersReferences = new ArrayList<>();
+        int nbReferencesAvant = 0;
+        for (String ligne : lignes) {
+            LigneAnalysee analyse = analyseurLigne.analyser(ligneCsv, ligne);
+            if (analyse.getEmploye() instanceof Manager) {
+                managersLus.add(analyse.getEmploye().getMatricule());
+            } else {
+                if (!managersLus.contains(analyse.getMatriculeManager())) {
+                    nbReferencesAvant++;
+                }
+                managersReferences.add(analyse.getMatriculeManager());
+            }
+        }
+        Assertions.assertThat(nbReferencesAvant).isBetween(100, 300);
+        Assertions.assertThat(managersLus).containsAll(managersReferences);
+    }
+
+    @Test
+    public void testErreurNonInjectable() {
+        Assertions.assertThatThrownBy(() -> generateur.setTauxErreur(ErreurLigne.TYPE_MODIFIE, 0.1))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> generateur.setTauxErreur(ErreurLigne.DATE, 1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
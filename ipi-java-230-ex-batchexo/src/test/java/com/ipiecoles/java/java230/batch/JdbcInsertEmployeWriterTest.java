@@ -0,0 +1,146 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.exceptions.TechnicienException;
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Technicien;
+import com.ipiecoles.java.java230.repository.ManagerRepository;
+import com.ipiecoles.java.java230.service.CacheManagers;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+public class JdbcInsertEmployeWriterTest {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcInsertEmployeWriter writer;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+                .addScript("db/schema-h2.sql").build();
+        jdbcTemplate = new JdbcTemplate(database);
+        SequenceEmploye sequenceEmploye = new SequenceEmploye();
+        ReflectionTestUtils.setField(sequenceEmploye, "jdbcTemplate", jdbcTemplate);
+        AllocateurIds allocateurIds = new AllocateurIds();
+        ReflectionTestUtils.setField(allocateurIds, "sequenceEmploye", sequenceEmploye);
+        writer = new JdbcInsertEmployeWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "allocateurIds", allocateurIds);
+        cacheManager = new ConcurrentMapCacheManager(ManagerRepository.CACHE_PAR_MATRICULE);
+        CacheManagers cacheManagers = new CacheManagers();
+        ReflectionTestUtils.setField(cacheManagers, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(writer, "cacheManagers", cacheManagers);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    private static Manager manager(String matricule) {
+        return new Manager("durand", "jacques", matricule, new LocalDate(2013, 6, 4), 2500.0, new HashSet<>());
+    }
+
+    private static Technicien technicien(String matricule, Manager manager) throws TechnicienException {
+        Technicien technicien = new Technicien("dupont", "pierre", matricule, new LocalDate(2003, 3, 12), 1700.5, 5);
+        technicien.setManager(manager);
+        return technicien;
+    }
+
+    @Test
+    public void testIdsCoherentsEntreLesTables() throws TechnicienException {
+        //Given
+        Manager manager = manager("M12345");
+        List<Employe> lot = Arrays.asList(manager, technicien("T12345", manager),
+                new Commercial("aubert", "michel", "C12345", new LocalDate(2018, 9, 5), 1500.0, 40000.0, 100));
+
+        //When
+        writer.ecrire(lot);
+
+        //Then
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT id FROM Employe ORDER BY id", Long.class)).containsExactly(1L, 2L, 3L);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT e.matricule FROM Manager m JOIN Employe e ON e.id = m.id", String.class))
+                .isEqualTo("M12345");
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT m.matricule FROM Technicien t JOIN Employe e ON e.id = t.id "
+                + "JOIN Employe m ON m.id = t.manager_id WHERE e.matricule = 'T12345'", String.class)).isEqualTo("M12345");
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT e.matricule FROM Commercial c JOIN Employe e ON e.id = c.id", String.class))
+                .isEqualTo("C12345");
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM employe_seq", Long.class)).isEqualTo(1001L);
+    }
+
+    @Test
+    public void testColonnesDeRecherche() {
+        //Given
+        Commercial commercial = new Commercial("Aubert", "MICHEL", "C12345", new LocalDate(2018, 9, 5), 1500.0, 40000.0, 100);
+
+        //When
+        writer.ecrire(Arrays.asList(commercial));
+
+        //Then
+        Assertions.assertThat(jdbcTemplate.queryForMap("SELECT nomRecherche, prenomRecherche FROM Employe"))
+                .containsEntry("NOMRECHERCHE", "aubert").containsEntry("PRENOMRECHERCHE", "michel");
+    }
+
+    @Test
+    public void testManagerEvinceDuCache() {
+        //Given
+        cacheManager.getCache(ManagerRepository.CACHE_PAR_MATRICULE).put("M12345", 99L);
+
+        //When
+        writer.ecrire(Arrays.asList(manager("M12345")));
+
+        //Then
+        Assertions.assertThat(cacheManager.getCache(ManagerRepository.CACHE_PAR_MATRICULE).get("M12345")).isNull();
+    }
+
+    @Test
+    public void testTechnicienDontLeManagerEstDansUnLotPrecedent() throws TechnicienException {
+        //Given
+        Manager manager = manager("M12345");
+        writer.ecrire(Arrays.asList(manager));
+
+        //When
+        writer.ecrire(Arrays.asList(technicien("T12345", manager)));
+
+        //Then
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT manager_id FROM Technicien", Long.class)).isEqualTo(manager.getId());
+    }
+
+    @Test
+    public void testLotDePlusieursInstructions() {
+        //Given
+        int nb = JdbcInsertEmployeWriter.LIGNES_PAR_INSERT * 2 + 1;
+        List<Employe> lot = new ArrayList<>();
+        for (int i = 0; i < nb; i++) {
+            lot.add(new Commercial("aubert", "michel", String.format("C%05d", i), new LocalDate(2018, 9, 5), 1500.0, 40000.0, 100));
+        }
+
+        //When
+        writer.ecrire(lot);
+
+        //Then
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Employe", Integer.class)).isEqualTo(nb);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Commercial c JOIN Employe e ON e.id = c.id", Integer.class))
+                .isEqualTo(nb);
+    }
+}
@@ -0,0 +1,165 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.exceptions.TechnicienException;
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Technicien;
+import com.ipiecoles.java.java230.repository.ManagerRepository;
+import com.ipiecoles.java.java230.service.CacheManagers;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+public class JdbcUpsertEmployeWriterTest {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcUpsertEmployeWriter writer;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    @Before
+    public void setUp() {
+        //mode MySQL pour INSERT ... ON DUPLICATE KEY UPDATE et VALUES(colonne)
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+                .addScript("db/mode-mysql.sql").addScript("db/schema-h2.sql").build();
+        jdbcTemplate = new JdbcTemplate(database);
+        SequenceEmploye sequenceEmploye = new SequenceEmploye();
+        ReflectionTestUtils.setField(sequenceEmploye, "jdbcTemplate", jdbcTemplate);
+        AllocateurIds allocateurIds = new AllocateurIds();
+        ReflectionTestUtils.setField(allocateurIds, "sequenceEmploye", sequenceEmploye);
+        writer = new JdbcUpsertEmployeWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", new NamedParameterJdbcTemplate(jdbcTemplate));
+        ReflectionTestUtils.setField(writer, "allocateurIds", allocateurIds);
+        cacheManager = new ConcurrentMapCacheManager(ManagerRepository.CACHE_PAR_MATRICULE);
+        CacheManagers cacheManagers = new CacheManagers();
+        ReflectionTestUtils.setField(cacheManagers, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(writer, "cacheManagers", cacheManagers);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    private static Manager manager(String nom, Double salaire) {
+        return new Manager(nom, "jacques", "M12345", new LocalDate(2013, 6, 4), salaire, new HashSet<>());
+    }
+
+    private static Technicien technicien(Integer grade, Manager manager) throws TechnicienException {
+        Technicien technicien = new Technicien("dupont", "pierre", "T12345", new LocalDate(2003, 3, 12), 1700.5, grade);
+        technicien.setManager(manager);
+        return technicien;
+    }
+
+    private static Commercial commercial(Double caAnnuel) {
+        return new Commercial("aubert", "michel", "C12345", new LocalDate(2018, 9, 5), 1500.0, caAnnuel, 100);
+    }
+
+    @Test
+    public void testTechnicienDontLeManagerEstDansLeLot() throws TechnicienException {
+        //Given
+        Manager manager = manager("durand", 2500.0);
+        Technicien technicien = technicien(5, manager);
+
+        //When
+        writer.ecrire(Arrays.asList(manager, technicien));
+
+        //Then
+        Assertions.assertThat(manager.getId()).isNotNull();
+        Assertions.assertThat(technicien.getId()).isNotNull().isNotEqualTo(manager.getId());
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT id FROM Manager", Long.class)).isEqualTo(manager.getId());
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT manager_id FROM Technicien WHERE id = ?", Long.class, technicien.getId()))
+                .isEqualTo(manager.getId());
+    }
+
+    @Test
+    public void testReimportMetAJourSansDupliquer() throws TechnicienException {
+        //Given
+        Manager manager = manager("durand", 2500.0);
+        Commercial commercial = commercial(40000.0);
+        writer.ecrire(Arrays.asList(manager, technicien(2, manager), commercial));
+        Long idManager = manager.getId();
+        Long idCommercial = commercial.getId();
+
+        //When
+        Manager managerReimporte = manager("Martin", 3000.0);
+        Technicien technicienReimporte = technicien(4, managerReimporte);
+        Commercial commercialReimporte = commercial(50000.0);
+        List<Employe> lot = Arrays.asList(managerReimporte, technicienReimporte, commercialReimporte);
+        writer.ecrire(lot);
+
+        //Then
+        //chaque employé réimporté reprend l'identifiant de la ligne existante, relu après l'upsert
+        Assertions.assertThat(managerReimporte.getId()).isEqualTo(idManager);
+        Assertions.assertThat(commercialReimporte.getId()).isEqualTo(idCommercial);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Employe", Integer.class)).isEqualTo(3);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Manager", Integer.class)).isEqualTo(1);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Technicien", Integer.class)).isEqualTo(1);
+        Assertions.assertThat(jdbcTemplate.queryForMap("SELECT nom, salaire, nomRecherche FROM Employe WHERE id = ?", idManager))
+                .containsEntry("NOM", "Martin").containsEntry("SALAIRE", managerReimporte.getSalaire()).containsEntry("NOMRECHERCHE", "martin");
+        Assertions.assertThat(jdbcTemplate.queryForMap("SELECT grade, manager_id FROM Technicien WHERE id = ?", technicienReimporte.getId()))
+                .containsEntry("GRADE", 4).containsEntry("MANAGER_ID", idManager);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT caAnnuel FROM Commercial WHERE id = ?", Double.class, idCommercial))
+                .isEqualTo(50000.0);
+    }
+
+    @Test
+    public void testTechnicienReimporteCommeCommercial() throws TechnicienException {
+        //Given
+        Manager manager = manager("durand", 2500.0);
+        Technicien technicien = technicien(2, manager);
+        writer.ecrire(Arrays.asList(manager, technicien));
+
+        //When
+        Commercial commercial = new Commercial("dupont", "pierre", "T12345", new LocalDate(2003, 3, 12), 1700.5, 40000.0, 100);
+        writer.ecrire(Arrays.asList(commercial));
+
+        //Then
+        //l'identifiant n'est plus que dans la table de son nouveau type
+        Assertions.assertThat(commercial.getId()).isEqualTo(technicien.getId());
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Technicien", Integer.class)).isZero();
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT caAnnuel FROM Commercial WHERE id = ?", Double.class, commercial.getId()))
+                .isEqualTo(40000.0);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Employe", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    public void testManagerReimporteCommeCommercial() throws TechnicienException {
+        //Given
+        Manager manager = manager("durand", 2500.0);
+        Technicien technicien = technicien(2, manager);
+        writer.ecrire(Arrays.asList(manager, technicien));
+        cacheManager.getCache(ManagerRepository.CACHE_PAR_MATRICULE).put("M12345", manager.getId());
+
+        //When
+        Commercial commercial = new Commercial("durand", "jacques", "M12345", new LocalDate(2013, 6, 4), 2500.0, 40000.0, 100);
+        writer.ecrire(Arrays.asList(commercial));
+
+        //Then
+        //ses anciens techniciens n'ont plus de manager, et son identifiant n'est plus en cache
+        Assertions.assertThat(commercial.getId()).isEqualTo(manager.getId());
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Manager", Integer.class)).isZero();
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Commercial WHERE id = ?", Integer.class, manager.getId()))
+                .isEqualTo(1);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT manager_id FROM Technicien WHERE id = ?", Long.class, technicien.getId()))
+                .isNull();
+        Assertions.assertThat(cacheManager.getCache(ManagerRepository.CACHE_PAR_MATRICULE).get("M12345")).isNull();
+    }
+}
@@ -0,0 +1,104 @@
+package com.ipiecoles.java.java230.batch;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LecteurLignesTest {
+
+    @Rule
+    public TemporaryFolder dossier = new TemporaryFolder();
+
+    private List<String> lireTout(LecteurLignes lecteur) throws Exception {
+        List<String> lignes = new ArrayList<>();
+        String ligne;
+        while ((ligne = lecteur.lireLigne()) != null) {
+            lignes.add(ligne);
+        }
+        return lignes;
+    }
+
+    private LecteurLignes lecteur(byte[] contenu, int tailleTampon) {
+        return new LecteurLignes(Channels.newChannel(new ByteArrayInputStream(contenu)), tailleTampon);
+    }
+
+    @Test
+    public void testFinsDeLigne() throws Exception {
+        //Given
+        byte[] contenu = "M87654,durand\nT98765,dupont\r\nC32154,aubert\rXXXXXX".getBytes(StandardCharsets.UTF_8);
+
+        //When
+        LecteurLignes lecteur = lecteur(contenu, 3);
+        List<String> lignes = lireTout(lecteur);
+
+        //Then
+        Assertions.assertThat(lignes).containsExactly("M87654,durand", "T98765,dupont", "C32154,aubert", "XXXXXX");
+        Assertions.assertThat(lecteur.getNumeroLigne()).isEqualTo(4);
+        Assertions.assertThat(lecteur.getPosition()).isEqualTo(contenu.length);
+    }
+
+    @Test
+    public void testLignesVidesEtDerniereFinDeLigne() throws Exception {
+        //Given
+        byte[] contenu = "a\n\nb\r\n".getBytes(StandardCharsets.UTF_8);
+
+        //When
+        List<String> lignes = lireTout(lecteur(contenu, 2));
+
+        //Then
+        Assertions.assertThat(lignes).containsExactly("a", "", "b");
+    }
+
+    @Test
+    public void testLigneAccentueePlusLongueQueLeTampon() throws Exception {
+        //Given
+        String ligne = "T98765,dupont,pierre,12/03/2003,1700.5,5,M87654 éèà";
+        byte[] contenu = (ligne + "\n").getBytes(StandardCharsets.UTF_8);
+
+        //When
+        LecteurLignes lecteur = lecteur(contenu, 4);
+        List<String> lignes = lireTout(lecteur);
+
+        //Then
+        Assertions.assertThat(lignes).containsExactly(ligne);
+        Assertions.assertThat(lecteur.getPosition()).isEqualTo(contenu.length);
+    }
+
+    @Test
+    public void testFichierVide() throws Exception {
+        Assertions.assertThat(lireTout(lecteur(new byte[0], 8))).isEmpty();
+    }
+
+    @Test
+    public void testReprise() throws Exception {
+        //Given
+        Path fichier = dossier.newFile("employes.csv").toPath();
+        Files.write(fichier, "M87654,durand\r\nT98765,dupont\r\nC32154,aubert\r\n".getBytes(StandardCharsets.UTF_8));
+        long position;
+        long numeroLigne;
+        try (LecteurLignes lecteur = LecteurLignes.ouvrir(fichier.toString())) {
+            lecteur.lireLigne();
+            position = lecteur.getPosition();
+            numeroLigne = lecteur.getNumeroLigne();
+        }
+
+        //When
+        LecteurLignes lecteur = LecteurLignes.reprendre(fichier.toString(), position, numeroLigne);
+        List<String> lignes = lireTout(lecteur);
+        lecteur.close();
+
+        //Then
+        Assertions.assertThat(lignes).containsExactly("T98765,dupont", "C32154,aubert");
+        Assertions.assertThat(lecteur.getNumeroLigne()).isEqualTo(3);
+        Assertions.assertThat(lecteur.getPosition()).isEqualTo(Files.size(fichier));
+    }
+}
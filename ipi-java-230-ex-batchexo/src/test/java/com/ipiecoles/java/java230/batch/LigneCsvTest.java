@@ -0,0 +1,114 @@
+package com.ipiecoles.java.java230.batch;
+
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+public class LigneCsvTest {
+
+    private final LigneCsv ligneCsv = new LigneCsv();
+
+    @Test
+    public void testDecoupageCommeSplit() {
+        String[] lignes = {"M12345,durand,jacques,", "C12345,,michel", ",,,", "", "XXXXXX", "a,b,,c,,"};
+        for (String ligne : lignes) {
+            //When
+            ligneCsv.decouper(ligne);
+
+            //Then
+            String[] attendus = ligne.split(",");
+            Assertions.assertThat(ligneCsv.getNbChamps()).isEqualTo(attendus.length);
+            for (int i = 0; i < attendus.length; i++) {
+                Assertions.assertThat(ligneCsv.champ(i)).isEqualTo(attendus[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testMatricule() {
+        //Given
+        ligneCsv.decouper("M12345,T12345,M12,M1234X,M123456");
+
+        //Then
+        Assertions.assertThat(ligneCsv.estMatricule(0, "M")).isTrue();
+        Assertions.assertThat(ligneCsv.estMatricule(1, "M")).isFalse();
+        Assertions.assertThat(ligneCsv.estMatricule(1, "MTC")).isTrue();
+        Assertions.assertThat(ligneCsv.estMatricule(2, "MTC")).isFalse();
+        Assertions.assertThat(ligneCsv.estMatricule(3, "MTC")).isFalse();
+        Assertions.assertThat(ligneCsv.estMatricule(4, "MTC")).isFalse();
+    }
+
+    @Test
+    public void testDate() {
+        //Given
+        ligneCsv.decouper("04/06/2013,04/99/2013,29/02/2016,29/02/2015,05/09/XX,4/6/2013");
+
+        //Then
+        Assertions.assertThat(ligneCsv.date(0)).isEqualTo(new LocalDate(2013, 6, 4));
+        Assertions.assertThat(ligneCsv.date(1)).isNull();
+        Assertions.assertThat(ligneCsv.date(2)).isEqualTo(new LocalDate(2016, 2, 29));
+        Assertions.assertThat(ligneCsv.date(3)).isNull();
+        Assertions.assertThat(ligneCsv.date(4)).isNull();
+        Assertions.assertThat(ligneCsv.date(5)).isEqualTo(LigneCsv.FORMAT_DATE.parseLocalDate("4/6/2013"));
+    }
+
+    @Test
+    public void testDecimalCommeParseDouble() {
+        String[] valeurs = {"1200.5", "-0", "150000", ".5", "12.", "0.1", "1e3", " 12", "12d", "123456789012345678.9", "NaN", "0x1p3"};
+        for (String valeur : valeurs) {
+            //When
+            ligneCsv.decouper(valeur);
+
+            //Then
+            Assertions.assertThat(ligneCsv.lireDecimal(0)).isTrue();
+            Assertions.assertThat(ligneCsv.getDecimal()).isEqualTo(Double.parseDouble(valeur));
+        }
+    }
+
+    @Test
+    public void testDecimalInvalide() {
+        //Given
+        ligneCsv.decouper("C12345,aubert,michel,05/09/2018,sdf,1.2.3,,-");
+
+        //Then
+        Assertions.assertThat(ligneCsv.lireDecimal(4)).isFalse();
+        Assertions.assertThat(ligneCsv.lireDecimal(5)).isFalse();
+        Assertions.assertThat(ligneCsv.lireDecimal(6)).isFalse();
+        Assertions.assertThat(ligneCsv.lireDecimal(7)).isFalse();
+    }
+
+    @Test
+    public void testEntier() {
+        String[] valeurs = {"5", "-100", "+7", "2147483647", "-2147483648"};
+        for (String valeur : valeurs) {
+            //When
+            ligneCsv.decouper(valeur);
+
+            //Then
+            Assertions.assertThat(ligneCsv.lireEntier(0)).isTrue();
+            Assertions.assertThat(ligneCsv.getEntier()).isEqualTo(Integer.parseInt(valeur));
+        }
+    }
+
+    @Test
+    public void testEntierInvalide() {
+        //Given
+        ligneCsv.decouper("X,2147483648,1.5,+,-");
+
+        //Then
+        for (int i = 0; i < ligneCsv.getNbChamps(); i++) {
+            Assertions.assertThat(ligneCsv.lireEntier(i)).isFalse();
+        }
+    }
+
+    @Test
+    public void testEmpreinte() {
+        //Given
+        long empreinte = ligneCsv.decouper("T98765,dupont,pierre,12/03/2003,1700.5,5,M87654").empreinte();
+
+        //Then
+        Assertions.assertThat(ligneCsv.decouper("T98765,dupont,pierre,12/03/2003,1700.5,5,M87654").empreinte()).isEqualTo(empreinte);
+        Assertions.assertThat(ligneCsv.decouper("T98765,dupont,pierre,12/03/2003,1800.5,5,M87654").empreinte()).isNotEqualTo(empreinte);
+        Assertions.assertThat(ligneCsv.decouper("T98765,dupont,pierre,12/03/2003,1700.5,5,M87655").empreinte()).isNotEqualTo(empreinte);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ipiecoles.java.java230.batch;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class MetriquesImportTest {
+
+    private final MetriquesImport metriques = new MetriquesImport();
+
+    @Test
+    public void testCompteursRemisAZeroAuDebut() {
+        //Given
+        metriques.debut("employes.csv", 1000);
+        metriques.ajouter(MetriquesImport.Phase.ECRITURE, 2, 5000);
+        metriques.rejet(ErreurLigne.DATE);
+
+        //When
+        metriques.debut("employes.csv", 1000);
+
+        //Then
+        Assertions.assertThat(metriques.getNbMesures(MetriquesImport.Phase.ECRITURE)).isZero();
+        Assertions.assertThat(metriques.getLignesRejetees()).isZero();
+        Assertions.assertThat(metriques.nbRejets("DATE")).isZero();
+    }
+
+    @Test
+    public void testResume() {
+        //Given
+        metriques.debut("employes.csv", 1000);
+
+        //When
+        metriques.ajouter(MetriquesImport.Phase.ANALYSE_TECHNICIEN, 10, TimeUnit.MILLISECONDS.toNanos(20));
+        metriques.mesurer(MetriquesImport.Phase.ECRITURE, System.nanoTime());
+        metriques.rejet(ErreurLigne.MANAGER_INCONNU);
+        metriques.rejet(ErreurLigne.MANAGER_INCONNU);
+        metriques.rejet(ErreurLigne.DATE);
+        metriques.avancer(1000, 20, 17);
+        metriques.terminer();
+
+        //Then
+        Assertions.assertThat(metriques.getNanos(MetriquesImport.Phase.ANALYSE_TECHNICIEN)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        Assertions.assertThat(metriques.getNbMesures(MetriquesImport.Phase.ECRITURE)).isEqualTo(1);
+        Assertions.assertThat(metriques.nbRejets("MANAGER_INCONNU")).isEqualTo(2);
+        Assertions.assertThat(metriques.getProgression()).isEqualTo(100.0);
+        Assertions.assertThat(metriques.resume())
+                .startsWith("Import de employes.csv : 20 lignes lues en ")
+                .contains("17 employés intégrés, 3 lignes rejetées")
+                .contains("\n  analyse des techniciens : 0.020 s")
+                .contains("10 mesures, 2000 µs en moyenne")
+                .contains("\n  rejets DATE : 1")
+                .contains("\n  rejets MANAGER_INCONNU : 2")
+                .doesNotContain("lecture du fichier");
+    }
+
+    @Test
+    public void testEstimationDeLaFin() {
+        //Given
+        metriques.debut("employes.csv", 1000);
+        long debut = System.nanoTime();
+
+        //When
+        metriques.avancer(250, 100, 100);
+
+        //Then : 250 octets en 10 s, il en reste 750
+        long maintenant = debut + TimeUnit.SECONDS.toNanos(10);
+        Assertions.assertThat(metriques.etaSecondes(maintenant)).isBetween(29L, 30L);
+        Assertions.assertThat(metriques.progression(maintenant)).startsWith("Progression : 25.0 %, 100 lignes lues").contains("fin estimée dans ");
+    }
+
+    @Test
+    public void testEstimationApresReprise() {
+        //Given
+        metriques.debut("employes.csv", 1000);
+        long debut = System.nanoTime();
+        metriques.reprendre(500, 200, 200);
+
+        //When
+        metriques.avancer(750, 300, 300);
+
+        //Then : 250 octets lus par cet import en 10 s, il en reste 250
+        Assertions.assertThat(metriques.etaSecondes(debut + TimeUnit.SECONDS.toNanos(10))).isBetween(9L, 10L);
+    }
+
+    @Test
+    public void testSansTailleDeFichier() {
+        //Given
+        metriques.debut("employes.csv", -1);
+
+        //When
+        metriques.avancer(250, 100, 100);
+
+        //Then
+        Assertions.assertThat(metriques.getProgression()).isEqualTo(-1);
+        Assertions.assertThat(metriques.getEtaSecondes()).isEqualTo(-1);
+        Assertions.assertThat(metriques.progression(System.nanoTime())).startsWith("Progression : 100 lignes lues").doesNotContain("fin estimée");
+    }
+}
@@ -0,0 +1,131 @@
+package com.ipiecoles.java.java230.batch;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+public class PointRepriseTest {
+
+    @Rule
+    public TemporaryFolder dossier = new TemporaryFolder();
+
+    @Test
+    public void testEcritureEtLecture() throws Exception {
+        //Given
+        Path fichier = dossier.newFile("employes.csv").toPath();
+        Files.write(fichier, "M87654,durand,jacques,04/06/2013,1200.5\n".getBytes(StandardCharsets.UTF_8));
+        PointReprise pointReprise = PointReprise.debut(fichier);
+        pointReprise.avancer(40, 1, 1, 0, Collections.singletonMap("M87654", 12L));
+
+        //When
+        pointReprise.ecrire();
+        PointReprise relu = PointReprise.lire(fichier);
+
+        //Then
+        Assertions.assertThat(relu.memeFichier(PointReprise.debut(fichier))).isTrue();
+        Assertions.assertThat(relu.getPosition()).isEqualTo(40);
+        Assertions.assertThat(relu.getNumeroLigne()).isEqualTo(1);
+        Assertions.assertThat(relu.getNbEmployes()).isEqualTo(1);
+        Assertions.assertThat(relu.getManagers()).containsEntry("M87654", 12L).hasSize(1);
+    }
+
+    @Test
+    public void testManagersAjoutesAuFurEtAMesure() throws Exception {
+        //Given
+        Path fichier = dossier.newFile("employes.csv").toPath();
+        PointReprise pointReprise = PointReprise.debut(fichier);
+        pointReprise.avancer(40, 1, 1, 0, Collections.singletonMap("M87654", 12L));
+        pointReprise.ecrire();
+        Path fichierManagers = Paths.get(pointReprise.getFichierReprise() + PointReprise.SUFFIXE_MANAGERS);
+        long taille = Files.size(fichierManagers);
+
+        //When
+        pointReprise.avancer(80, 2, 2, 0, Collections.singletonMap("M87655", 13L));
+        pointReprise.ecrire();
+        pointReprise.avancer(120, 3, 3, 0, Collections.emptyMap());
+        pointReprise.ecrire();
+
+        //Then
+        Assertions.assertThat(Files.readAllLines(fichierManagers, StandardCharsets.UTF_8)).containsExactly("M87654,12", "M87655,13");
+        Assertions.assertThat(Files.readAllLines(pointReprise.getFichierReprise(), StandardCharsets.UTF_8))
+                .noneMatch(ligne -> ligne.startsWith("M8765"));
+        PointReprise relu = PointReprise.lire(fichier);
+        Assertions.assertThat(relu.getNumeroLigne()).isEqualTo(3);
+        Assertions.assertThat(relu.getManagers()).containsEntry("M87654", 12L).containsEntry("M87655", 13L).hasSize(2);
+        Assertions.assertThat(Files.size(fichierManagers)).isGreaterThan(taille);
+    }
+
+    @Test
+    public void testManagersAuDelaDuPointRepriseIgnores() throws Exception {
+        //Given
+        Path fichier = dossier.newFile("employes.csv").toPath();
+        PointReprise pointReprise = PointReprise.debut(fichier);
+        pointReprise.avancer(40, 1, 1, 0, Collections.singletonMap("M87654", 12L));
+        pointReprise.ecrire();
+        Path fichierManagers = Paths.get(pointReprise.getFichierReprise() + PointReprise.SUFFIXE_MANAGERS);
+
+        //When
+        //ajout interrompu avant l'enregistrement du point de reprise suivant
+        Files.write(fichierManagers, "M87655,1".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        PointReprise relu = PointReprise.lire(fichier);
+        relu.avancer(80, 2, 2, 0, Collections.singletonMap("M87655", 13L));
+        relu.ecrire();
+
+        //Then
+        Assertions.assertThat(relu.getManagers()).containsOnlyKeys("M87654");
+        Assertions.assertThat(Files.readAllLines(fichierManagers, StandardCharsets.UTF_8)).containsExactly("M87654,12", "M87655,13");
+    }
+
+    @Test
+    public void testNouvelImportRecreeLesManagers() throws Exception {
+        //Given
+        Path fichier = dossier.newFile("employes.csv").toPath();
+        PointReprise precedent = PointReprise.debut(fichier);
+        precedent.avancer(40, 1, 1, 0, Collections.singletonMap("M87654", 12L));
+        precedent.ecrire();
+
+        //When
+        PointReprise pointReprise = PointReprise.debut(fichier);
+        pointReprise.avancer(40, 1, 1, 0, Collections.singletonMap("M11111", 20L));
+        pointReprise.ecrire();
+
+        //Then
+        Assertions.assertThat(PointReprise.lire(fichier).getManagers()).containsEntry("M11111", 20L).hasSize(1);
+    }
+
+    @Test
+    public void testFichierModifie() throws Exception {
+        //Given
+        Path fichier = dossier.newFile("employes.csv").toPath();
+        PointReprise.debut(fichier).ecrire();
+
+        //When
+        Files.write(fichier, "M87654,durand,jacques,04/06/2013,1200.5\n".getBytes(StandardCharsets.UTF_8));
+
+        //Then
+        Assertions.assertThat(PointReprise.lire(fichier).memeFichier(PointReprise.debut(fichier))).isFalse();
+    }
+
+    @Test
+    public void testSansPointReprise() throws Exception {
+        //Given
+        Path fichier = dossier.newFile("employes.csv").toPath();
+        PointReprise pointReprise = PointReprise.debut(fichier);
+        pointReprise.ecrire();
+
+        //When
+        pointReprise.supprimer();
+
+        //Then
+        Assertions.assertThat(PointReprise.lire(fichier)).isNull();
+        Assertions.assertThat(Paths.get(pointReprise.getFichierReprise() + PointReprise.SUFFIXE_MANAGERS)).doesNotExist();
+    }
+}
@@ -0,0 +1,133 @@
+package com.ipiecoles.java.java230.batch;
+
+import com.ipiecoles.java.java230.exceptions.TechnicienException;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Technicien;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+public class RegistreManagersTest {
+
+    private final RegistreManagers registreManagers = new RegistreManagers();
+
+    private static Manager manager(String matricule) {
+        return new Manager("durand", "jacques", matricule, new LocalDate(2013, 6, 4), 2500.0, new HashSet<>());
+    }
+
+    private static Technicien technicien(String matricule) throws TechnicienException {
+        return new Technicien("dupont", "pierre", matricule, new LocalDate(2003, 3, 12), 1700.5, 2);
+    }
+
+    @Test
+    public void testManagerLuPlusHautDansLeFichier() {
+        //Given
+        Manager manager = manager("M12345");
+
+        //When
+        registreManagers.enregistrer(manager);
+
+        //Then
+        Assertions.assertThat(registreManagers.trouver("M12345")).isSameAs(manager);
+        Assertions.assertThat(registreManagers.estConnu("M12345")).isTrue();
+        Assertions.assertThat(registreManagers.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testManagerDejaEnBase() {
+        //Given
+        Manager managerBase = manager("M12345");
+        managerBase.setId(7L);
+
+        //When
+        registreManagers.enregistrerBase(Collections.singletonList("M12345"), Collections.singletonList(managerBase));
+
+        //Then
+        //absent du fichier, il n'est plus recherché en BDD pour les lignes suivantes
+        Assertions.assertThat(registreManagers.trouver("M12345")).isNull();
+        Assertions.assertThat(registreManagers.estConnu("M12345")).isTrue();
+        Assertions.assertThat(registreManagers.trouverEnBase("M12345")).isSameAs(managerBase);
+    }
+
+    @Test
+    public void testManagerInconnu() {
+        //When
+        registreManagers.enregistrerBase(Arrays.asList("M12345", "M99999"), Collections.singletonList(manager("M12345")));
+
+        //Then
+        //l'absence est retenue : le matricule n'est pas recherché de nouveau en BDD
+        Assertions.assertThat(registreManagers.estConnu("M99999")).isTrue();
+        Assertions.assertThat(registreManagers.trouver("M99999")).isNull();
+        Assertions.assertThat(registreManagers.trouverEnBase("M99999")).isNull();
+        Assertions.assertThat(registreManagers.estConnu("M00000")).isFalse();
+    }
+
+    @Test
+    public void testReferenceEnAvant() {
+        //Given
+        //un technicien référence un manager qui n'apparaît que plus bas dans le fichier et n'est pas en BDD
+        Assertions.assertThat(registreManagers.trouver("M12345")).isNull();
+        Assertions.assertThat(registreManagers.estConnu("M12345")).isFalse();
+        registreManagers.enregistrerBase(Collections.singletonList("M12345"), Collections.emptyList());
+        Manager manager = manager("M12345");
+
+        //When
+        registreManagers.enregistrer(manager);
+
+        //Then
+        //les lignes sont résolues dans l'ordre du fichier : seuls les techniciens qui suivent la ligne du manager le trouvent
+        Assertions.assertThat(registreManagers.trouver("M12345")).isSameAs(manager);
+    }
+
+    @Test
+    public void testManagerRepris() {
+        //Given
+        Manager repris = manager("M12345");
+        repris.setId(7L);
+
+        //When
+        registreManagers.reprendre(Collections.singletonList(repris));
+
+        //Then
+        Assertions.assertThat(registreManagers.trouver("M12345")).isNull();
+        Assertions.assertThat(registreManagers.estConnu("M12345")).isTrue();
+        Assertions.assertThat(registreManagers.trouverEnBase("M12345")).isSameAs(repris);
+    }
+
+    @Test
+    public void testExtraireNouveauxManagers() {
+        //Given
+        Manager manager = manager("M12345");
+        registreManagers.enregistrer(manager);
+        manager.setId(7L);
+
+        //When
+        //Then
+        Assertions.assertThat(registreManagers.extraireNouveauxManagers()).containsExactly(Assertions.entry("M12345", 7L));
+        Assertions.assertThat(registreManagers.extraireNouveauxManagers()).isEmpty();
+    }
+
+    @Test
+    public void testViderEquipesDuLotSeulement() throws TechnicienException {
+        //Given
+        Manager managerDuLot = manager("M12345");
+        Manager autreManager = manager("M54321");
+        registreManagers.enregistrer(managerDuLot);
+        registreManagers.enregistrer(autreManager);
+        Technicien technicien = technicien("T12345");
+        registreManagers.ajouterAEquipe(managerDuLot, technicien);
+        //équipe remplie hors du registre : elle n'est pas parcourue par viderEquipes
+        autreManager.ajoutTechnicienEquipe(technicien("T54321"));
+
+        //When
+        registreManagers.viderEquipes();
+
+        //Then
+        Assertions.assertThat(managerDuLot.getEquipe()).isEmpty();
+        Assertions.assertThat(autreManager.getEquipe()).hasSize(1);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ipiecoles.java.java230.model;
+
+import com.ipiecoles.java.java230.exceptions.TechnicienException;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+public class EquipeManagerTest {
+
+    @Test
+    public void testRegrouperParManager() {
+        //Given
+        AgregatEquipe grade1 = new AgregatEquipe(1L, 1, 2L, 3000.0);
+        AgregatEquipe grade3 = new AgregatEquipe(1L, 3, 1L, 2000.0);
+        AgregatEquipe sansEquipe = new AgregatEquipe(2L, null, 0L, null);
+
+        //When
+        Map<Long, EquipeManager> equipes = EquipeManager.regrouper(Arrays.asList(grade1, grade3, sansEquipe));
+
+        //Then
+        Assertions.assertThat(equipes).containsOnlyKeys(1L, 2L);
+        EquipeManager equipe = equipes.get(1L);
+        Assertions.assertThat(equipe.getNbTechniciens()).isEqualTo(3);
+        Assertions.assertThat(equipe.getSalaireTotal()).isEqualTo(5000.0);
+        Assertions.assertThat(equipe.getNbTechniciens(1)).isEqualTo(2);
+        Assertions.assertThat(equipe.getSalaireGrade(1)).isEqualTo(3000.0);
+        Assertions.assertThat(equipe.getSalaireGrade(2)).isEqualTo(0.0);
+        Assertions.assertThat(equipes.get(2L).getNbTechniciens()).isEqualTo(0);
+        Assertions.assertThat(equipes.get(2L).getSalaireTotal()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void testCalculsCommeAvecLEquipeChargee() throws TechnicienException {
+        //Given
+        Manager manager = new Manager("durand", "jacques", "M12345", new LocalDate(2013, 6, 4), 2000.0, new HashSet<>());
+        manager.ajoutTechnicienEquipe("dupont", "pierre", "T12345", new LocalDate(2003, 3, 12), 1500.0, 1);
+        manager.ajoutTechnicienEquipe("martin", "paul", "T12346", new LocalDate(2003, 3, 12), 1600.0, 1);
+        manager.ajoutTechnicienEquipe("petit", "marie", "T12347", new LocalDate(2003, 3, 12), 1700.0, 4);
+        EquipeManager equipe = EquipeManager.regrouper(Arrays.asList(
+                new AgregatEquipe(1L, 1, 2L, manager.salaireEquipeGrade1()),
+                new AgregatEquipe(1L, 4, 1L, 1700.0 * 1.4))).get(1L);
+
+        //Then
+        Assertions.assertThat(equipe.getPrimeAnnuelle()).isEqualTo(manager.getPrimeAnnuelle());
+        Assertions.assertThat(equipe.getSalaireGrade(1)).isEqualTo(manager.salaireEquipeGrade1());
+        manager.setSalaire(2000.0);
+        Assertions.assertThat(Manager.salaire(2000.0, equipe.getNbTechniciens())).isEqualTo(manager.getSalaire());
+    }
+}
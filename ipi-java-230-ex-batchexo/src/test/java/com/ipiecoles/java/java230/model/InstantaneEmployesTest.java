@@ -0,0 +1,97 @@
+package com.ipiecoles.java.java230.model;
+
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+public class InstantaneEmployesTest {
+
+    private InstantaneEmployes instantane() {
+        return new InstantaneEmployes.Constructeur()
+                .ajouterManager(2L, 3000.0, new LocalDate(2010, 1, 15))
+                .ajouterManager(5L, 4000.0, new LocalDate(1965, 3, 1))
+                .ajouterTechnicien(3L, 1500.0, new LocalDate(2015, 6, 1), 1, 5L)
+                .ajouterTechnicien(4L, 2500.0, null, 4, 5L)
+                .ajouterTechnicien(6L, null, new LocalDate(2016, 2, 29), 4, null)
+                .ajouterCommercial(1L, 1800.0, new LocalDate(2012, 9, 3), 50000.0, 90)
+                .ajouterCommercial(7L, 1200.0, new LocalDate(2018, 4, 12), null, null)
+                .construire();
+    }
+
+    @Test
+    public void testColonnes() {
+        //Given
+        InstantaneEmployes instantane = instantane();
+
+        //Then
+        Assertions.assertThat(instantane.getTaille()).isEqualTo(7);
+        Assertions.assertThat(instantane.getId(3)).isEqualTo(4L);
+        Assertions.assertThat(instantane.getType(3)).isEqualTo(InstantaneEmployes.TYPE_TECHNICIEN);
+        Assertions.assertThat(instantane.getDateEmbauche(1)).isEqualTo(new LocalDate(1965, 3, 1));
+        Assertions.assertThat(instantane.getDateEmbauche(4)).isEqualTo(new LocalDate(2016, 2, 29));
+        Assertions.assertThat(instantane.getDateEmbauche(3)).isNull();
+        Assertions.assertThat(instantane.getSalaire(4)).isNaN();
+        Assertions.assertThat(instantane.getGrade(3)).isEqualTo(4);
+        Assertions.assertThat(instantane.getIndiceManager(2)).isEqualTo(1);
+        Assertions.assertThat(instantane.getIndiceManager(4)).isEqualTo(InstantaneEmployes.ABSENT);
+        Assertions.assertThat(instantane.getCaAnnuel(5)).isEqualTo(50000.0);
+        Assertions.assertThat(instantane.getCaAnnuel(6)).isNaN();
+        Assertions.assertThat(instantane.getPerformance(6)).isEqualTo(InstantaneEmployes.ABSENT);
+        Assertions.assertThat(instantane.indiceManager(5L)).isEqualTo(1);
+        Assertions.assertThat(instantane.indiceManager(3L)).isNegative();
+    }
+
+    @Test
+    public void testAgregatsSansLesValeursAbsentes() {
+        //Given
+        InstantaneEmployes instantane = instantane();
+
+        //Then
+        Assertions.assertThat(instantane.nombre(InstantaneEmployes.TYPE_TECHNICIEN)).isEqualTo(3);
+        Assertions.assertThat(instantane.sommeSalaires()).isEqualTo(14000.0);
+        Assertions.assertThat(instantane.moyenneSalaires()).isEqualTo(14000.0 / 6);
+        Assertions.assertThat(instantane.sommeSalaires(InstantaneEmployes.TYPE_TECHNICIEN)).isEqualTo(4000.0);
+        Assertions.assertThat(instantane.moyenneSalaires(InstantaneEmployes.TYPE_TECHNICIEN)).isEqualTo(2000.0);
+        Assertions.assertThat(instantane.sommeCaAnnuels()).isEqualTo(50000.0);
+        Assertions.assertThat(new InstantaneEmployes.Constructeur().construire().moyenneSalaires()).isNaN();
+    }
+
+    @Test
+    public void testHistogrammes() {
+        //Given
+        InstantaneEmployes instantane = instantane();
+
+        //When
+        int[] salaires = instantane.histogrammeSalaires(1500.0, 1000.0, 3);
+
+        //Then
+        //1200 est compté dans la première classe, 4000 dans la dernière
+        Assertions.assertThat(salaires).containsExactly(3, 2, 1);
+        Assertions.assertThat(instantane.histogrammeGrades()).containsExactly(0, 1, 0, 0, 2, 0);
+        Assertions.assertThat(instantane.taillesEquipes()).containsExactly(0, 2, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void testTopSalaires() {
+        //Given
+        InstantaneEmployes instantane = instantane();
+
+        //When
+        int[] top = instantane.topSalaires(3);
+
+        //Then
+        Assertions.assertThat(top).containsExactly(1, 0, 3);
+        Assertions.assertThat(instantane.topSalaires(10)).containsExactly(1, 0, 3, 5, 2, 6);
+        Assertions.assertThat(instantane.topSalaires(0)).isEmpty();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testManagersEnPremier() {
+        //Given
+        InstantaneEmployes.Constructeur constructeur = new InstantaneEmployes.Constructeur()
+                .ajouterTechnicien(3L, 1500.0, null, 1, null);
+
+        //When
+        constructeur.ajouterManager(2L, 3000.0, null);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ipiecoles.java.java230.model;
+
+import com.ipiecoles.java.java230.exceptions.TechnicienException;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import java.util.HashSet;
+
+public class PaieTest {
+
+    private final LocalDate aujourdhui = LocalDate.now();
+
+    @Test
+    public void testCommeLesMethodesDesEmployesALaDateDuJour() throws TechnicienException {
+        //Given
+        Manager manager = new Manager("durand", "jacques", "M12345", new LocalDate(2013, 6, 4), 2000.0, new HashSet<>());
+        Technicien technicien = new Technicien("dupont", "pierre", "T12345", new LocalDate(2003, 3, 12), 1500.0, 3);
+        manager.ajoutTechnicienEquipe(technicien);
+        Commercial commercial = new Commercial("aubert", "michel", "C12345", new LocalDate(2018, 9, 5), 1500.0, 40123.0, 100);
+
+        //When
+        Paie paieManager = Paie.calculer(Manager.class, 1L, manager.getDateEmbauche(), null, null, 1, aujourdhui);
+        Paie paieTechnicien = Paie.calculer(Technicien.class, 2L, technicien.getDateEmbauche(), 3, null, 0, aujourdhui);
+        Paie paieCommercial = Paie.calculer(Commercial.class, 3L, commercial.getDateEmbauche(), null, 40123.0, 0, aujourdhui);
+
+        //Then
+        Assertions.assertThat(paieManager.getAnciennete()).isEqualTo(manager.getNombreAnneeAnciennete());
+        Assertions.assertThat(paieManager.getNbConges()).isEqualTo(manager.getNbConges());
+        Assertions.assertThat(paieManager.getPrimeAnnuelle()).isEqualTo(manager.getPrimeAnnuelle());
+        Assertions.assertThat(paieTechnicien.getAnciennete()).isEqualTo(technicien.getNombreAnneeAnciennete());
+        Assertions.assertThat(paieTechnicien.getNbConges()).isEqualTo(technicien.getNbConges());
+        Assertions.assertThat(paieTechnicien.getPrimeAnnuelle()).isEqualTo(technicien.getPrimeAnnuelle());
+        Assertions.assertThat(paieCommercial.getNbConges()).isEqualTo(commercial.getNbConges());
+        Assertions.assertThat(paieCommercial.getPrimeAnnuelle()).isEqualTo(commercial.getPrimeAnnuelle());
+    }
+
+    @Test
+    public void testDateDeReference() {
+        //When
+        Paie paie = Paie.calculer(Technicien.class, 1L, new LocalDate(2003, 3, 12), 5, null, 0, new LocalDate(2020, 1, 1));
+
+        //Then
+        Assertions.assertThat(paie.getAnciennete()).isEqualTo(17);
+        Assertions.assertThat(paie.getNbConges()).isEqualTo(Entreprise.NB_CONGES_BASE + 17);
+        Assertions.assertThat(paie.getPrimeAnnuelle()).isEqualTo(1010 + 1010 * 1.5 + Entreprise.PRIME_ANCIENNETE * 17);
+    }
+
+    @Test
+    public void testValeursManquantes() {
+        //When
+        Paie paie = Paie.calculer(Technicien.class, 1L, null, 5, null, 0, aujourdhui);
+
+        //Then
+        Assertions.assertThat(paie.getAnciennete()).isNull();
+        Assertions.assertThat(paie.getNbConges()).isNull();
+        Assertions.assertThat(paie.getPrimeAnnuelle()).isNull();
+    }
+}
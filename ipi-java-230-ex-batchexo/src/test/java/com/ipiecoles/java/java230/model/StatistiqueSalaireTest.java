@@ -0,0 +1,27 @@
+package com.ipiecoles.java.java230.model;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+public class StatistiqueSalaireTest {
+
+    @Test
+    public void testCategories() {
+        //Then : les catégories écrites par les triggers de db/004-statistique-salaire.sql
+        Assertions.assertThat(StatistiqueSalaire.TOUS).isEqualTo("Employe");
+        Assertions.assertThat(StatistiqueSalaire.categorie(Manager.class)).isEqualTo("Manager");
+        Assertions.assertThat(StatistiqueSalaire.categorie(Commercial.class)).isEqualTo("Commercial");
+        Assertions.assertThat(StatistiqueSalaire.categorieGrade(3)).isEqualTo("Technicien.3");
+    }
+
+    @Test
+    public void testMoyenne() {
+        //Given
+        StatistiqueSalaire statistique = new StatistiqueSalaire(StatistiqueSalaire.TOUS, 4L, 6000.0);
+        StatistiqueSalaire vide = new StatistiqueSalaire(StatistiqueSalaire.TOUS, 0L, 0.0);
+
+        //Then
+        Assertions.assertThat(statistique.getMoyenne()).isEqualTo(1500.0);
+        Assertions.assertThat(vide.getMoyenne()).isNull();
+    }
+}
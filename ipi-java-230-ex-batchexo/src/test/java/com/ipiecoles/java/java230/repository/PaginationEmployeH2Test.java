@@ -0,0 +1,101 @@
+package com.ipiecoles.java.java230.repository;
+
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Pagination par clé exécutée sur H2, avec des salaires et des dates d'embauche en double sur plusieurs pages
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+public class PaginationEmployeH2Test {
+
+    private static final double[] SALAIRES = {1500.0, 2000.0, 1500.0, 1800.0, 1500.0, 2000.0, 1500.0, 1800.0, 1500.0, 2500.0};
+
+    private static final LocalDate[] DATES = {new LocalDate(2018, 9, 5), new LocalDate(2013, 6, 4), new LocalDate(2018, 9, 5),
+            new LocalDate(2018, 9, 5), new LocalDate(2013, 6, 4), new LocalDate(2003, 3, 12), new LocalDate(2018, 9, 5),
+            new LocalDate(2013, 6, 4), new LocalDate(2018, 9, 5), new LocalDate(2018, 9, 5)};
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    private final List<Employe> employes = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < SALAIRES.length; i++) {
+            employes.add(entityManager.persist(new Commercial("dupont", "pierre", String.format("C%05d", i), DATES[i],
+                    SALAIRES[i], 40000.0, 100)));
+        }
+        //exclus des pages par salaire et par date d'embauche
+        entityManager.persist(new Commercial("aubert", "michel", "C99998", DATES[0], null, 40000.0, 100));
+        entityManager.persist(new Commercial("aubert", "michel", "C99999", null, 1500.0, 40000.0, 100));
+        entityManager.flush();
+    }
+
+    /**
+     * @return les ids de tous les employés lus page par page, dans l'ordre des pages
+     */
+    private List<Long> parcourir(BiFunction<Employe, Integer, List<Employe>> pageSuivante, int taille) {
+        List<Long> ids = new ArrayList<>();
+        Employe dernier = null;
+        List<Employe> page;
+        while (!(page = pageSuivante.apply(dernier, taille)).isEmpty()) {
+            Assertions.assertThat(page.size()).isLessThanOrEqualTo(taille);
+            page.forEach(e -> ids.add(e.getId()));
+            dernier = page.get(page.size() - 1);
+        }
+        return ids;
+    }
+
+    private List<Long> ids(Comparator<Employe> ordre) {
+        return employes.stream().sorted(ordre).map(Employe::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPagesParSalaireSansTrouNiDoublon() {
+        //Given
+        List<Long> attendus = ids(Comparator.comparing(Employe::getSalaire).thenComparing(Employe::getId).reversed());
+
+        //When
+        //Then
+        //les pages coupent les groupes de salaires égaux à différents endroits
+        for (int taille = 1; taille <= 4; taille++) {
+            Assertions.assertThat(parcourir(employeRepository::pageSuivanteParSalaire, taille)).as("pages de " + taille)
+                    .doesNotHaveDuplicates().containsExactlyElementsOf(attendus);
+        }
+    }
+
+    @Test
+    public void testPagesParDateEmbaucheSansTrouNiDoublon() {
+        //Given
+        List<Long> attendus = ids(Comparator.comparing(Employe::getDateEmbauche).thenComparing(Employe::getId));
+
+        //When
+        //Then
+        for (int taille = 1; taille <= 4; taille++) {
+            Assertions.assertThat(parcourir(employeRepository::pageSuivanteParDateEmbauche, taille)).as("pages de " + taille)
+                    .doesNotHaveDuplicates().containsExactlyElementsOf(attendus);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ipiecoles.java.java230.repository;
+
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PaginationEmployeTest {
+
+    @Mock
+    private EmployeRepository employeRepository;
+
+    private static Employe dernier() {
+        Commercial commercial = new Commercial("aubert", "michel", "C12345", new LocalDate(2018, 9, 5), 1500.0, 40000.0, 100);
+        commercial.setId(42L);
+        return commercial;
+    }
+
+    @Test
+    public void testPageSuivanteParId() {
+        //Given
+        Mockito.when(employeRepository.pageSuivanteParId(Mockito.any(), Mockito.anyInt())).thenCallRealMethod();
+
+        //When
+        employeRepository.pageSuivanteParId(null, 100);
+        employeRepository.pageSuivanteParId(dernier(), 100);
+
+        //Then
+        Mockito.verify(employeRepository).findByIdGreaterThanOrderByIdAsc(0L, new PageRequest(0, 100));
+        Mockito.verify(employeRepository).findByIdGreaterThanOrderByIdAsc(42L, new PageRequest(0, 100));
+    }
+
+    @Test
+    public void testPageSuivanteParSalaire() {
+        //Given
+        Mockito.when(employeRepository.pageSuivanteParSalaire(Mockito.any(), Mockito.anyInt())).thenCallRealMethod();
+
+        //When
+        employeRepository.pageSuivanteParSalaire(null, 100);
+        employeRepository.pageSuivanteParSalaire(dernier(), 100);
+
+        //Then
+        Mockito.verify(employeRepository).findBySalaireNotNullOrderBySalaireDescIdDesc(new PageRequest(0, 100));
+        Mockito.verify(employeRepository).findApresSalaire(1500.0, 42L, new PageRequest(0, 100));
+    }
+
+    @Test
+    public void testPageSuivanteParDateEmbauche() {
+        //Given
+        Mockito.when(employeRepository.pageSuivanteParDateEmbauche(Mockito.any(), Mockito.anyInt())).thenCallRealMethod();
+
+        //When
+        employeRepository.pageSuivanteParDateEmbauche(null, 100);
+        employeRepository.pageSuivanteParDateEmbauche(dernier(), 100);
+
+        //Then
+        Mockito.verify(employeRepository).findByDateEmbaucheNotNullOrderByDateEmbaucheAscIdAsc(new PageRequest(0, 100));
+        Mockito.verify(employeRepository).findApresDateEmbauche(new LocalDate(2018, 9, 5), 42L, new PageRequest(0, 100));
+    }
+}
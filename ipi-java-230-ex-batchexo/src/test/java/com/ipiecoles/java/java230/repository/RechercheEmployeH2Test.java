@@ -0,0 +1,78 @@
+package com.ipiecoles.java.java230.repository;
+
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Recherches sur les colonnes nomRecherche et prenomRecherche, exécutées sur H2
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+public class RechercheEmployeH2Test {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    private Employe durand;
+
+    private Employe duRand;
+
+    private Employe dupont;
+
+    private Employe martin;
+
+    private Employe employe(String nom, String prenom, String matricule) {
+        return entityManager.persist(new Commercial(nom, prenom, matricule, new LocalDate(2018, 9, 5), 1500.0, 40000.0, 100));
+    }
+
+    @Before
+    public void setUp() {
+        durand = employe("Durand", "Jacques", "C00001");
+        duRand = employe("Du_Rand", "Paul", "C00002");
+        dupont = employe("Dupont", "Pierre", "C00003");
+        martin = employe("Martin", "Dumas", "C00004");
+        employe("Aubert", "Michel", "C00005");
+        entityManager.flush();
+    }
+
+    @Test
+    public void testRechercheParNomOuPrenom() {
+        //When
+        //Then
+        Assertions.assertThat(employeRepository.rechercherParNomOuPrenom("DURAND")).containsExactly(durand);
+        Assertions.assertThat(employeRepository.rechercherParNomOuPrenom("dumas")).containsExactly(martin);
+    }
+
+    @Test
+    public void testRechercheParDebutNomOuPrenom() {
+        //When
+        //Then
+        //par nom puis prénom normalisés
+        Assertions.assertThat(employeRepository.rechercherParDebutNomOuPrenom("DU", 10)).containsExactly(duRand, dupont, durand, martin);
+        Assertions.assertThat(employeRepository.rechercherParDebutNomOuPrenom("du", 2)).containsExactly(duRand, dupont);
+    }
+
+    @Test
+    public void testRechercheParDebutAvecJokers() {
+        //When
+        //Then
+        //'_' et '%' échappés par '!' : recherchés tels quels
+        Assertions.assertThat(employeRepository.rechercherParDebutNomOuPrenom("du_", 10)).containsExactly(duRand);
+        Assertions.assertThat(employeRepository.rechercherParDebutNomOuPrenom("%", 10)).isEmpty();
+        Assertions.assertThat(employeRepository.rechercherParDebutNomOuPrenom("d!", 10)).isEmpty();
+    }
+}
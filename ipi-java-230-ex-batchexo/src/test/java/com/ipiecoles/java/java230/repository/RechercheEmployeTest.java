@@ -0,0 +1,39 @@
+package com.ipiecoles.java.java230.repository;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RechercheEmployeTest {
+
+    @Mock
+    private EmployeRepository employeRepository;
+
+    @Test
+    public void testRechercheParNomOuPrenomNormalisee() {
+        //Given
+        Mockito.when(employeRepository.rechercherParNomOuPrenom(Mockito.anyString())).thenCallRealMethod();
+
+        //When
+        employeRepository.rechercherParNomOuPrenom("DuRand");
+
+        //Then
+        Mockito.verify(employeRepository).findByNomRechercheOrPrenomRecherche("durand", "durand");
+    }
+
+    @Test
+    public void testRechercheParDebutEchappeLesJokers() {
+        //Given
+        Mockito.when(employeRepository.rechercherParDebutNomOuPrenom(Mockito.anyString(), Mockito.anyInt())).thenCallRealMethod();
+
+        //When
+        employeRepository.rechercherParDebutNomOuPrenom("Du_R%a!", 10);
+
+        //Then
+        Mockito.verify(employeRepository).findByNomOuPrenomCommencantPar("du!_r!%a!!%", new PageRequest(0, 10));
+    }
+}
@@ -0,0 +1,139 @@
+package com.ipiecoles.java.java230.repository;
+
+import com.ipiecoles.java.java230.exceptions.TechnicienException;
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.StatistiqueSalaire;
+import com.ipiecoles.java.java230.model.Technicien;
+import com.ipiecoles.java.java230.service.StatistiqueSalaireService;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+
+/**
+ * Sur H2, sans les triggers MySQL de db/004 : les statistiques sont calculées comme à la fin d'un import
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+public class StatistiqueSalaireRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private StatistiqueSalaireRepository statistiqueSalaireRepository;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private TechnicienRepository technicienRepository;
+
+    private final StatistiqueSalaireService statistiqueSalaireService = new StatistiqueSalaireService();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Manager manager;
+
+    private Technicien technicienGrade3;
+
+    @Before
+    public void setUp() throws TechnicienException {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        ReflectionTestUtils.setField(statistiqueSalaireService, "jdbcTemplate", jdbcTemplate);
+        manager = entityManager.persist(new Manager("durand", "jacques", "M12345", new LocalDate(2013, 6, 4), 3000.0, new HashSet<>()));
+        entityManager.persist(new Technicien("dupont", "pierre", "T12345", new LocalDate(2003, 3, 12), 1500.0, 1));
+        technicienGrade3 = new Technicien("martin", "paul", "T54321", new LocalDate(2010, 1, 15), 2100.0, 3);
+        technicienGrade3.setManager(manager);
+        entityManager.persist(technicienGrade3);
+        entityManager.persist(new Commercial("aubert", "michel", "C12345", new LocalDate(2018, 9, 5), 1800.0, 40000.0, 100));
+        //sans salaire : ni compté ni sommé
+        entityManager.persist(new Commercial("leroy", "anne", "C54321", new LocalDate(2018, 9, 5), null, 30000.0, 90));
+        //les statistiques sont recalculées en SQL : les employés doivent être écrits avant
+        entityManager.flush();
+    }
+
+    private void assertStatistique(String categorie, long nbEmployes, double sommeSalaires) {
+        StatistiqueSalaire statistique = statistiqueSalaireRepository.findByCategorie(categorie);
+        Assertions.assertThat(statistique.getNbEmployes()).as(categorie).isEqualTo(nbEmployes);
+        Assertions.assertThat(statistique.getSommeSalaires()).as(categorie).isEqualTo(sommeSalaires);
+    }
+
+    @Test
+    public void testRecalculer() {
+        //When
+        statistiqueSalaireService.recalculer();
+
+        //Then
+        Assertions.assertThat(statistiqueSalaireRepository.findAllByOrderByCategorieAsc()).extracting(StatistiqueSalaire::getCategorie)
+                .containsExactly("Commercial", "Employe", "Manager", "Technicien",
+                        "Technicien.1", "Technicien.2", "Technicien.3", "Technicien.4", "Technicien.5");
+        assertStatistique(StatistiqueSalaire.TOUS, 4, 8400.0);
+        assertStatistique(StatistiqueSalaire.categorie(Manager.class), 1, 3000.0);
+        assertStatistique(StatistiqueSalaire.categorie(Technicien.class), 2, 3600.0);
+        assertStatistique(StatistiqueSalaire.categorie(Commercial.class), 1, 1800.0);
+        assertStatistique(StatistiqueSalaire.categorieGrade(1), 1, 1500.0);
+        assertStatistique(StatistiqueSalaire.categorieGrade(2), 0, 0.0);
+        assertStatistique(StatistiqueSalaire.categorieGrade(3), 1, 2100.0);
+        Assertions.assertThat(statistiqueSalaireRepository.findByCategorie(StatistiqueSalaire.TOUS).getMoyenne()).isEqualTo(2100.0);
+    }
+
+    @Test
+    public void testRecalculerRemplaceLesStatistiques() {
+        //Given
+        jdbcTemplate.update("INSERT INTO StatistiqueSalaire (categorie, nbEmployes, sommeSalaires) VALUES ('Employe', 1, 99999)");
+
+        //When
+        statistiqueSalaireService.recalculer();
+
+        //Then
+        assertStatistique(StatistiqueSalaire.TOUS, 4, 8400.0);
+    }
+
+    @Test
+    public void testEmployesPlusRichesQueLaMoyenne() {
+        //Given
+        statistiqueSalaireService.recalculer();
+
+        //When
+        //Then
+        //moyenne de 2100 : le technicien à 2100 ne la dépasse pas
+        Assertions.assertThat(employeRepository.findEmployePlusRichesQueLaMoyenne()).containsExactly(manager);
+        //moyenne des techniciens de 1800
+        Assertions.assertThat(technicienRepository.findEmployePlusRichesQueLaMoyenne(StatistiqueSalaire.categorie(Technicien.class)))
+                .containsExactly(technicienGrade3);
+        Assertions.assertThat(technicienRepository.findEmployePlusRichesQueLaMoyenne(StatistiqueSalaire.categorieGrade(3))).isEmpty();
+    }
+
+    @Test
+    public void testSuspendrePuisRecalculer() {
+        //When
+        statistiqueSalaireService.suspendre();
+
+        //Then
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT differee FROM StatistiqueSalaireMaintenance", Boolean.class)).isTrue();
+
+        //When
+        statistiqueSalaireService.recalculer();
+
+        //Then
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT differee FROM StatistiqueSalaireMaintenance", Boolean.class)).isFalse();
+        assertStatistique(StatistiqueSalaire.TOUS, 4, 8400.0);
+    }
+}
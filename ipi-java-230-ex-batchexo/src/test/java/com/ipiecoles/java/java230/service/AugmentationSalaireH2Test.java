@@ -0,0 +1,205 @@
+package com.ipiecoles.java.java230.service;
+
+import com.ipiecoles.java.java230.exceptions.TechnicienException;
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Employe;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.model.Technicien;
+import com.ipiecoles.java.java230.repository.EmployeRepository;
+import com.ipiecoles.java.java230.repository.ManagerRepository;
+import com.ipiecoles.java.java230.repository.TechnicienRepository;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+
+/**
+ * Les UPDATE des augmentations exécutés sur H2, comparés salaire par salaire à augmenterSalaire sur des employés en mémoire
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+public class AugmentationSalaireH2Test {
+
+    private static final double POURCENTAGE = 0.037;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private ManagerRepository managerRepository;
+
+    @Autowired
+    private TechnicienRepository technicienRepository;
+
+    private final EmployeService employeService = new EmployeService();
+
+    private JdbcTemplate jdbcTemplate;
+
+    //enregistrés en BDD
+    private Manager manager;
+
+    private Technicien technicienGrade3;
+
+    private Technicien technicienGrade1;
+
+    private Manager autreManager;
+
+    private Technicien technicienAutreEquipe;
+
+    private Commercial commercial;
+
+    //les mêmes employés en mémoire, avec les équipes
+    private Manager managerEnMemoire;
+
+    private Technicien technicienGrade3EnMemoire;
+
+    private Technicien technicienGrade1EnMemoire;
+
+    private Manager autreManagerEnMemoire;
+
+    private Technicien technicienAutreEquipeEnMemoire;
+
+    private Commercial commercialEnMemoire;
+
+    private static Manager manager(String matricule, double salaire) {
+        return new Manager("durand", "jacques", matricule, new LocalDate(2013, 6, 4), salaire, new HashSet<>());
+    }
+
+    private static Technicien technicien(String matricule, double salaire, int grade) throws TechnicienException {
+        return new Technicien("dupont", "pierre", matricule, new LocalDate(2003, 3, 12), salaire, grade);
+    }
+
+    private static Commercial commercial(String matricule, double salaire) {
+        return new Commercial("aubert", "michel", matricule, new LocalDate(2018, 9, 5), salaire, 40000.0, 100);
+    }
+
+    private <T extends Employe> T enregistrer(T employe, Manager managerEquipe) {
+        if (managerEquipe != null) {
+            ((Technicien) employe).setManager(managerEquipe);
+        }
+        return entityManager.persist(employe);
+    }
+
+    @Before
+    public void setUp() throws TechnicienException {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        ReflectionTestUtils.setField(employeService, "employeRepository", employeRepository);
+        ReflectionTestUtils.setField(employeService, "managerRepository", managerRepository);
+        ReflectionTestUtils.setField(employeService, "technicienRepository", technicienRepository);
+        ReflectionTestUtils.setField(employeService, "entityManager", entityManager.getEntityManager());
+
+        manager = enregistrer(manager("M12345", 2345.67), null);
+        technicienGrade3 = enregistrer(technicien("T12345", 1789.01, 3), manager);
+        technicienGrade1 = enregistrer(technicien("T12346", 1503.37, 1), manager);
+        autreManager = enregistrer(manager("M54321", 2000.0), null);
+        technicienAutreEquipe = enregistrer(technicien("T54321", 1611.11, 3), autreManager);
+        commercial = enregistrer(commercial("C12345", 1800.0), null);
+        entityManager.flush();
+
+        managerEnMemoire = manager("M12345", 2345.67);
+        technicienGrade3EnMemoire = technicien("T12345", 1789.01, 3);
+        technicienGrade1EnMemoire = technicien("T12346", 1503.37, 1);
+        managerEnMemoire.ajoutTechnicienEquipe(technicienGrade3EnMemoire);
+        managerEnMemoire.ajoutTechnicienEquipe(technicienGrade1EnMemoire);
+        autreManagerEnMemoire = manager("M54321", 2000.0);
+        technicienAutreEquipeEnMemoire = technicien("T54321", 1611.11, 3);
+        autreManagerEnMemoire.ajoutTechnicienEquipe(technicienAutreEquipeEnMemoire);
+        commercialEnMemoire = commercial("C12345", 1800.0);
+    }
+
+    private Double salaireEnBase(Employe employe) {
+        return jdbcTemplate.queryForObject("SELECT salaire FROM Employe WHERE id = ?", Double.class, employe.getId());
+    }
+
+    /**
+     * Chaque salaire en BDD doit être exactement celui de l'employé en mémoire
+     */
+    private void assertMemesSalaires() {
+        Assertions.assertThat(salaireEnBase(manager)).isEqualTo(managerEnMemoire.getSalaire());
+        Assertions.assertThat(salaireEnBase(technicienGrade3)).isEqualTo(technicienGrade3EnMemoire.getSalaire());
+        Assertions.assertThat(salaireEnBase(technicienGrade1)).isEqualTo(technicienGrade1EnMemoire.getSalaire());
+        Assertions.assertThat(salaireEnBase(autreManager)).isEqualTo(autreManagerEnMemoire.getSalaire());
+        Assertions.assertThat(salaireEnBase(technicienAutreEquipe)).isEqualTo(technicienAutreEquipeEnMemoire.getSalaire());
+        Assertions.assertThat(salaireEnBase(commercial)).isEqualTo(commercialEnMemoire.getSalaire());
+    }
+
+    @Test
+    public void testManagerEtSonEquipe() {
+        //When
+        int nb = employeService.augmenterSalaireManager(manager.getId(), POURCENTAGE);
+        managerEnMemoire.augmenterSalaire(POURCENTAGE);
+
+        //Then
+        Assertions.assertThat(nb).isEqualTo(3);
+        assertMemesSalaires();
+    }
+
+    @Test
+    public void testManagerInexistant() {
+        //When
+        //Then
+        //un technicien n'est pas un manager : ni lui ni personne n'est augmenté
+        Assertions.assertThat(employeService.augmenterSalaireManager(technicienGrade3.getId(), POURCENTAGE)).isZero();
+        Assertions.assertThat(employeService.augmenterSalaireManager(-1L, POURCENTAGE)).isZero();
+        assertMemesSalaires();
+    }
+
+    @Test
+    public void testTechniciensDuGrade() {
+        //When
+        int nb = employeService.augmenterSalaireGrade(3, POURCENTAGE);
+        technicienGrade3EnMemoire.augmenterSalaire(POURCENTAGE);
+        technicienAutreEquipeEnMemoire.augmenterSalaire(POURCENTAGE);
+
+        //Then
+        Assertions.assertThat(nb).isEqualTo(2);
+        assertMemesSalaires();
+    }
+
+    @Test
+    public void testTousLesEmployes() {
+        //When
+        int nb = employeService.augmenterSalaires(POURCENTAGE);
+        managerEnMemoire.augmenterSalaire(POURCENTAGE);
+        autreManagerEnMemoire.augmenterSalaire(POURCENTAGE);
+        commercialEnMemoire.augmenterSalaire(POURCENTAGE);
+
+        //Then
+        Assertions.assertThat(nb).isEqualTo(6);
+        assertMemesSalaires();
+    }
+
+    @Test
+    public void testAugmentationsSuccessives() {
+        //When
+        employeService.augmenterSalaireManager(manager.getId(), POURCENTAGE);
+        employeService.augmenterSalaireGrade(1, 0.02);
+        employeService.augmenterSalaires(0.015);
+        managerEnMemoire.augmenterSalaire(POURCENTAGE);
+        technicienGrade1EnMemoire.augmenterSalaire(0.02);
+        managerEnMemoire.augmenterSalaire(0.015);
+        autreManagerEnMemoire.augmenterSalaire(0.015);
+        commercialEnMemoire.augmenterSalaire(0.015);
+
+        //Then
+        assertMemesSalaires();
+    }
+}
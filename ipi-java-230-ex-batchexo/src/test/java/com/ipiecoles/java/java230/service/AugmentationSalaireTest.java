@@ -0,0 +1,62 @@
+package com.ipiecoles.java.java230.service;
+
+import com.ipiecoles.java.java230.repository.EmployeRepository;
+import com.ipiecoles.java.java230.repository.ManagerRepository;
+import com.ipiecoles.java.java230.repository.TechnicienRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.persistence.EntityManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AugmentationSalaireTest {
+
+    @Mock
+    private EmployeRepository employeRepository;
+
+    @Mock
+    private ManagerRepository managerRepository;
+
+    @Mock
+    private TechnicienRepository technicienRepository;
+
+    @Mock
+    private CacheManagers cacheManagers;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private EmployeService employeService;
+
+    @Test
+    public void testManagerEtSonEquipe() {
+        //Given
+        Mockito.when(managerRepository.augmenterSalaireManager(Mockito.eq(1L), Mockito.anyDouble())).thenReturn(1);
+        Mockito.when(managerRepository.augmenterSalaireEquipe(Mockito.eq(1L), Mockito.anyDouble())).thenReturn(3);
+
+        //When
+        int nb = employeService.augmenterSalaireManager(1L, 0.1);
+
+        //Then
+        Assertions.assertThat(nb).isEqualTo(4);
+        Mockito.verify(entityManager).flush();
+        //le cache ne contient que les identifiants des managers
+        Mockito.verify(cacheManagers, Mockito.never()).vider();
+    }
+
+    @Test
+    public void testManagerInexistant() {
+        //When
+        int nb = employeService.augmenterSalaireManager(1L, 0.1);
+
+        //Then
+        Assertions.assertThat(nb).isEqualTo(0);
+        Mockito.verify(managerRepository, Mockito.never()).augmenterSalaireEquipe(Mockito.anyLong(), Mockito.anyDouble());
+    }
+}
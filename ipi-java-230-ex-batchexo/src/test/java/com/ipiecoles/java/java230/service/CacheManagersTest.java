@@ -0,0 +1,147 @@
+package com.ipiecoles.java.java230.service;
+
+import com.ipiecoles.java.java230.model.Commercial;
+import com.ipiecoles.java.java230.model.Manager;
+import com.ipiecoles.java.java230.repository.ManagerRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public class CacheManagersTest {
+
+    private final CacheManagers cacheManagers = new CacheManagers();
+
+    private Cache cache;
+
+    @Before
+    public void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(ManagerRepository.CACHE_PAR_MATRICULE);
+        ReflectionTestUtils.setField(cacheManagers, "cacheManager", cacheManager);
+        cache = cacheManager.getCache(ManagerRepository.CACHE_PAR_MATRICULE);
+        cache.put("M12345", 1L);
+        cache.put("M00001", 2L);
+    }
+
+    private static Manager manager(String matricule) {
+        Manager manager = new Manager();
+        manager.setMatricule(matricule);
+        return manager;
+    }
+
+    @Test
+    public void testEvincerLesManagersEcrits() {
+        //Given
+        Commercial commercial = new Commercial();
+        commercial.setMatricule("C12345");
+
+        //When
+        cacheManagers.evincer(Arrays.asList(manager("M12345"), manager("M99999"), commercial));
+
+        //Then
+        Assertions.assertThat(cache.get("M12345")).isNull();
+        Assertions.assertThat(cache.get("M00001").get()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testEmployeAutreQueManagerNonEvince() {
+        //Given
+        Commercial commercial = new Commercial();
+        commercial.setMatricule("M12345");
+
+        //When
+        cacheManagers.evincer(commercial);
+
+        //Then
+        Assertions.assertThat(cache.get("M12345").get()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testEvincerLesManagersDevenusDUnAutreType() {
+        //When
+        cacheManagers.evincerMatricules(Arrays.asList("M12345"));
+
+        //Then
+        Assertions.assertThat(cache.get("M12345")).isNull();
+        Assertions.assertThat(cache.get("M00001").get()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testVider() {
+        //When
+        cacheManagers.vider();
+
+        //Then
+        Assertions.assertThat(cache.get("M00001")).isNull();
+    }
+
+    /**
+     * ManagerRepository simulé derrière le proxy de cache de Spring, comme le repository de l'application
+     */
+    @Configuration
+    @EnableCaching
+    static class ConfigurationCache {
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(ManagerRepository.CACHE_PAR_MATRICULE);
+        }
+
+        @Bean
+        public ManagerRepository managerRepository() {
+            return Mockito.mock(ManagerRepository.class);
+        }
+    }
+
+    @Test
+    public void testMatriculeInconnuMisEnCache() {
+        try (AnnotationConfigApplicationContext contexte = new AnnotationConfigApplicationContext(ConfigurationCache.class)) {
+            //Given
+            ManagerRepository managerRepository = contexte.getBean(ManagerRepository.class);
+            ManagerRepository requetes = AopTestUtils.getUltimateTargetObject(managerRepository);
+            Mockito.when(requetes.findIdByMatricule("M99999")).thenReturn(Optional.empty());
+
+            //When
+            Optional<Long> premier = managerRepository.findIdByMatricule("M99999");
+            Optional<Long> second = managerRepository.findIdByMatricule("M99999");
+
+            //Then
+            //le second appel ne fait aucune requête
+            Assertions.assertThat(premier).isEmpty();
+            Assertions.assertThat(second).isEmpty();
+            Mockito.verify(requetes, Mockito.times(1)).findIdByMatricule("M99999");
+        }
+    }
+
+    @Test
+    public void testMatriculeInconnuEvinceALaCreationDuManager() {
+        try (AnnotationConfigApplicationContext contexte = new AnnotationConfigApplicationContext(ConfigurationCache.class)) {
+            //Given
+            ManagerRepository managerRepository = contexte.getBean(ManagerRepository.class);
+            ManagerRepository requetes = AopTestUtils.getUltimateTargetObject(managerRepository);
+            Mockito.when(requetes.findIdByMatricule("M99999")).thenReturn(Optional.empty(), Optional.of(3L));
+            CacheManagers cacheManagersContexte = new CacheManagers();
+            ReflectionTestUtils.setField(cacheManagersContexte, "cacheManager", contexte.getBean(CacheManager.class));
+            managerRepository.findIdByMatricule("M99999");
+
+            //When
+            cacheManagersContexte.evincer(manager("M99999"));
+
+            //Then
+            Assertions.assertThat(managerRepository.findIdByMatricule("M99999")).contains(3L);
+            Mockito.verify(requetes, Mockito.times(2)).findIdByMatricule("M99999");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ipiecoles.java.java230.service;
+
+import com.ipiecoles.java.java230.model.Entreprise;
+import com.ipiecoles.java.java230.model.Manager;
+import org.assertj.core.api.Assertions;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+public class PaieServiceTest {
+
+    private static final int NB_MANAGERS = 10;
+
+    private static final int NB_TECHNICIENS_PAR_MANAGER = 3;
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final PaieService paieService = new PaieService();
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+                .addScript("db/schema-h2.sql").build();
+        jdbcTemplate = new JdbcTemplate(database);
+        configurer(paieService);
+        long id = 1;
+        for (int i = 0; i < NB_MANAGERS; i++) {
+            long manager = id++;
+            employe(manager, "2013-06-04");
+            jdbcTemplate.update("INSERT INTO Manager (id) VALUES (?)", manager);
+            for (int j = 0; j < NB_TECHNICIENS_PAR_MANAGER; j++) {
+                employe(id, "2003-03-12");
+                jdbcTemplate.update("INSERT INTO Technicien (id, grade, manager_id) VALUES (?, ?, ?)", id++, 1 + j, manager);
+            }
+            employe(id, "2018-09-05");
+            jdbcTemplate.update("INSERT INTO Commercial (id, caAnnuel, performance) VALUES (?, ?, ?)", id++, 40123.0, 100);
+        }
+    }
+
+    private void configurer(PaieService service) {
+        ReflectionTestUtils.setField(service, "jdbcTemplate", new NamedParameterJdbcTemplate(database));
+        ReflectionTestUtils.setField(service, "transactionManager", new DataSourceTransactionManager(database));
+        ReflectionTestUtils.setField(service, "parallelisme", 3);
+        ReflectionTestUtils.setField(service, "taillePage", 4);
+    }
+
+    private void employe(long id, String dateEmbauche) {
+        jdbcTemplate.update("INSERT INTO Employe (id, matricule, dateEmbauche, salaire) VALUES (?, ?, ?, ?)",
+                id, "X" + id, java.sql.Date.valueOf(dateEmbauche), 1500.0);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void testPaieDeTousLesEmployes() {
+        //When
+        long nb = paieService.calculerPaie(new LocalDate(2020, 1, 1));
+
+        //Then
+        int nbEmployes = NB_MANAGERS * (NB_TECHNICIENS_PAR_MANAGER + 2);
+        Assertions.assertThat(nb).isEqualTo(nbEmployes);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT employe_id) FROM Paie", Integer.class)).isEqualTo(nbEmployes);
+        Map<String, Object> manager = jdbcTemplate.queryForMap("SELECT * FROM Paie WHERE employe_id = 1");
+        Assertions.assertThat(manager.get("anciennete")).isEqualTo(7);
+        Assertions.assertThat(manager.get("nbConges")).isEqualTo(Entreprise.NB_CONGES_BASE);
+        Assertions.assertThat(manager.get("primeAnnuelle")).isEqualTo(Manager.primeAnnuelle(NB_TECHNICIENS_PAR_MANAGER, 2020));
+        Map<String, Object> technicien = jdbcTemplate.queryForMap("SELECT * FROM Paie WHERE employe_id = 4");
+        Assertions.assertThat(technicien.get("nbConges")).isEqualTo(Entreprise.NB_CONGES_BASE + 17);
+        Assertions.assertThat(technicien.get("primeAnnuelle")).isEqualTo(1010 + 1010 * (1 + 3 / 10.0) + Entreprise.PRIME_ANCIENNETE * 17);
+        Map<String, Object> commercial = jdbcTemplate.queryForMap("SELECT * FROM Paie WHERE employe_id = 5");
+        Assertions.assertThat(commercial.get("primeAnnuelle")).isEqualTo(Math.ceil(40123.0 * 0.05));
+    }
+
+    @Test
+    public void testNouveauCalculMemeDateRemplaceLePrecedent() {
+        //Given
+        paieService.calculerPaie(new LocalDate(2020, 1, 1));
+        paieService.calculerPaie(new LocalDate(2021, 1, 1));
+
+        //When
+        paieService.calculerPaie(new LocalDate(2020, 1, 1));
+
+        //Then
+        int nbEmployes = NB_MANAGERS * (NB_TECHNICIENS_PAR_MANAGER + 2);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Paie", Integer.class)).isEqualTo(2 * nbEmployes);
+    }
+
+    @Test
+    public void testCalculEnEchecGardeLePrecedent() {
+        //Given
+        paieService.calculerPaie(new LocalDate(2020, 1, 1));
+        Map<String, Object> precedent = jdbcTemplate.queryForMap("SELECT * FROM Paie WHERE employe_id = 4");
+        //les premières tranches sont écrites avant l'échec de la dernière
+        PaieService paieEnEchec = new PaieService() {
+            @Override
+            long calculerTranche(LocalDate dateReference, long apres, long fin) {
+                if (fin == NB_MANAGERS * (NB_TECHNICIENS_PAR_MANAGER + 2)) {
+                    throw new IllegalStateException("BDD indisponible");
+                }
+                return super.calculerTranche(dateReference, apres, fin);
+            }
+        };
+        configurer(paieEnEchec);
+        jdbcTemplate.update("UPDATE Employe SET dateEmbauche = ? WHERE id = 4", java.sql.Date.valueOf("2010-01-01"));
+
+        //When
+        Throwable erreur = Assertions.catchThrowable(() -> paieEnEchec.calculerPaie(new LocalDate(2020, 1, 1)));
+
+        //Then
+        Assertions.assertThat(erreur).isInstanceOf(IllegalStateException.class).hasMessage("BDD indisponible");
+        int nbEmployes = NB_MANAGERS * (NB_TECHNICIENS_PAR_MANAGER + 2);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Paie", Integer.class)).isEqualTo(nbEmployes);
+        Assertions.assertThat(jdbcTemplate.queryForMap("SELECT * FROM Paie WHERE employe_id = 4")).isEqualTo(precedent);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PaieCalcul", Integer.class)).isZero();
+
+        //When
+        paieService.calculerPaie(new LocalDate(2020, 1, 1));
+
+        //Then
+        //relancé, le calcul remplace les résultats précédents
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Paie", Integer.class)).isEqualTo(nbEmployes);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT anciennete FROM Paie WHERE employe_id = 4", Integer.class)).isEqualTo(10);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ipiecoles.java.java230.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class VerificationSchemaTest {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final VerificationSchema verificationSchema = new VerificationSchema();
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+                .addScript("db/schema-h2.sql").build();
+        jdbcTemplate = new JdbcTemplate(database);
+        ReflectionTestUtils.setField(verificationSchema, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void testMigrationsObligatoiresExecutees() {
+        //When
+        verificationSchema.verifier();
+    }
+
+    @Test
+    public void testColonnesDeRechercheManquantes() {
+        //Given
+        jdbcTemplate.execute("ALTER TABLE Employe DROP COLUMN nomRecherche");
+
+        //When
+        //Then
+        Assertions.assertThatThrownBy(verificationSchema::verifier).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("005-recherche-nom.sql");
+    }
+
+    @Test
+    public void testSequenceManquante() {
+        //Given
+        jdbcTemplate.execute("DROP TABLE employe_seq");
+
+        //When
+        //Then
+        Assertions.assertThatThrownBy(verificationSchema::verifier).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("003-sequence-employe.sql");
+    }
+}
@@ -0,0 +1,2 @@
+-- Compatibilité MySQL de la BDD H2 embarquée, pour les écritures en INSERT ... ON DUPLICATE KEY UPDATE (JdbcUpsertEmployeWriter)
+SET MODE MySQL;
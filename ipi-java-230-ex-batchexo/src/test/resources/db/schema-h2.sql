@@ -0,0 +1,64 @@
+-- Schéma des tables des employés pour les tests sur une BDD H2 embarquée, équivalent à celui de MySQL après les migrations
+CREATE TABLE Employe (
+    id BIGINT NOT NULL PRIMARY KEY,
+    nom VARCHAR(255),
+    prenom VARCHAR(255),
+    matricule VARCHAR(255),
+    dateEmbauche DATE,
+    salaire DOUBLE,
+    nomRecherche VARCHAR(255),
+    prenomRecherche VARCHAR(255),
+    CONSTRAINT uk_employe_matricule UNIQUE (matricule)
+);
+CREATE TABLE Manager (
+    id BIGINT NOT NULL PRIMARY KEY,
+    FOREIGN KEY (id) REFERENCES Employe (id)
+);
+CREATE TABLE Technicien (
+    id BIGINT NOT NULL PRIMARY KEY,
+    grade INT,
+    manager_id BIGINT,
+    FOREIGN KEY (id) REFERENCES Employe (id),
+    FOREIGN KEY (manager_id) REFERENCES Manager (id)
+);
+CREATE TABLE Commercial (
+    id BIGINT NOT NULL PRIMARY KEY,
+    caAnnuel DOUBLE,
+    performance INT,
+    FOREIGN KEY (id) REFERENCES Employe (id)
+);
+CREATE TABLE EmpreinteEmploye (
+    employe_id BIGINT NOT NULL PRIMARY KEY,
+    empreinte BIGINT NOT NULL,
+    FOREIGN KEY (employe_id) REFERENCES Employe (id) ON DELETE CASCADE
+);
+CREATE TABLE employe_seq (next_val BIGINT NOT NULL);
+INSERT INTO employe_seq (next_val) VALUES (1);
+CREATE INDEX idx_employe_salaire ON Employe (salaire);
+-- Sans les triggers MySQL qui la tiennent à jour
+CREATE TABLE StatistiqueSalaire (
+    categorie VARCHAR(32) NOT NULL PRIMARY KEY,
+    nbEmployes BIGINT NOT NULL DEFAULT 0,
+    sommeSalaires DOUBLE NOT NULL DEFAULT 0
+);
+CREATE TABLE StatistiqueSalaireMaintenance (
+    differee BOOLEAN NOT NULL
+);
+INSERT INTO StatistiqueSalaireMaintenance (differee) VALUES (FALSE);
+CREATE TABLE Paie (
+    dateReference DATE NOT NULL,
+    employe_id BIGINT NOT NULL,
+    anciennete INT,
+    nbConges INT,
+    primeAnnuelle DOUBLE,
+    PRIMARY KEY (dateReference, employe_id),
+    FOREIGN KEY (employe_id) REFERENCES Employe (id)
+);
+CREATE TABLE PaieCalcul (
+    dateReference DATE NOT NULL,
+    employe_id BIGINT NOT NULL,
+    anciennete INT,
+    nbConges INT,
+    primeAnnuelle DOUBLE,
+    PRIMARY KEY (dateReference, employe_id)
+);